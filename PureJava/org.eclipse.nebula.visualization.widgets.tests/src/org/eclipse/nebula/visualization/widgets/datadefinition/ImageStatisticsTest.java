@@ -0,0 +1,81 @@
+package org.eclipse.nebula.visualization.widgets.datadefinition;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**JUnit test for image statistics.
+ *
+ */
+public class ImageStatisticsTest {
+
+	private static final double ERROR = 1e-9;
+
+	@Test
+	public void testStatistics() {
+		double[] data = new double[1000];
+		for (int i = 0; i < data.length; i++)
+			data[i] = i;
+		ImageStatistics statistics = new ImageStatistics(100);
+		statistics.compute(new DoubleArrayWrapper(data), data.length);
+		assertEquals(1000, statistics.getCount());
+		assertEquals(0, statistics.getMin(), ERROR);
+		assertEquals(999, statistics.getMax(), ERROR);
+		assertEquals(499.5, statistics.getMean(), ERROR);
+		int total = 0;
+		for (int c : statistics.getHistogram())
+			total += c;
+		assertEquals(1000, total);
+		assertEquals(10, statistics.getLowerClip(), 1);
+		assertEquals(989, statistics.getUpperClip(), 1);
+	}
+
+	@Test
+	public void testRebinning() {
+		ImageStatistics statistics = new ImageStatistics(10);
+		statistics.compute(new IntArrayWrapper(new int[] { 0, 5, 10 }), 3);
+		statistics.compute(new IntArrayWrapper(new int[] { 0, 5, 20 }), 3);
+		assertEquals(20, statistics.getHistogramMax(), ERROR);
+		assertEquals(1, statistics.getHistogram()[9]);
+
+		// same range, histogram binned in the first pass
+		statistics.compute(new IntArrayWrapper(new int[] { 0, 20, 20 }), 3);
+		assertEquals(2, statistics.getHistogram()[9]);
+	}
+
+	@Test
+	public void testCopyIsComputedApart() {
+		ImageStatistics statistics = new ImageStatistics(10);
+		statistics.setPercentiles(0.1, 0.9);
+		statistics.compute(new IntArrayWrapper(new int[] { 0, 5, 10 }), 3);
+		ImageStatistics copy = statistics.copy();
+		copy.compute(new IntArrayWrapper(new int[] { 0, 10, 10 }), 3);
+		assertEquals(5, statistics.getMean(), ERROR);
+		assertEquals(1, statistics.getHistogram()[5]);
+		// binned on the range of the original
+		assertEquals(2, copy.getHistogram()[9]);
+
+		statistics.set(copy);
+		assertEquals(20 / 3.0, statistics.getMean(), ERROR);
+		assertEquals(copy.getUpperClip(), statistics.getUpperClip(), ERROR);
+	}
+
+	@Test
+	public void testIgnoreNaN() {
+		ImageStatistics statistics = new ImageStatistics();
+		statistics.compute(new DoubleArrayWrapper(new double[] { Double.NaN, 1, 3 }), 3);
+		assertEquals(2, statistics.getCount());
+		assertEquals(2, statistics.getMean(), ERROR);
+	}
+
+	@Test
+	public void testParallel() {
+		double[] data = new double[1 << 20];
+		for (int i = 0; i < data.length; i++)
+			data[i] = i % 1000;
+		ImageStatistics statistics = new ImageStatistics();
+		statistics.compute(new DoubleArrayWrapper(data), data.length);
+		assertEquals(data.length, statistics.getCount());
+		assertEquals(999, statistics.getMax(), ERROR);
+	}
+}
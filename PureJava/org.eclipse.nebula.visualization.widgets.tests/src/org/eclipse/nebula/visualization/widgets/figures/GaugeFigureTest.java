@@ -0,0 +1,75 @@
+package org.eclipse.nebula.visualization.widgets.figures;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.SWTGraphics;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.widgets.Display;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**JUnit test for the background cache of the gauge.
+ *
+ */
+public class GaugeFigureTest {
+
+	private static final int SIZE = 200;
+
+	private Image image;
+
+	private GaugeFigure gauge;
+
+	@Before
+	public void setUp() {
+		Display display = Display.getDefault();
+		image = new Image(display, SIZE, SIZE);
+		Figure parent = new Figure();
+		parent.setFont(display.getSystemFont());
+		gauge = new GaugeFigure();
+		parent.add(gauge);
+		gauge.setBounds(new Rectangle(0, 0, SIZE, SIZE));
+	}
+
+	@After
+	public void tearDown() {
+		gauge.removeNotify();
+		image.dispose();
+	}
+
+	private void paint() {
+		gauge.validate();
+		GC gc = new GC(image);
+		SWTGraphics graphics = new SWTGraphics(gc);
+		gauge.paint(graphics);
+		graphics.dispose();
+		gc.dispose();
+	}
+
+	@Test
+	public void testSetValueKeepsCache() {
+		paint();
+		assertTrue(gauge.isBackgroundCacheValid());
+		for (int i = 0; i <= 100; i += 10) {
+			gauge.setValue(i);
+			assertTrue(gauge.isBackgroundCacheValid());
+			paint();
+			assertTrue(gauge.isBackgroundCacheValid());
+		}
+	}
+
+	@Test
+	public void testStaticChildInvalidatesCache() {
+		paint();
+		assertTrue(gauge.isBackgroundCacheValid());
+		gauge.scale.revalidate();
+		assertFalse(gauge.isBackgroundCacheValid());
+		paint();
+		assertTrue(gauge.isBackgroundCacheValid());
+	}
+
+}
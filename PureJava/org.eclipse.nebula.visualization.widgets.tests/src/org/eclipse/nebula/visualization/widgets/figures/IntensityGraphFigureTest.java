@@ -0,0 +1,39 @@
+package org.eclipse.nebula.visualization.widgets.figures;
+
+import static org.junit.Assert.assertEquals;
+
+import org.eclipse.nebula.visualization.widgets.datadefinition.DoubleArrayWrapper;
+import org.eclipse.nebula.visualization.widgets.figures.IntensityGraphFigure.ColorDepth;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
+import org.junit.Test;
+
+/**JUnit test for the RGB rendering of the intensity graph.
+ *
+ */
+public class IntensityGraphFigureTest {
+
+	private static final int WIDTH = 20;
+
+	private static final int HEIGHT = 50;
+
+	@Test
+	public void testScaledDirectPathMatchesCalcRGBPixel() {
+		double min = 0, max = 3;
+		double[] data = new double[WIDTH * HEIGHT * 3];
+		for (int i = 0; i < data.length; i++)
+			data[i] = 3.0 * (i % 1000) / 1000;
+		DoubleArrayWrapper dataArray = new DoubleArrayWrapper(data);
+		PaletteData palette = new PaletteData(0xff, 0xff00, 0xff0000);
+		ImageData imageData = IntensityGraphFigure.drawRGBImageDirect(dataArray, WIDTH, HEIGHT,
+				max, min, ColorDepth.SCALE, palette, new ImageData(WIDTH, HEIGHT, 24, palette), false);
+
+		IntensityGraphFigure figure = new IntensityGraphFigure();
+		figure.setColorDepth(ColorDepth.SCALE);
+		for (int y = 0; y < HEIGHT; y++)
+			for (int x = 0; x < WIDTH; x++)
+				assertEquals(figure.calcRGBPixel(dataArray, max, min, (y * WIDTH + x) * 3),
+						imageData.getPixel(x, y));
+	}
+
+}
@@ -112,7 +112,7 @@ public class ColorMap {
 	/**Set a new map.
 	 * @param colorMap the new map.
 	 */
-	public void setColorMap(LinkedHashMap<Double, RGB> colorMap) {
+	public synchronized void setColorMap(LinkedHashMap<Double, RGB> colorMap) {
 		this.colorMap = colorMap;
 		this.predefinedColorMap = PredefinedColorMap.None;
 		colorsLookupTable = null;
@@ -121,7 +121,7 @@ public class ColorMap {
 	/**
 	 * @param autoScale the autoScale to set
 	 */
-	public void setAutoScale(boolean autoScale) {
+	public synchronized void setAutoScale(boolean autoScale) {
 		this.autoScale = autoScale;
 		colorsLookupTable = null;		
 	}
@@ -138,7 +138,7 @@ public class ColorMap {
 	/**
 	 * @param interpolate the interpolate to set
 	 */
-	public void setInterpolate(boolean interpolate) {
+	public synchronized void setInterpolate(boolean interpolate) {
 		this.interpolate = interpolate;
 	}
 
@@ -154,7 +154,7 @@ public class ColorMap {
 	/**
 	 * @param predefinedColorMap the predefinedColorMap to set
 	 */
-	public void setPredefinedColorMap(PredefinedColorMap predefinedColorMap) {
+	public synchronized void setPredefinedColorMap(PredefinedColorMap predefinedColorMap) {
 		this.predefinedColorMap = predefinedColorMap;
 		if(predefinedColorMap != PredefinedColorMap.None)
 			colorMap = predefinedColorMap.getMap();
@@ -195,12 +195,15 @@ public class ColorMap {
 			return null;
 		if(imageData == null)
 			imageData = new ImageData(dataWidth,dataHeight, 24, palette);	
-		if(colorsLookupTable == null)
+		//the map may be changed in another thread while the image is drawn
+		final int[] pixelLookupTable;
+		synchronized (this) {
 			getColorsLookupTable();
-		
-		if(!autoScale){
-			min = colorMapMin;
-			max = colorMapMax;
+			pixelLookupTable = this.pixelLookupTable;
+			if(!autoScale){
+				min = colorMapMin;
+				max = colorMapMax;
+			}
 		}
 			if(shrink){				
 				int height = imageData.height;
@@ -296,7 +299,7 @@ public class ColorMap {
 	/**Get a colors lookup table from 0 to 255. This only works for autoScale is true;
 	 * @return the colorsLookupTable a array of 256 colors corresponding to the value from min to max
 	 */
-	public RGB[] getColorsLookupTable() {
+	public synchronized RGB[] getColorsLookupTable() {
 		if(colorsLookupTable == null){
 			//convert map to array to simplify the calculation
 			ColorTuple[] colorTupleArray = new ColorTuple[colorMap.size()];
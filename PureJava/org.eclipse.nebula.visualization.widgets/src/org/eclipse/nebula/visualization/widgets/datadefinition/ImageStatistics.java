@@ -0,0 +1,303 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.eclipse.nebula.visualization.widgets.datadefinition;
+
+import java.util.List;
+
+import org.eclipse.nebula.visualization.widgets.util.ParallelUtil;
+import org.eclipse.nebula.visualization.widgets.util.ParallelUtil.IBandTask;
+
+/**Statistics of an image data array: min, max, mean, histogram and the
+ * values at the lower and upper clip percentiles, which can be used as the
+ * range of a color map.
+ * <p>
+ * The statistics are computed in one pass, split in bands on large arrays.
+ * The histogram is binned on the range of the previous computation, so only
+ * when the data leaves this range, or only covers a small part of it, a
+ * second pass is needed to rebin the histogram.
+ * </p>
+ */
+public class ImageStatistics {
+
+	public static final int DEFAULT_BIN_COUNT = 256;
+
+	/**
+	 * The partial result of a band.
+	 */
+	private static class BandResult {
+		double min = Double.POSITIVE_INFINITY;
+		double max = Double.NEGATIVE_INFINITY;
+		double sum;
+		int count;
+		int[] histogram;
+	}
+
+	private final int binCount;
+	private double lowerPercentile = 0.01;
+	private double upperPercentile = 0.99;
+
+	private int count;
+	private double min, max, mean;
+	private int[] histogram;
+	private double histogramMin, histogramMax;
+	private double lowerClip, upperClip;
+
+	public ImageStatistics() {
+		this(DEFAULT_BIN_COUNT);
+	}
+
+	/**
+	 * @param binCount number of bins of the histogram.
+	 */
+	public ImageStatistics(int binCount) {
+		if (binCount < 1)
+			throw new IllegalArgumentException("binCount must be positive");
+		this.binCount = binCount;
+		histogram = new int[binCount];
+	}
+
+	/**
+	 * @return a copy of the settings and results, whose next computation
+	 *         bins the histogram like the next computation of this.
+	 */
+	public synchronized ImageStatistics copy() {
+		ImageStatistics copy = new ImageStatistics(binCount);
+		copy.set(this);
+		return copy;
+	}
+
+	/**Set the settings and results to the ones of other statistics, for
+	 * example the statistics computed on a copy in another thread.
+	 * @param other statistics with the same number of bins.
+	 */
+	public synchronized void set(ImageStatistics other) {
+		if (other.binCount != binCount)
+			throw new IllegalArgumentException("binCount must be the same");
+		synchronized (other) {
+			lowerPercentile = other.lowerPercentile;
+			upperPercentile = other.upperPercentile;
+			count = other.count;
+			min = other.min;
+			max = other.max;
+			mean = other.mean;
+			histogram = other.histogram.clone();
+			histogramMin = other.histogramMin;
+			histogramMax = other.histogramMax;
+			lowerClip = other.lowerClip;
+			upperClip = other.upperClip;
+		}
+	}
+
+	/**Set the percentiles used to calculate the clip values.
+	 * @param lower the lower percentile in [0, 1], for example 0.01.
+	 * @param upper the upper percentile in [0, 1], for example 0.99.
+	 */
+	public synchronized void setPercentiles(double lower, double upper) {
+		if (lower < 0 || upper > 1 || lower >= upper)
+			throw new IllegalArgumentException("Percentiles must satisfy 0 <= lower < upper <= 1");
+		lowerPercentile = lower;
+		upperPercentile = upper;
+		if (count > 0)
+			updateClips();
+	}
+
+	/**Compute the statistics on the first length elements of the data.
+	 * NaN and infinite values are ignored.
+	 * @param data the data array.
+	 * @param length number of elements to be included.
+	 */
+	public synchronized void compute(final IPrimaryArrayWrapper data, int length) {
+		length = Math.min(length, data.getSize());
+		final double[] raw = data instanceof DoubleArrayWrapper ? ((DoubleArrayWrapper) data).data : null;
+		final double binMin = histogramMin;
+		final double binMax = histogramMax;
+		final boolean binned = count > 0 && binMax > binMin;
+		final double binScale = binned ? binCount / (binMax - binMin) : 0;
+
+		int bands = ParallelUtil.getBandCount(length, length);
+		final int size = length;
+		List<BandResult> results = ParallelUtil.computeBands(new IBandTask<BandResult>() {
+			public BandResult compute(int start, int end) {
+				BandResult r = new BandResult();
+				if (binned)
+					r.histogram = new int[binCount];
+				for (int i = start; i < end; i++) {
+					double v = raw != null ? raw[i] : data.get(i);
+					if (Double.isNaN(v) || Double.isInfinite(v))
+						continue;
+					if (v < r.min)
+						r.min = v;
+					if (v > r.max)
+						r.max = v;
+					r.sum += v;
+					r.count++;
+					if (binned) {
+						int bin = (int) ((v - binMin) * binScale);
+						r.histogram[bin < 0 ? 0 : (bin >= binCount ? binCount - 1 : bin)]++;
+					}
+				}
+				return r;
+			}
+		}, size, bands);
+
+		double newMin = Double.POSITIVE_INFINITY, newMax = Double.NEGATIVE_INFINITY, sum = 0;
+		int newCount = 0;
+		for (BandResult r : results) {
+			newMin = Math.min(newMin, r.min);
+			newMax = Math.max(newMax, r.max);
+			sum += r.sum;
+			newCount += r.count;
+		}
+		count = newCount;
+		if (newCount == 0) {
+			min = max = mean = lowerClip = upperClip = 0;
+			histogramMin = histogramMax = 0;
+			histogram = new int[binCount];
+			return;
+		}
+		min = newMin;
+		max = newMax;
+		mean = sum / newCount;
+
+		if (binned && min >= binMin && max <= binMax && (max - min) * 2 > binMax - binMin) {
+			int[] merged = new int[binCount];
+			for (BandResult r : results)
+				for (int i = 0; i < binCount; i++)
+					merged[i] += r.histogram[i];
+			histogram = merged;
+		} else {
+			histogramMin = min;
+			histogramMax = max;
+			histogram = computeHistogram(data, raw, size, bands);
+		}
+		updateClips();
+	}
+
+	private int[] computeHistogram(final IPrimaryArrayWrapper data, final double[] raw, int length, int bands) {
+		final double binMin = histogramMin;
+		final double binScale = histogramMax > histogramMin ? binCount / (histogramMax - histogramMin) : 0;
+		List<int[]> results = ParallelUtil.computeBands(new IBandTask<int[]>() {
+			public int[] compute(int start, int end) {
+				int[] h = new int[binCount];
+				for (int i = start; i < end; i++) {
+					double v = raw != null ? raw[i] : data.get(i);
+					if (Double.isNaN(v) || Double.isInfinite(v))
+						continue;
+					int bin = (int) ((v - binMin) * binScale);
+					h[bin >= binCount ? binCount - 1 : bin]++;
+				}
+				return h;
+			}
+		}, length, bands);
+		int[] merged = results.get(0);
+		for (int j = 1; j < results.size(); j++) {
+			int[] h = results.get(j);
+			for (int i = 0; i < binCount; i++)
+				merged[i] += h[i];
+		}
+		return merged;
+	}
+
+	private void updateClips() {
+		lowerClip = Math.max(min, getPercentileValue(lowerPercentile));
+		upperClip = Math.min(max, getPercentileValue(upperPercentile));
+		if (upperClip <= lowerClip) {
+			lowerClip = min;
+			upperClip = max;
+		}
+	}
+
+	/**
+	 * @param percentile the percentile in [0, 1]
+	 * @return the value at the percentile, interpolated within its histogram bin.
+	 */
+	private double getPercentileValue(double percentile) {
+		double target = percentile * count;
+		double binWidth = (histogramMax - histogramMin) / binCount;
+		long cumulated = 0;
+		for (int i = 0; i < binCount; i++) {
+			if (histogram[i] > 0 && cumulated + histogram[i] >= target) {
+				double fraction = (target - cumulated) / histogram[i];
+				return histogramMin + (i + fraction) * binWidth;
+			}
+			cumulated += histogram[i];
+		}
+		return histogramMax;
+	}
+
+	/**
+	 * @return number of values included in the statistics.
+	 */
+	public synchronized int getCount() {
+		return count;
+	}
+
+	/**
+	 * @return the min
+	 */
+	public synchronized double getMin() {
+		return min;
+	}
+
+	/**
+	 * @return the max
+	 */
+	public synchronized double getMax() {
+		return max;
+	}
+
+	/**
+	 * @return the mean
+	 */
+	public synchronized double getMean() {
+		return mean;
+	}
+
+	/**
+	 * @return the histogram. Bin i covers the values from
+	 *         histogramMin + i*(histogramMax-histogramMin)/binCount.
+	 */
+	public synchronized int[] getHistogram() {
+		return histogram;
+	}
+
+	/**
+	 * @return the lower limit of the histogram.
+	 */
+	public synchronized double getHistogramMin() {
+		return histogramMin;
+	}
+
+	/**
+	 * @return the upper limit of the histogram.
+	 */
+	public synchronized double getHistogramMax() {
+		return histogramMax;
+	}
+
+	/**
+	 * @return the value at the lower percentile.
+	 */
+	public synchronized double getLowerClip() {
+		return lowerClip;
+	}
+
+	/**
+	 * @return the value at the upper percentile.
+	 */
+	public synchronized double getUpperClip() {
+		return upperClip;
+	}
+
+	/**
+	 * @return the number of bins of the histogram.
+	 */
+	public int getBinCount() {
+		return binCount;
+	}
+}
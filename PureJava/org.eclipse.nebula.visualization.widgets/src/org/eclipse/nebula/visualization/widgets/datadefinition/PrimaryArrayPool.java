@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.eclipse.nebula.visualization.widgets.datadefinition;
+
+import java.lang.reflect.Array;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**A thread safe pool of primary data type arrays, so the buffers of a
+ * stream of frames can be recycled instead of allocated for each frame.
+ */
+public class PrimaryArrayPool {
+
+	private final int capacity;
+
+	private final Map<Class<?>, Deque<Object>> pools = new HashMap<Class<?>, Deque<Object>>();
+
+	/**
+	 * @param capacity the maximum number of arrays kept for each array type.
+	 */
+	public PrimaryArrayPool(int capacity) {
+		this.capacity = capacity;
+	}
+
+	/**Get an array from the pool, or a new one if there is no pooled array
+	 * of this type and length. The content of the array is undefined.
+	 * @param arrayType the array type, for example short[].class
+	 * @param length the length of the array.
+	 * @return the array.
+	 */
+	public <T> T acquire(Class<T> arrayType, int length) {
+		if (!arrayType.isArray() || !arrayType.getComponentType().isPrimitive())
+			throw new IllegalArgumentException(arrayType + " is not a primary data type array");
+		synchronized (pools) {
+			Deque<Object> pool = pools.get(arrayType);
+			if (pool != null) {
+				for (Iterator<Object> it = pool.iterator(); it.hasNext();) {
+					Object array = it.next();
+					if (Array.getLength(array) == length) {
+						it.remove();
+						return arrayType.cast(array);
+					}
+				}
+			}
+		}
+		return arrayType.cast(Array.newInstance(arrayType.getComponentType(), length));
+	}
+
+	/**Return an array to the pool. The oldest array is dropped if the pool is full.
+	 * @param array the array which must not be used by the caller any more.
+	 */
+	public void release(Object array) {
+		if (array == null || !array.getClass().isArray())
+			return;
+		synchronized (pools) {
+			Deque<Object> pool = pools.get(array.getClass());
+			if (pool == null) {
+				pool = new ArrayDeque<Object>(capacity);
+				pools.put(array.getClass(), pool);
+			}
+			if (pool.size() >= capacity)
+				pool.pollLast();
+			pool.addFirst(array);
+		}
+	}
+
+	/**Wrap a primary data type array.
+	 * @param array one of byte[], short[], int[], long[], float[] or double[].
+	 * @return the wrapper.
+	 */
+	public static IPrimaryArrayWrapper wrap(Object array) {
+		if (array instanceof double[])
+			return new DoubleArrayWrapper((double[]) array);
+		if (array instanceof float[])
+			return new FloatArrayWrapper((float[]) array);
+		if (array instanceof long[])
+			return new LongArrayWrapper((long[]) array);
+		if (array instanceof int[])
+			return new IntArrayWrapper((int[]) array);
+		if (array instanceof short[])
+			return new ShortArrayWrapper((short[]) array);
+		if (array instanceof byte[])
+			return new ByteArrayWrapper((byte[]) array);
+		throw new IllegalArgumentException("Unsupported array type: " + array);
+	}
+}
@@ -62,15 +62,15 @@ public class Bulb extends Figure{
 	        graphics.fillOval(bounds);
 	        
 			//diagonal linear gradient
-				Pattern p = new Pattern(Display.getCurrent(), bounds.x,	bounds.y,
+				Pattern p = GraphicsUtil.acquirePattern(this, Display.getCurrent(), bounds.x,	bounds.y,
 						bounds.x + getWidth(), bounds.y + getHeight(),
 						COLOR_WHITE, 255, bulbColor, 0);
 	        try {				
 				graphics.setBackgroundPattern(p);
 				graphics.fillOval(bounds);		
-				p.dispose();
+				GraphicsUtil.releasePattern(p);
 			} catch (Exception e) {
-				p.dispose();				
+				GraphicsUtil.releasePattern(p);				
 			}
 			
 		} else {			
@@ -81,6 +81,13 @@ public class Bulb extends Figure{
 		super.paintClientArea(graphics);
 	}
 	
+	/**
+	 * @return the bulbColor
+	 */
+	public Color getBulbColor() {
+		return bulbColor;
+	}
+	
 	/**
 	 * @param bulbColor the bulbColor to set
 	 */
@@ -109,6 +116,12 @@ public class Bulb extends Figure{
 		repaint();
 	}
 
+	@Override
+	public void removeNotify() {
+		GraphicsUtil.releasePatterns(this);
+		super.removeNotify();
+	}
+
 
 
 
@@ -10,6 +10,7 @@ package org.eclipse.nebula.visualization.widgets.figureparts;
 import org.eclipse.draw2d.Figure;
 import org.eclipse.draw2d.Graphics;
 import org.eclipse.draw2d.geometry.Dimension;
+import org.eclipse.draw2d.geometry.PointList;
 import org.eclipse.draw2d.geometry.Rectangle;
 import org.eclipse.nebula.visualization.widgets.datadefinition.ColorMap;
 import org.eclipse.nebula.visualization.widgets.datadefinition.ColorMap.PredefinedColorMap;
@@ -36,6 +37,9 @@ public class ColorMapRamp extends Figure {
 	private ColorMapFigure colorMapFigure;
 	private final static int RAMP_WIDTH = 25;
 	private ImageData imageData;
+	private int[] histogram;
+	private double histogramMin, histogramMax;
+	private boolean showHistogram = true;
 
 	public ColorMapRamp() {
 		mapData = new double[256];
@@ -141,8 +145,38 @@ public class ColorMapRamp extends Figure {
 			final Image image = new Image(Display.getDefault(), data);
 			graphics.drawImage(image, ca.x, ca.y);
 			image.dispose();
+			if(showHistogram && histogram != null)
+				paintHistogram(graphics, ca);
 		}		
 		
+		/**Paint the histogram as a profile along the ramp, the length of each
+		 * bin is proportional to its count.
+		 */
+		private void paintHistogram(Graphics graphics, Rectangle ca) {
+			int maxCount = 0;
+			for(int c : histogram)
+				maxCount = Math.max(maxCount, c);
+			if(maxCount == 0)
+				return;
+			double binWidth = (histogramMax - histogramMin)/histogram.length;
+			PointList points = new PointList(histogram.length + 2);
+			for(int i=0; i<histogram.length; i++){
+				int y = scale.getValuePosition(histogramMin + (i+0.5)*binWidth, false);
+				if(y < ca.y || y > ca.y + ca.height)
+					continue;
+				if(points.size() == 0)
+					points.addPoint(ca.x, y);
+				points.addPoint(ca.x + (int)((long)histogram[i]*(ca.width-1)/maxCount), y);
+			}
+			if(points.size() < 2)
+				return;
+			points.addPoint(ca.x, points.getLastPoint().y);
+			graphics.pushState();
+			graphics.setForegroundColor(getForegroundColor());
+			graphics.drawPolyline(points);
+			graphics.popState();
+		}
+		
 	}
 
 	/**
@@ -159,6 +193,30 @@ public class ColorMapRamp extends Figure {
 	}
 
 
+	/**Set the histogram to be painted as an overlay on the ramp.
+	 * @param histogram the counts of the bins, or null to remove the overlay.
+	 * @param histogramMin the lower limit of the first bin.
+	 * @param histogramMax the upper limit of the last bin.
+	 */
+	public void setHistogram(int[] histogram, double histogramMin, double histogramMax) {
+		this.histogram = histogram;
+		this.histogramMin = histogramMin;
+		this.histogramMax = histogramMax;
+		colorMapFigure.repaint();
+	}
+
+	/**
+	 * @param showHistogram true if the histogram overlay should be painted.
+	 */
+	public void setShowHistogram(boolean showHistogram) {
+		this.showHistogram = showHistogram;
+		colorMapFigure.repaint();
+	}
+
+	public boolean isShowHistogram() {
+		return showHistogram;
+	}
+
 	public void setLog10(boolean log) {
 		this.scale.setLogScale(log);
 	}	
@@ -59,6 +59,9 @@ public class RoundScale extends AbstractScale {
     /** the radius of the scale */
     private int radius;  
     
+    /** increased each time the radius, angles and tick positions are recomputed */
+    private int geometryVersion;
+    
     
 //    private final Font DEFAULT_FONT = CustomMediaFactory.getInstance().getFont(
 //    		CustomMediaFactory.FONT_ARIAL);
@@ -263,7 +266,7 @@ public class RoundScale extends AbstractScale {
     			lengthInPixels =(int) (2*Math.PI*radius*((startAngle-endAngle)/360));
     		}    	
 	    	tickLabels.update(lengthInDegrees, lengthInPixels); 
-	    	
+	    	geometryVersion++;
 	    	setDirty(false);
     	}
     	
@@ -287,7 +290,10 @@ public class RoundScale extends AbstractScale {
 	 * @param startAngle the startAngle to set
 	 */
 	public void setStartAngle(double startAngle) {
+		if(this.startAngle == startAngle)
+			return;
 		this.startAngle = startAngle;
+		setDirty(true);
 	}
 
 	/**
@@ -301,7 +307,10 @@ public class RoundScale extends AbstractScale {
 	 * @param endAngle the endAngle to set
 	 */
 	public void setEndAngle(double endAngle) {
+		if(this.endAngle == endAngle)
+			return;
 		this.endAngle = endAngle;
+		setDirty(true);
 	}
 
 	/**
@@ -316,6 +325,7 @@ public class RoundScale extends AbstractScale {
 	 */
 	public void setRadius(int radius) {
 		this.radius = radius;
+		geometryVersion++;
 	}
 
 	/**
@@ -325,6 +335,17 @@ public class RoundScale extends AbstractScale {
 		return radius;
 	}
 	
+	/**
+	 * @return a number which changes whenever the geometry of the scale, which
+	 * is its radius, angles, range and tick positions, has been recomputed.
+	 * Figures caching points computed from the scale can compare it to know
+	 * if their points are still valid.
+	 */
+	public int getGeometryVersion() {
+		updateTick();
+		return geometryVersion;
+	}
+	
 	/**
 	 * @return the inner radius for a primary tick label side scale.  
 	 */
@@ -43,6 +43,25 @@ public class RoundScaleTickMarks extends Figure {
     
     private int minorTicksNumber;
     
+    /** major tick lines as x1, y1, x2, y2 in the coordinates of the scale */
+    private int[] majorTickLines = new int[0];
+    
+    private int majorTickCount;
+    
+    /** minor tick lines as x1, y1, x2, y2 in the coordinates of the scale */
+    private int[] minorTickLines = new int[0];
+    
+    private int minorTickCount;
+    
+    /** the state of the scale when the tick lines were computed */
+    private int geometryVersion = -1;
+    
+    private LabelSide labelSide;
+    
+    private boolean minorTicksVisible;
+    
+    private Point tickCenter = new Point();
+    
     /**
      * Constructor.
      * 
@@ -101,129 +120,132 @@ public class RoundScaleTickMarks extends Figure {
    
    
     /**
-     * Draw the X tick marks.
+     * Draw the tick marks from the precomputed tick lines.
      * 
-     * @param tickLabelPositions
-     *            the tick label positions
-     * @param tickLabelSide
-     *            the side of tick label relative to tick marks
-     * @param width
-     *            the width to draw tick marks
-     * @param height
-     *            the height to draw tick marks
      * @param graphics
      *            the graphics context
+     * @param tickLabelPositions
+     *            the tick label positions
      */
     private void drawTickMarks(Graphics graphics, ArrayList<Double> tickLabelPositions) {
-
+    	updateTickLines(tickLabelPositions);
+		SingleSourceHelper2.setLineStyle_LINE_SOLID(graphics);
+        graphics.setLineWidth(MAJOR_LINE_WIDTH);
+        for(int i=0; i<majorTickCount; i++)
+        	graphics.drawLine(majorTickLines[4*i], majorTickLines[4*i+1],
+        			majorTickLines[4*i+2], majorTickLines[4*i+3]);
+        graphics.setLineWidth(MINOR_LINE_WIDTH);
+        for(int i=0; i<minorTickCount; i++)
+        	graphics.drawLine(minorTickLines[4*i], minorTickLines[4*i+1],
+        			minorTickLines[4*i+2], minorTickLines[4*i+3]);
+       
+        //draw scale line
+        if(scale.isScaleLineVisible()) {
+        	graphics.drawArc(new Rectangle(bounds.x + bounds.width/2 - scale.getRadius(),
+        			bounds.y + bounds.height/2 - scale.getRadius(),
+        			scale.getRadius() *2, scale.getRadius() * 2), (int) scale.getEndAngle(), 
+        			(int) scale.getLengthInDegrees());
+        }
+        
+    }
+    
+    /**
+     * Compute the end points of all tick marks, unless the geometry of the
+     * scale and the tick settings are the same as on the last computation.
+     * 
+     * @param tickLabelPositions
+     *            the tick label positions
+     */
+    private void updateTickLines(ArrayList<Double> tickLabelPositions) {
+    	Rectangle scaleBounds = scale.getBounds();
+    	if(geometryVersion == scale.getGeometryVersion() && labelSide == scale.getTickLabelSide()
+    			&& minorTicksVisible == scale.isMinorTicksVisible()
+    			&& tickCenter.x == scaleBounds.width/2 && tickCenter.y == scaleBounds.height/2)
+    		return;
+    	geometryVersion = scale.getGeometryVersion();
+    	labelSide = scale.getTickLabelSide();
+    	minorTicksVisible = scale.isMinorTicksVisible();
+    	tickCenter.setLocation(scaleBounds.width/2, scaleBounds.height/2);
+    	majorTickCount = 0;
+    	minorTickCount = 0;
+    	
     	updateMinorTickParas();
     	//add gap to avoid overlap
     	double minRadians = scale.convertPixelToRadians(2);
-        // draw tick marks
-		SingleSourceHelper2.setLineStyle_LINE_SOLID(graphics);
         int r = scale.getRadius();
         
         if(scale.isLogScaleEnabled()) {
         	ArrayList<Boolean> tickLabelVisibilities = 
         		scale.getScaleTickLabels().getTickVisibilities();        	
-        	for (int i = 0; i < tickLabelPositions.size(); i++) {        	
-                int tickLength;
-                int lineWidth;
-                if(tickLabelVisibilities.get(i)) {
-                	lineWidth = MAJOR_LINE_WIDTH;
-                	tickLength = MAJOR_TICK_LENGTH;
-                }                	
-                else {
-                	lineWidth = MINOR_LINE_WIDTH;
-                	tickLength = MINOR_TICK_LENGTH;
-                }
-                	
-                
-                double theta = tickLabelPositions.get(i);            
-                Point startP = new PolarPoint(r, theta).toRelativePoint(scale.getBounds());
-                Point endP; 
-                if (scale.getTickLabelSide() == LabelSide.Primary)
-                	endP = new PolarPoint(
-                			r + tickLength, theta).toRelativePoint(scale.getBounds());
-                else
-                	endP = new PolarPoint(
-                			r - tickLength, theta).toRelativePoint(scale.getBounds());
-                graphics.setLineWidth(lineWidth);    
-                graphics.drawLine(startP, endP);
-        	}
+        	for (int i = 0; i < tickLabelPositions.size(); i++)
+        		addTickLine(tickLabelVisibilities.get(i), r, tickLabelPositions.get(i));
         } else {
         	 for (int i = 0; i < tickLabelPositions.size(); i++) {        		
-                double theta = tickLabelPositions.get(i);            
-                Point startP = new PolarPoint(r, theta).toRelativePoint(scale.getBounds());
-                Point endP; 
-                if (scale.getTickLabelSide() == LabelSide.Primary)
-                	endP = new PolarPoint(
-                			r + MAJOR_TICK_LENGTH, theta).toRelativePoint(scale.getBounds());
-                else
-                	endP = new PolarPoint(
-                			r - MAJOR_TICK_LENGTH, theta).toRelativePoint(scale.getBounds());
-                graphics.setLineWidth(MAJOR_LINE_WIDTH);     
-                graphics.drawLine(startP, endP);
+        		addTickLine(true, r, tickLabelPositions.get(i));
                 
-                //draw minor ticks for linear scale
-                graphics.setLineWidth(MINOR_LINE_WIDTH);
-                if(scale.isMinorTicksVisible()){
+                //minor ticks for linear scale
+                if(minorTicksVisible){
                 	if(i>0) {
                 		
-                		//draw the first grid step which is start from min value
-                		//draw the first grid step which is start from min value
+                		//the first grid step which is start from min value
                 		if(i == 1 && (tickLabelPositions.get(0) - tickLabelPositions.get(1))
                 				< scale.getScaleTickLabels().getGridStepInRadians()){
                 			double t = tickLabelPositions.get(1);
                 			while((tickLabelPositions.get(0) - t) > minorGridStepInRadians + minRadians) {
                 				t = t + minorGridStepInRadians;
-                				drawMinorTick(graphics, r, t);	
+                				addTickLine(false, r, t);	
                 			}
-                		} //draw the last grid step which is end to max value
+                		} //the last grid step which is end to max value
                 		else if(i == tickLabelPositions.size()-1 && 
                 				(tickLabelPositions.get(i-1) - tickLabelPositions.get(i))
                 				< scale.getScaleTickLabels().getGridStepInRadians()){
                 			double t = tickLabelPositions.get(i-1);                			
                 			while((t - tickLabelPositions.get(i)) > minorGridStepInRadians + minRadians) {
                 				t = t - minorGridStepInRadians;
-                				drawMinorTick(graphics, r, t);	
+                				addTickLine(false, r, t);	
                 			}
-                		}else{ // draw regular steps
+                		}else{ // regular steps
 	                		for(int j =1; j<minorTicksNumber; j++) {
 	                			double t =tickLabelPositions.get(i-1) +
 	                				(tickLabelPositions.get(i) - tickLabelPositions.get(i-1))*j/minorTicksNumber;
-	                			drawMinorTick(graphics, r, t);	                		
+	                			addTickLine(false, r, t);	                		
 	                		}
                 		}
                 	}
                 }                
         	 }        
         }
-        
-       
-        //draw scale line
-        if(scale.isScaleLineVisible()) {
-        	graphics.drawArc(new Rectangle(bounds.x + bounds.width/2 - scale.getRadius(),
-        			bounds.y + bounds.height/2 - scale.getRadius(),
-        			scale.getRadius() *2, scale.getRadius() * 2), (int) scale.getEndAngle(), 
-        			(int) scale.getLengthInDegrees());
-        }
-        
     }
 
-	private void drawMinorTick(Graphics graphics, int r, double t) {
-		Point minorStartP = new PolarPoint(
-					r, t).toRelativePoint(scale.getBounds());
-		Point minorEndP;
-		if(scale.getTickLabelSide() == LabelSide.Primary)	
-			 minorEndP =  new PolarPoint(
-					r + MINOR_TICK_LENGTH, t).toRelativePoint(scale.getBounds());
-		else
-			 minorEndP =  new PolarPoint(
-					r - MINOR_TICK_LENGTH, t).toRelativePoint(scale.getBounds());     			
-		graphics.drawLine(minorStartP, minorEndP);
+    /**
+     * Add the line of a tick mark. It gives the same points as
+     * {@link PolarPoint#toRelativePoint(Rectangle)}, but computes the
+     * cosine and sine only once for both ends.
+     */
+	private void addTickLine(boolean major, int r, double theta) {
+		int tickLength = major ? MAJOR_TICK_LENGTH : MINOR_TICK_LENGTH;
+		int r2 = labelSide == LabelSide.Primary ? r + tickLength : r - tickLength;
+		double cos = Math.cos(theta);
+		double sin = Math.sin(theta);
+		int[] lines = major ? majorTickLines : minorTickLines;
+		int count = major ? majorTickCount : minorTickCount;
+		if(lines.length < 4*(count+1)) {
+			int[] newLines = new int[Math.max(16, 2*lines.length)];
+			System.arraycopy(lines, 0, newLines, 0, 4*count);
+			lines = newLines;
+		}
+		lines[4*count] = (int) (r * cos) + tickCenter.x;
+		lines[4*count+1] = (int) (-r * sin) + tickCenter.y;
+		lines[4*count+2] = (int) (r2 * cos) + tickCenter.x;
+		lines[4*count+3] = (int) (-r2 * sin) + tickCenter.y;
+		if(major) {
+			majorTickLines = lines;
+			majorTickCount++;
+		} else {
+			minorTickLines = lines;
+			minorTickCount++;
+		}
 	}
-
     
 
 }
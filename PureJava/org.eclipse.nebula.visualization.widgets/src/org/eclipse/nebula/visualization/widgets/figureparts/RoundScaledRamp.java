@@ -56,6 +56,10 @@ public class RoundScaledRamp extends Figure {
 	
 	private boolean dirty = true;
 	
+	private Boolean patternSupported;
+	
+	private int scaleGeometryVersion = -1;
+	
 	/**
 	 * Constructor
 	 * @param scale the round scale
@@ -86,7 +90,8 @@ public class RoundScaledRamp extends Figure {
      * update the the position for each threshold, and other parameters related to the positions.  
      */
     private void updateThresholdPosition(){
-    	if(dirty){   
+    	if(dirty || scaleGeometryVersion != scale.getGeometryVersion()){   
+    		scaleGeometryVersion = scale.getGeometryVersion();
     		//get normal value
     		double lowLimit;
     		double upLimit;
@@ -173,7 +178,9 @@ public class RoundScaledRamp extends Figure {
     	graphics.pushState();
     	int overlap = 0;
     	Pattern pattern = null;
-    	boolean support3D = GraphicsUtil.testPatternSupported(graphics);    	
+    	if(patternSupported == null)
+    		patternSupported = GraphicsUtil.testPatternSupported(graphics);
+    	boolean support3D = patternSupported;    	
     	//draw lolo part
     	if(lolo.visible){    		
   			graphics.setBackgroundColor(lolo.color);  			
@@ -184,13 +191,13 @@ public class RoundScaledRamp extends Figure {
     	if(lo.visible){
     		if(support3D && gradient && lolo.visible){
     				try {
-						pattern = new Pattern(Display.getCurrent(), lolo.leftPoint.x, lolo.leftPoint.y, 
+						pattern = GraphicsUtil.acquirePattern(this, Display.getCurrent(), lolo.leftPoint.x, lolo.leftPoint.y, 
 								lo.rightPoint.x, lo.rightPoint.y, lolo.color, lo.color);
 						graphics.setBackgroundPattern(pattern);    		
 						overlap = OVERLAP_DEGREE/2;
 					} catch (Exception e) {
 						support3D = false;
-						pattern.dispose();
+						GraphicsUtil.releasePattern(pattern);
 						graphics.setBackgroundColor(lo.color);
 						overlap = 0;
 					}
@@ -205,7 +212,7 @@ public class RoundScaledRamp extends Figure {
     		else
     			graphics.fillArc(bounds, lo.absolutePosition, min.relativePosition - lo.relativePosition);
     		if(gradient && lolo.visible && support3D)
-    			pattern.dispose();    		
+    			GraphicsUtil.releasePattern(pattern);    		
     	}
     	
     	//draw left normal part
@@ -222,7 +229,7 @@ public class RoundScaledRamp extends Figure {
     		leftMarkerVisible = false;
     	
     	if(gradient && leftMarkerVisible && support3D){
-    		pattern = new Pattern(Display.getCurrent(), leftMarker.leftPoint.x, leftMarker.leftPoint.y, 
+    		pattern = GraphicsUtil.acquirePattern(this, Display.getCurrent(), leftMarker.leftPoint.x, leftMarker.leftPoint.y, 
     				normal.rightPoint.x, normal.rightPoint.y, leftMarker.color, normal.color);
     		graphics.setBackgroundPattern(pattern);    		
     		overlap = OVERLAP_DEGREE/2;
@@ -238,7 +245,7 @@ public class RoundScaledRamp extends Figure {
     		graphics.fillArc(bounds, normal.absolutePosition, min.relativePosition - normal.relativePosition);
     	
     	if(gradient && leftMarkerVisible && support3D)
-    		pattern.dispose();   		
+    		GraphicsUtil.releasePattern(pattern);   		
     	
     	//draw right normal part
     	//get the right marker
@@ -254,7 +261,7 @@ public class RoundScaledRamp extends Figure {
     		rightMarkerVisible = false;
     	
     	if(gradient && rightMarkerVisible && support3D){
-    		pattern = new Pattern(Display.getCurrent(), rightMarker.rightPoint.x, rightMarker.rightPoint.y, 
+    		pattern = GraphicsUtil.acquirePattern(this, Display.getCurrent(), rightMarker.rightPoint.x, rightMarker.rightPoint.y, 
     				normal.leftPoint.x, normal.leftPoint.y, rightMarker.color, normal.color);
     		graphics.setBackgroundPattern(pattern);    		
     		overlap = OVERLAP_DEGREE/2;
@@ -271,7 +278,7 @@ public class RoundScaledRamp extends Figure {
     				normal.relativePosition - max.relativePosition +1);
     	
     	if(gradient && rightMarkerVisible && support3D)
-    		pattern.dispose();
+    		GraphicsUtil.releasePattern(pattern);
     	
     	
     	//draw hi part
@@ -283,7 +290,7 @@ public class RoundScaledRamp extends Figure {
 	    		rightMarkerVisible = false;
 	    	
 	    	if(gradient && rightMarkerVisible && support3D){
-	    		pattern = new Pattern(Display.getCurrent(), rightMarker.rightPoint.x, rightMarker.rightPoint.y, 
+	    		pattern = GraphicsUtil.acquirePattern(this, Display.getCurrent(), rightMarker.rightPoint.x, rightMarker.rightPoint.y, 
 	    				hi.leftPoint.x, hi.leftPoint.y, rightMarker.color, hi.color);
 	    		graphics.setBackgroundPattern(pattern);    		
 	    		overlap = OVERLAP_DEGREE/2;
@@ -300,7 +307,7 @@ public class RoundScaledRamp extends Figure {
 	    				hi.relativePosition - max.relativePosition);
 	    	
 	    	if(gradient && rightMarkerVisible && support3D)
-	    		pattern.dispose();
+	    		GraphicsUtil.releasePattern(pattern);
     	}
     	
     	
@@ -322,6 +329,12 @@ public class RoundScaledRamp extends Figure {
     	super.paintClientArea(graphics);    	
     }
     
+    @Override
+    public void removeNotify() {
+    	GraphicsUtil.releasePatterns(this);
+    	super.removeNotify();
+    }
+    
 	
 	
 	/**
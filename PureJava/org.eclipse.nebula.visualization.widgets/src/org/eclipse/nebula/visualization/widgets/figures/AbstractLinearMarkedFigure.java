@@ -7,7 +7,8 @@
  ******************************************************************************/
 package org.eclipse.nebula.visualization.widgets.figures;
 
-
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.geometry.Rectangle;
 import org.eclipse.nebula.visualization.xygraph.linearscale.LinearScale;
 import org.eclipse.nebula.visualization.xygraph.linearscale.LinearScaledMarker;
 import org.eclipse.nebula.visualization.xygraph.util.XYGraphMediaFactory;
@@ -26,6 +27,10 @@ public class AbstractLinearMarkedFigure extends AbstractMarkedWidgetFigure {
 	private static final String HI = "HI";
 	private static final String LO = "LO";
 	private static final String LOLO = "LOLO";
+	
+	/** The painted position of a fill which has not been painted yet. */
+	protected static final int UNPAINTED = Integer.MIN_VALUE;
+	
 	protected LinearScaledMarker marker;
 
 	
@@ -157,5 +162,30 @@ public class AbstractLinearMarkedFigure extends AbstractMarkedWidgetFigure {
 		marker.setDirty(true);
 	}
 	
+	/**Repaint only the band of a fill figure which changes when the end of
+	 * the fill moves along the scale from its painted position to a new position.
+	 * @param fill the figure which paints the fill.
+	 * @param paintedPosition the end of the fill when it was painted last time,
+	 * or {@link #UNPAINTED} to repaint the whole fill figure.
+	 * @param newPosition the new end of the fill.
+	 * @param margin pixels added on both sides of the band, to cover rounded
+	 * corners and antialiasing.
+	 */
+	protected void repaintFillDelta(IFigure fill, int paintedPosition, int newPosition, int margin) {
+		if(paintedPosition == newPosition)
+			return;
+		if(paintedPosition == UNPAINTED){
+			fill.repaint();
+			return;
+		}
+		Rectangle fillBounds = fill.getBounds();
+		int start = Math.min(paintedPosition, newPosition) - margin;
+		int length = Math.abs(newPosition - paintedPosition) + 2*margin + 1;
+		if(((LinearScale) scale).isHorizontal())
+			fill.repaint(start, fillBounds.y, length, fillBounds.height);
+		else
+			fill.repaint(fillBounds.x, start, fillBounds.width, length);
+	}
+	
 	
 }
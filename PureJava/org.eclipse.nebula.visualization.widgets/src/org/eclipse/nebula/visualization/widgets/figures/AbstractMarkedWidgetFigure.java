@@ -7,6 +7,8 @@
  ******************************************************************************/
 package org.eclipse.nebula.visualization.widgets.figures;
 
+import java.util.List;
+
 import org.eclipse.swt.graphics.Color;
 
 /**
@@ -292,4 +294,22 @@ public abstract class AbstractMarkedWidgetFigure extends AbstractScaledWidgetFig
 		repaint();
 	}
 
+	@Override
+	protected void collectStaticStyle(List<Object> key) {
+		super.collectStaticStyle(key);
+		key.add(showMarkers);
+		key.add(loloLevel);
+		key.add(loLevel);
+		key.add(hiLevel);
+		key.add(hihiLevel);
+		key.add(showLolo);
+		key.add(showLo);
+		key.add(showHi);
+		key.add(showHihi);
+		key.add(loloColor);
+		key.add(loColor);
+		key.add(hiColor);
+		key.add(hihiColor);
+	}
+
 }
@@ -7,7 +7,9 @@
  ******************************************************************************/
 package org.eclipse.nebula.visualization.widgets.figures;
 
+import java.util.List;
 
+import org.eclipse.draw2d.IFigure;
 import org.eclipse.nebula.visualization.widgets.figureparts.RoundScale;
 import org.eclipse.nebula.visualization.widgets.figureparts.RoundScaledRamp;
 import org.eclipse.nebula.visualization.widgets.figureparts.RoundScaledRamp.Threshold;
@@ -15,7 +17,8 @@ import org.eclipse.swt.graphics.Color;
 
 
 /**
- * Abstract figure with a round ramp and a round scale. 
+ * Abstract figure with a round ramp and a round scale. The ramp and the
+ * scale are the static part of the dial.
  * @author Xihui Chen
  *
  */
@@ -148,6 +151,24 @@ public class AbstractRoundRampedFigure extends AbstractMarkedWidgetFigure {
 		return gradient;
 	}
 
+	@Override
+	protected void repaintValue() {
+		//the needle or thumb is the only child positioned by the value. Laying
+		//it out right away repaints its old and new bounds, so only the swept
+		//area is painted over the cached dial without revalidating it. The
+		//value label repaints itself when its text is set.
+		layout();
+	}
 	
+	@Override
+	protected boolean isStaticChild(IFigure child) {
+		return child == ramp || child == scale;
+	}
+	
+	@Override
+	protected void collectStaticStyle(List<Object> key) {
+		super.collectStaticStyle(key);
+		key.add(gradient);
+	}
 	
-}
+}
\ No newline at end of file
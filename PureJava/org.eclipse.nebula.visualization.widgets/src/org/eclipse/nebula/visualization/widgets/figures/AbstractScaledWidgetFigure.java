@@ -11,17 +11,39 @@ package org.eclipse.nebula.visualization.widgets.figures;
 import java.beans.BeanInfo;
 import java.beans.IntrospectionException;
 import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.eclipse.draw2d.Figure;
 import org.eclipse.draw2d.Graphics;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.LayoutListener;
+import org.eclipse.draw2d.SWTGraphics;
 import org.eclipse.draw2d.geometry.Rectangle;
 import org.eclipse.nebula.visualization.internal.widgets.introspection.Introspectable;
 import org.eclipse.nebula.visualization.internal.widgets.introspection.ScaleWidgetIntrospector;
+import org.eclipse.nebula.visualization.widgets.util.GraphicsUtil;
 import org.eclipse.nebula.visualization.xygraph.linearscale.AbstractScale;
 import org.eclipse.nebula.visualization.xygraph.linearscale.Range;
+import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.widgets.Display;
 
 /**
  * Base figure for a widget based on {@link AbstractScaledWidgetModel}.
+ * <p>
+ * The static part of a widget, which are the background painted by
+ * {@link #paintStaticBackground(Graphics)} and the children accepted by
+ * {@link #isStaticChild(IFigure)}, is rendered once into an offscreen image.
+ * A change of the value only repaints the other children over this image.
+ * The image is rendered again when the style collected by
+ * {@link #collectStaticStyle(List)} changes, for example the bounds,
+ * thresholds, colors or range, or when a static child is revalidated. Inside a
+ * {@link DashboardFigure}, widgets with the same static style share one image.
+ * </p>
  * 
  * @author Xihui Chen
  *
@@ -48,6 +70,27 @@ public abstract class AbstractScaledWidgetFigure extends Figure implements Intro
 	
 	protected String valueLabelFormat = ""; //$NON-NLS-1$
 	
+	private boolean backgroundCacheEnabled = true;
+	
+	private boolean backgroundCacheDirty = true;
+	
+	private Image backgroundCache;
+	
+	/** the dashboard sharing the background cache, or null if it is owned by this figure */
+	private DashboardFigure backgroundCacheOwner;
+	
+	/** the static style the background cache was painted with */
+	private List<Object> backgroundCacheKey;
+	
+	/** marks the background cache dirty when a static child is revalidated */
+	private final LayoutListener staticChildListener = new LayoutListener.Stub() {
+		@Override
+		public void invalidate(IFigure child) {
+			if(isStaticChild(child))
+				invalidateBackgroundCache();
+		}
+	};
+	
 	public BeanInfo getBeanInfo() throws IntrospectionException {
 		return new ScaleWidgetIntrospector().getBeanInfo(this.getClass());
 	}
@@ -251,9 +294,19 @@ public abstract class AbstractScaledWidgetFigure extends Figure implements Intro
 	public void setValue(final double value) {
 		this.value = value;
 		//	Math.max(scale.getRange().getLower(), Math.min(scale.getRange().getUpper(), value));
-		repaint();
+		repaintValue();
 	}	
 	
+	/**
+	 * Repaint the figure after its value has changed. By default the whole
+	 * figure is repainted, subclasses may repaint only the parts which depend
+	 * on the value.
+	 */
+	protected void repaintValue() {
+		//the static part doesn't depend on the value.
+		super.repaint();
+	}
+	
 	/**
 	 * @param valueLabelFormat the numeric format pattern for value label.
 	 */
@@ -270,4 +323,215 @@ public abstract class AbstractScaledWidgetFigure extends Figure implements Intro
 	}
 	
 
+	/**Enable or disable the offscreen image of the static part of the widget.
+	 * It should be disabled if this figure is transparent and its parent
+	 * paints something else than its background color behind it.
+	 * @param enabled true if the static part should be cached.
+	 */
+	public void setBackgroundCacheEnabled(boolean enabled) {
+		if(this.backgroundCacheEnabled == enabled)
+			return;
+		this.backgroundCacheEnabled = enabled;
+		disposeBackgroundCache();
+		repaint();
+	}
+	
+	/**
+	 * @return true if the static part of the widget is cached.
+	 */
+	public boolean isBackgroundCacheEnabled() {
+		return backgroundCacheEnabled;
+	}
+	
+	/**
+	 * Mark the cached static part of the widget as out of date. It only needs
+	 * to be called if the static part is changed in a property which is not
+	 * collected by {@link #collectStaticStyle(List)}, without revalidating a
+	 * static child.
+	 */
+	public void invalidateBackgroundCache() {
+		backgroundCacheDirty = true;
+	}
+	
+	/**
+	 * @return true if the static part is cached and up to date as far as
+	 * known before the next paint compares its style.
+	 */
+	boolean isBackgroundCacheValid() {
+		return backgroundCache != null && !backgroundCacheDirty;
+	}
+	
+	@Override
+	public void add(IFigure figure, Object constraint, int index) {
+		super.add(figure, constraint, index);
+		figure.addLayoutListener(staticChildListener);
+	}
+	
+	@Override
+	public void remove(IFigure figure) {
+		figure.removeLayoutListener(staticChildListener);
+		super.remove(figure);
+	}
+	
+	/**Paint the static background of the widget below all children.
+	 * @param graphics the graphics in the coordinates of the children.
+	 */
+	protected void paintStaticBackground(Graphics graphics) {		
+	}
+	
+	/**Static children don't depend on the value and are painted into the
+	 * cached image. They must be added before all other children. By default
+	 * no child is static and nothing is cached.
+	 * @param child a child of this figure.
+	 * @return true if the child is part of the static widget.
+	 */
+	protected boolean isStaticChild(IFigure child) {
+		return false;
+	}
+	
+	/**Collect all properties which the static part of the widget depends on.
+	 * Widgets in a {@link DashboardFigure} with equal keys share the image of
+	 * their static part, so subclasses must add each of their own properties
+	 * which change it.
+	 * @param key the list to add the properties to.
+	 */
+	protected void collectStaticStyle(List<Object> key) {
+		key.add(getClass());
+		key.add(getSize());
+		key.add(getInsets());
+		key.add(minimum);
+		key.add(maximum);
+		key.add(logScale);
+		key.add(majorTickMarkStepHint);
+		key.add(showMinorTicks);
+		key.add(showScale);
+		key.add(transparent);
+		key.add(isEnabled());
+		key.add(getFont());
+		key.add(getForegroundColor());
+		key.add(getBackgroundColor());
+		key.add(scale.getFormatPattern());
+		key.add(scale.isDateEnabled());
+		key.add(scale.getTickLabelSide());
+		key.add(scale.isScaleLineVisible());
+	}
+	
+	@SuppressWarnings("unchecked")
+	private boolean hasStaticChildren() {
+		for(IFigure child : (List<IFigure>)getChildren())
+			if(isStaticChild(child))
+				return true;
+		return false;
+	}
+	
+	@Override
+	protected void paintChildren(Graphics graphics) {
+		Rectangle area = getBounds();
+		if(!backgroundCacheEnabled || useLocalCoordinates() || area.isEmpty()
+				|| graphics.getAbsoluteScale() != 1 || Display.getCurrent() == null
+				|| !hasStaticChildren()) {
+			paintStaticBackground(graphics);
+			super.paintChildren(graphics);
+			return;
+		}
+		//a static child may have been changed through its own setters
+		List<Object> key = new ArrayList<Object>();
+		collectStaticStyle(key);
+		if(backgroundCacheDirty || backgroundCache == null 
+				|| backgroundCache.getBounds().width != area.width
+				|| backgroundCache.getBounds().height != area.height
+				|| !key.equals(backgroundCacheKey))
+			updateBackgroundCache(key);
+		graphics.drawImage(backgroundCache, area.x, area.y);
+		paintChildren(graphics, false);
+	}
+	
+	/**Paint either the static or the dynamic children, the same way as
+	 * {@link #paintChildren(Graphics)} of Figure.
+	 */
+	@SuppressWarnings("unchecked")
+	private void paintChildren(Graphics graphics, boolean staticChildren) {
+		Rectangle clip = new Rectangle();
+		for(IFigure child : (List<IFigure>)getChildren()){
+			if(!child.isVisible() || isStaticChild(child) != staticChildren)
+				continue;
+			if(child.intersects(graphics.getClip(clip))){
+				graphics.clipRect(child.getBounds());
+				child.paint(graphics);
+				graphics.restoreState();
+			}
+		}
+	}
+	
+	private void updateBackgroundCache(List<Object> key) {
+		disposeBackgroundCache();
+		IFigure parent = getParent();
+		while(parent != null && !(parent instanceof DashboardFigure))
+			parent = parent.getParent();
+		if(parent != null) {
+			backgroundCacheOwner = (DashboardFigure) parent;
+			backgroundCache = backgroundCacheOwner.acquireSprite(key, this);
+		} else
+			backgroundCache = createStaticImage();
+		backgroundCacheKey = key;
+		backgroundCacheDirty = false;
+	}
+	
+	/**
+	 * @return a new image of the static part of this widget.
+	 */
+	Image createStaticImage() {
+		Rectangle area = getBounds();
+		Display display = Display.getCurrent();
+		Image image = new Image(display, area.width, area.height);
+		GC gc = new GC(image);
+		SWTGraphics graphics = new SWTGraphics(gc);
+		Color background = getBackgroundColor();
+		graphics.setBackgroundColor(background);
+		graphics.fillRectangle(0, 0, area.width, area.height);
+		graphics.translate(-area.x, -area.y);
+		graphics.setForegroundColor(getForegroundColor());
+		Font font = getFont();
+		if(font != null)
+			graphics.setFont(font);
+		graphics.pushState();
+		paintStaticBackground(graphics);
+		graphics.restoreState();
+		paintChildren(graphics, true);
+		graphics.popState();
+		graphics.dispose();
+		gc.dispose();
+		if(transparent){
+			//let the parent show through where nothing has been painted.
+			ImageData imageData = image.getImageData();
+			image.dispose();
+			imageData.transparentPixel = imageData.palette.getPixel(background.getRGB());
+			image = new Image(display, imageData);
+		}
+		return image;
+	}
+	
+	/**
+	 * Dispose or release the cached static part of the widget.
+	 */
+	protected void disposeBackgroundCache() {
+		if(backgroundCache != null) {
+			if(backgroundCacheOwner != null)
+				backgroundCacheOwner.releaseSprite(backgroundCacheKey);
+			else
+				backgroundCache.dispose();
+			backgroundCache = null;
+			backgroundCacheOwner = null;
+			backgroundCacheKey = null;
+		}
+		backgroundCacheDirty = true;
+	}
+	
+	@Override
+	public void removeNotify() {
+		disposeBackgroundCache();
+		GraphicsUtil.releasePatterns(this);
+		super.removeNotify();
+	}
+
 }
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.eclipse.nebula.visualization.widgets.figures;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.Graphics;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Image;
+
+/**A container for dashboards with many scaled widgets.
+ * <p>
+ * The widgets inside a dashboard, which may be nested in other figures,
+ * share the images of their static parts: all widgets of the same type,
+ * size and static style, for example a hundred identical meters, are painted
+ * from a single sprite rendered only once. Each widget then only paints its
+ * dynamic parts, like needle, fill or value label, over the sprite. The
+ * common graphics state is set up once for all children.
+ * </p>
+ * <p>
+ * Any layout manager can be used to place the widgets.
+ * </p>
+ */
+public class DashboardFigure extends Figure {
+
+	private static class Sprite {
+		Image image;
+		int references;
+	}
+
+	private final Map<List<Object>, Sprite> sprites = new HashMap<List<Object>, Sprite>();
+
+	/**Get the sprite of a static style, rendering it by the widget if there
+	 * is no sprite with this key yet.
+	 * @param key the static style of the widget.
+	 * @param widget the widget which renders the sprite if needed.
+	 * @return the image of the sprite, which must be released by
+	 * {@link #releaseSprite(List)} and never be disposed by the widget.
+	 */
+	Image acquireSprite(List<Object> key, AbstractScaledWidgetFigure widget) {
+		Sprite sprite = sprites.get(key);
+		if(sprite == null || sprite.image.isDisposed()) {
+			sprite = new Sprite();
+			sprite.image = widget.createStaticImage();
+			sprites.put(key, sprite);
+		}
+		sprite.references++;
+		return sprite.image;
+	}
+
+	/**Release a sprite acquired by {@link #acquireSprite(List, AbstractScaledWidgetFigure)}.
+	 * It is disposed when no widget uses it any more.
+	 * @param key the static style of the widget.
+	 */
+	void releaseSprite(List<Object> key) {
+		Sprite sprite = sprites.get(key);
+		if(sprite == null)
+			return;
+		if(--sprite.references <= 0) {
+			sprite.image.dispose();
+			sprites.remove(key);
+		}
+	}
+
+	/**
+	 * @return the number of distinct sprites, which is the number of distinct
+	 * static styles among the painted widgets.
+	 */
+	public int getSpriteCount() {
+		return sprites.size();
+	}
+
+	@Override
+	protected void paintChildren(Graphics graphics) {
+		//all widgets paint antialiased, so set it once for all of them.
+		graphics.setAntialias(SWT.ON);
+		graphics.setTextAntialias(SWT.ON);
+		graphics.pushState();
+		super.paintChildren(graphics);
+		graphics.popState();
+	}
+
+	@Override
+	public void removeNotify() {
+		super.removeNotify();
+		for(Sprite sprite : sprites.values())
+			sprite.image.dispose();
+		sprites.clear();
+	}
+}
@@ -7,6 +7,9 @@
  ******************************************************************************/
 package org.eclipse.nebula.visualization.widgets.figures;
 
+import java.util.Arrays;
+import java.util.List;
+
 import org.eclipse.draw2d.AbstractLayout;
 import org.eclipse.draw2d.Ellipse;
 import org.eclipse.draw2d.FigureListener;
@@ -30,6 +33,9 @@ import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.Font;
 import org.eclipse.swt.graphics.FontData;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
 import org.eclipse.swt.graphics.Pattern;
 import org.eclipse.swt.graphics.RGB;
 import org.eclipse.swt.widgets.Display;
@@ -54,6 +60,12 @@ public class GaugeFigure extends AbstractRoundRampedFigure {
 			new FontData("Arial", 12, SWT.BOLD));
 	private final static int BORDER_WIDTH = 2;
 	
+	private final static double UD_FILL_PART = 9.5d/10d;
+	private final static double UP_DOWN_RATIO = 1d/2d;
+	private final static double LR_FILL_PART = 8.5d/10d;
+	private final static double UP_ANGLE = 0d * Math.PI/180d;
+	private final static double DOWN_ANGLE = 35d * Math.PI/180d;
+	
 	private boolean effect3D = true;
 	
 	private NeedleCenter needleCenter;
@@ -63,6 +75,8 @@ public class GaugeFigure extends AbstractRoundRampedFigure {
 	private Label valueLabel;
 	private Boolean support3D;
 	
+	private Image glossyImage;
+	
 	public GaugeFigure() {
 		super();
 		transparent = true;
@@ -107,7 +121,7 @@ public class GaugeFigure extends AbstractRoundRampedFigure {
 	}
 	
 	@Override
-	protected void paintClientArea(Graphics graphics) {
+	protected void paintStaticBackground(Graphics graphics) {
 		graphics.setAntialias(SWT.ON);
 		Rectangle area = getClientArea();
 		area.width = Math.min(area.width, area.height);
@@ -121,64 +135,153 @@ public class GaugeFigure extends AbstractRoundRampedFigure {
 			//add this to eliminate the repaint bug on Mac
 			//Who added this? this will cause problem in zoom.
 //			graphics.fillOval(new Rectangle());
-			pattern = GraphicsUtil.createScaledPattern(graphics, Display.getCurrent(), area.x, area.y, 
+			pattern = GraphicsUtil.acquireScaledPattern(GaugeFigure.this, graphics, Display.getCurrent(), area.x, area.y, 
 				area.x+area.width, area.y + area.height, BORDER_COLOR, WHITE_COLOR);
 			graphics.setBackgroundPattern(pattern);				
 		}	
 		graphics.fillOval(area);		
 		if(effect3D && support3D){	
-			pattern.dispose();
+			GraphicsUtil.releasePattern(pattern);
 			area.shrink(BORDER_WIDTH, BORDER_WIDTH);
 		}else
 			area.shrink(1, 1);
 		graphics.popState();
 		
 		graphics.fillOval(area);
-		
+	}
+	
+	@Override
+	protected void paintClientArea(Graphics graphics) {
 		super.paintClientArea(graphics);
 		
 			//glossy effect
-		if(effect3D && support3D) {
-			graphics.pushState();
-			graphics.setAntialias(SWT.ON);
-			final double R = area.width/2.0d;
-			final double UD_FILL_PART = 9.5d/10d;
-			final double UP_DOWN_RATIO = 1d/2d;
-			final double LR_FILL_PART = 8.5d/10d;
-			final double UP_ANGLE = 0d * Math.PI/180d;
-			final double DOWN_ANGLE = 35d * Math.PI/180d;
-			//add this to eliminate the repaint bug on Mac
+		if(effect3D && support3D != null && support3D) {
+			Rectangle area = getClientArea();
+			area.width = Math.min(area.width, area.height);
+			area.height = area.width;
+			area.shrink(BORDER_WIDTH, BORDER_WIDTH);
+			if(isBackgroundCacheEnabled() && graphics.getAbsoluteScale() == 1) {
+				if(glossyImage == null || glossyImage.getBounds().width != area.width
+						|| glossyImage.getBounds().height != area.height) {
+					if(glossyImage != null)
+						glossyImage.dispose();
+					glossyImage = createGlossyImage(area.width, area.height);
+				}
+				graphics.drawImage(glossyImage, area.x, area.y);
+			}else
+				paintGlossy(graphics, area);
+		}
+		
+		
+	}
+	
+	private void paintGlossy(Graphics graphics, Rectangle area) {
+		graphics.pushState();
+		graphics.setAntialias(SWT.ON);
+		final double R = area.width/2.0d;
+		//add this to eliminate the repaint bug on Mac
 
-//			graphics.fillOval(new Rectangle());
+//		graphics.fillOval(new Rectangle());
 
-			Pattern glossyPattern = GraphicsUtil.createScaledPattern(graphics, Display.getCurrent(), 
-					area.x + area.width/2, (float)(area.y + area.height/2 - R * UD_FILL_PART),
-					area.x + area.width/2, (float) (area.y + area.height/2 + R * UP_DOWN_RATIO),
-					WHITE_COLOR, 90, WHITE_COLOR, 0);
-			graphics.setBackgroundPattern(glossyPattern);
-			Rectangle rectangle = new Rectangle(
+		Pattern glossyPattern = GraphicsUtil.acquireScaledPattern(GaugeFigure.this, graphics, Display.getCurrent(), 
+				area.x + area.width/2, (float)(area.y + area.height/2 - R * UD_FILL_PART),
+				area.x + area.width/2, (float) (area.y + area.height/2 + R * UP_DOWN_RATIO),
+				WHITE_COLOR, 90, WHITE_COLOR, 0);
+		graphics.setBackgroundPattern(glossyPattern);
+		Rectangle[] ovals = getGlossyOvals(area);
+		graphics.fillOval(ovals[0]);
+		GraphicsUtil.releasePattern(glossyPattern);
+		
+		glossyPattern = GraphicsUtil.acquireScaledPattern(GaugeFigure.this, graphics, Display.getCurrent(), 
+				area.x + area.width/2, (float)(area.y + area.height/2 + R * UP_DOWN_RATIO -1),
+				area.x + area.width/2, (float) (area.y + area.height/2 + R * UD_FILL_PART + 1),
+				WHITE_COLOR, 0, WHITE_COLOR, 40);
+		graphics.setBackgroundPattern(glossyPattern);
+		graphics.fillOval(ovals[1]);
+		GraphicsUtil.releasePattern(glossyPattern);
+		graphics.popState();			
+	}
+	
+	/**
+	 * @return the upper and the lower oval of the glossy effect.
+	 */
+	private static Rectangle[] getGlossyOvals(Rectangle area) {
+		final double R = area.width/2.0d;
+		return new Rectangle[]{
+				new Rectangle(
 					(int)(area.x + area.width/2 - R * LR_FILL_PART *Math.cos(UP_ANGLE)),
 					(int)(area.y + area.height/2 - R * UD_FILL_PART),
-					(int)(2*R* LR_FILL_PART*Math.cos(UP_ANGLE)), (int)(R*UD_FILL_PART + R*UP_DOWN_RATIO));			
-			graphics.fillOval(rectangle);
-			glossyPattern.dispose();
-			
-			glossyPattern = GraphicsUtil.createScaledPattern(graphics, Display.getCurrent(), 
-					area.x + area.width/2, (float)(area.y + area.height/2 + R * UP_DOWN_RATIO -1),
-					area.x + area.width/2, (float) (area.y + area.height/2 + R * UD_FILL_PART + 1),
-					WHITE_COLOR, 0, WHITE_COLOR, 40);
-			graphics.setBackgroundPattern(glossyPattern);
-			rectangle = new Rectangle(
+					(int)(2*R* LR_FILL_PART*Math.cos(UP_ANGLE)), (int)(R*UD_FILL_PART + R*UP_DOWN_RATIO)),
+				new Rectangle(
 					(int)(area.x + area.width/2 - R*LR_FILL_PART*Math.sin(DOWN_ANGLE)),
 					(int)Math.ceil(area.y + area.height/2 + R * UP_DOWN_RATIO),
 					(int)(2*R*LR_FILL_PART*Math.sin(DOWN_ANGLE)), 
-					(int)Math.ceil(R*UD_FILL_PART - R*UP_DOWN_RATIO));	
-			graphics.fillOval(rectangle);
-			glossyPattern.dispose();
-			graphics.popState();			
+					(int)Math.ceil(R*UD_FILL_PART - R*UP_DOWN_RATIO))};
+	}
+	
+	/**Render the glossy effect into a white image whose alpha channel holds
+	 * the same gradients as {@link #paintGlossy(Graphics, Rectangle)}, so it
+	 * can be painted over the needle without creating any pattern.
+	 */
+	private static Image createGlossyImage(int width, int height) {
+		ImageData imageData = new ImageData(width, height, 24, new PaletteData(0xFF0000, 0xFF00, 0xFF));
+		Arrays.fill(imageData.data, (byte)0xFF);
+		imageData.alphaData = new byte[width*height];
+		final double R = width/2.0d;
+		Rectangle[] ovals = getGlossyOvals(new Rectangle(0, 0, width, height));
+		fillGlossyOval(imageData, ovals[0], height/2 - R * UD_FILL_PART, 90,
+				height/2 + R * UP_DOWN_RATIO, 0);
+		fillGlossyOval(imageData, ovals[1], height/2 + R * UP_DOWN_RATIO -1, 0,
+				height/2 + R * UD_FILL_PART + 1, 40);
+		return new Image(Display.getCurrent(), imageData);
+	}
+	
+	/**Fill an oval into the alpha channel with a vertical gradient from 
+	 * alpha1 at y1 to alpha2 at y2. The edge is antialiased by the estimated
+	 * coverage of each pixel.
+	 */
+	private static void fillGlossyOval(ImageData imageData, Rectangle oval,
+			double y1, int alpha1, double y2, int alpha2) {
+		double rx = oval.width/2.0, ry = oval.height/2.0;
+		if(rx <= 0 || ry <= 0)
+			return;
+		double cx = oval.x + rx, cy = oval.y + ry;
+		int top = Math.max(0, oval.y), bottom = Math.min(imageData.height, oval.y + oval.height + 1);
+		int left = Math.max(0, oval.x), right = Math.min(imageData.width, oval.x + oval.width + 1);
+		for(int y = top; y < bottom; y++) {
+			double dy = (y + 0.5 - cy)/ry;
+			double t = Math.max(0, Math.min(1, (y + 0.5 - y1)/(y2 - y1)));
+			double alpha = alpha1 + (alpha2 - alpha1)*t;
+			for(int x = left; x < right; x++) {
+				double dx = (x + 0.5 - cx)/rx;
+				double f = dx*dx + dy*dy;
+				double gradient = 2*Math.sqrt(dx*dx/(rx*rx) + dy*dy/(ry*ry));
+				double coverage = gradient == 0 ? 1 : Math.min(1, (1 - f)/gradient + 0.5);
+				if(coverage <= 0)
+					continue;
+				int index = y*imageData.width + x;
+				int a = (int)Math.round(alpha*coverage);
+				if(a > (imageData.alphaData[index] & 0xFF))
+					imageData.alphaData[index] = (byte)a;
+			}
 		}
-		
-		
+	}
+	
+	@Override
+	protected void collectStaticStyle(List<Object> key) {
+		super.collectStaticStyle(key);
+		key.add(effect3D);
+	}
+	
+	@Override
+	public void removeNotify() {
+		//the glossy image only depends on the size, so it is kept as long as
+		//the figure is shown.
+		if(glossyImage != null) {
+			glossyImage.dispose();
+			glossyImage = null;
+		}
+		super.removeNotify();
 	}
 	
 	/**
@@ -235,13 +338,13 @@ public class GaugeFigure extends AbstractRoundRampedFigure {
 				//add this to eliminate the repaint bug on Mac
 //				graphics.fillOval(new Rectangle());
 
-					pattern = GraphicsUtil.createScaledPattern(graphics, Display.getCurrent(), bounds.x, bounds.y,
+					pattern = GraphicsUtil.acquireScaledPattern(GaugeFigure.this, graphics, Display.getCurrent(), bounds.x, bounds.y,
 							bounds.x + bounds.width, bounds.y + bounds.height, WHITE_COLOR, BORDER_COLOR);
 					graphics.setBackgroundPattern(pattern);							
 			}			
 			super.fillShape(graphics);
 			if(effect3D && support3D)
-				pattern.dispose();			
+				GraphicsUtil.releasePattern(pattern);			
 		}		
 	}
 	
@@ -13,6 +13,10 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import org.eclipse.draw2d.ColorConstants;
 import org.eclipse.draw2d.Cursors;
@@ -36,22 +40,23 @@ import org.eclipse.nebula.visualization.widgets.datadefinition.ByteArrayWrapper;
 import org.eclipse.nebula.visualization.widgets.datadefinition.ColorMap;
 import org.eclipse.nebula.visualization.widgets.datadefinition.DoubleArrayWrapper;
 import org.eclipse.nebula.visualization.widgets.datadefinition.FloatArrayWrapper;
+import org.eclipse.nebula.visualization.widgets.datadefinition.ImageStatistics;
 import org.eclipse.nebula.visualization.widgets.datadefinition.IPrimaryArrayWrapper;
 import org.eclipse.nebula.visualization.widgets.datadefinition.IntArrayWrapper;
 import org.eclipse.nebula.visualization.widgets.datadefinition.LongArrayWrapper;
+import org.eclipse.nebula.visualization.widgets.datadefinition.PrimaryArrayPool;
 import org.eclipse.nebula.visualization.widgets.datadefinition.ShortArrayWrapper;
 import org.eclipse.nebula.visualization.widgets.datadefinition.ColorMap.PredefinedColorMap;
 import org.eclipse.nebula.visualization.widgets.figureparts.ColorMapRamp;
 import org.eclipse.nebula.visualization.widgets.figureparts.ROIFigure;
+import org.eclipse.nebula.visualization.widgets.util.ParallelUtil;
+import org.eclipse.nebula.visualization.widgets.util.ParallelUtil.IBandTask;
 import org.eclipse.nebula.visualization.xygraph.figures.Axis;
 import org.eclipse.nebula.visualization.xygraph.linearscale.Range;
-import org.eclipse.nebula.visualization.xygraph.util.GraphicsUtil;
 import org.eclipse.nebula.visualization.xygraph.util.SWTConstants;
 import org.eclipse.nebula.visualization.xygraph.util.XYGraphMediaFactory;
-import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.Font;
-import org.eclipse.swt.graphics.GC;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.ImageData;
 import org.eclipse.swt.graphics.PaletteData;
@@ -100,6 +105,8 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
 	
 	private static final int MAX_ARRAY_SIZE = 10000000;
 	
+	private static final Logger LOGGER = Logger.getLogger(IntensityGraphFigure.class.getName());
+	
 	/**
 	 * ROI listener which will be notified whenever ROI moved.
 	 * @author Xihui
@@ -301,6 +308,7 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
 			inDefaultPosition = false;
 			if(updatedCrossDataIndex){
 				crossDataIndex = graphArea.getDataLocation(crossX, crossY);			
+				profileDataDirty = true;
 				if(croppedDataArray != null)
 					fireProfileDataChanged(croppedDataArray, croppedDataWidth, croppedDataHeight);
 			}
@@ -312,14 +320,19 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
 	}
 	
 	public class GraphArea extends Figure{
-		private final static int CURSOR_SIZE = 14;
+		private final static int READOUT_INTERVAL = 20;
 		private SinglePixelProfileCrossHair crossHair;
+		private ValueReadout valueReadout;
+		private Point readoutLocation;
+		private boolean readoutScheduled;
 		public GraphArea() {
+			valueReadout = new ValueReadout();
 			if(runMode){
-				setCursor(null);
+				setCursor(Cursors.CROSS);
 				GraphAreaZoomer zoomer = new GraphAreaZoomer();
 				addMouseMotionListener(zoomer);
 				addMouseListener(zoomer);				
+				add(valueReadout);
 			}
 			setSinglePixelProfiling(isSingleLineProfiling());
 		}		
@@ -334,12 +347,15 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
 			}else if(crossHair != null && crossHair.getParent()==this)
 				remove(crossHair);
 			dataDirty = true;
+			profileDataDirty = true;
 			repaint();
 		}
 			
 		@Override
 		protected void layout() {
 			Rectangle clientArea = getClientArea();
+			areaWidth = clientArea.width;
+			areaHeight = clientArea.height;
 			if(runMode && isSingleLineProfiling()){
 				crossHair.setBounds(clientArea);
 			}				
@@ -349,37 +365,10 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
 		}
 		
 		
-		private synchronized IPrimaryArrayWrapper cropDataArray(int left, int right, int top, int bottom){
-			if((left != 0 || right != 0 || top != 0 || bottom != 0) &&
-					(dataWidth - left - right) * (dataHeight - top-bottom) >0){
-				int i=0;
-				if((dataWidth - left - right) * (dataHeight - top - bottom) > MAX_ARRAY_SIZE)
-					return dataArray;
-				double[] result = null;
-				if (inRGBMode) {
-					result = new double[(dataWidth - left - right)
-							* (dataHeight - top - bottom)*3];
-					for (int y = top; y < (dataHeight - bottom); y++) {
-						for (int x = left; x < (dataWidth - right); x++) {
-							int p=y * dataWidth*3 + x*3;
-							result[i] = dataArray.get(p);
-							result[i+1]=dataArray.get(p+1);
-							result[i+2]=dataArray.get(p+2);
-							i+=3;
-						}
-					}
-				} else {
-					result = new double[(dataWidth - left - right)
-							* (dataHeight - top - bottom)];
-					for (int y = top; y < (dataHeight - bottom); y++) {
-						for (int x = left; x < (dataWidth - right); x++) {
-							result[i++] = dataArray.get(y * dataWidth + x);
-						}
-					}
-				}				
-				return new DoubleArrayWrapper(result);
-			}else
-				return dataArray;			
+		private synchronized IPrimaryArrayWrapper cropDataArray(IPrimaryArrayWrapper dataArray,
+				int left, int right, int top, int bottom){
+			return IntensityGraphFigure.cropDataArray(dataArray, dataWidth, dataHeight, inRGBMode,
+					left, right, top, bottom);
 		}
 		
 		
@@ -416,6 +405,19 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
 			if(dataArray == null)
 				return;
 			Rectangle clientArea = getClientArea();
+			areaWidth = clientArea.width;
+			areaHeight = clientArea.height;
+			//blit the image which has been converted from a streamed frame
+			if(streamedImageData != null){
+				if(!dataDirty){
+					if(bufferedImage != null)
+						bufferedImage.dispose();
+					bufferedImage = new Image(Display.getCurrent(), streamedImageData);
+					fireProfileDataChanged(croppedDataArray, croppedDataWidth, croppedDataHeight);
+				}
+				frameStream.recycleImageData(streamedImageData);
+				streamedImageData = null;
+			}
 			//draw image if data is dirty or bufferedImage has not been created yet
 			if(dataDirty || bufferedImage == null){
 				dataDirty = false;
@@ -446,47 +448,28 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
 				if(dataWidth - cropLeft - cropRight < 0 || dataHeight - cropTop - cropBottom < 0)
 					return;
 				
-				croppedDataArray = cropDataArray(cropLeft, cropRight, cropTop, cropBottom);
+				croppedDataArray = cropDataArray(dataArray, cropLeft, cropRight, cropTop, cropBottom);
 				
 				if(unsigned) {
 					croppedDataArray = new UnsignedPrimitiveArrayWrapper(croppedDataArray, unsignedBits);
 				}
 
 				fireProfileDataChanged(croppedDataArray, croppedDataWidth, croppedDataHeight);
+				if(statistics != null && !inRGBMode)
+					updateStatistics();
 //				for(ROIFigure roiFigure : roiMap.values()){
 //					roiFigure.fireROIUpdated();
 //				}
-				boolean shrink= false;
-				if(clientArea.width*clientArea.height < croppedDataHeight * croppedDataWidth){
-					shrink = true;
-				}
-				
-				
-				if(shrink){
-					if(bufferedImageData == null || bufferedImageData.width != clientArea.width 
-							|| bufferedImageData.height !=clientArea.height){
-						bufferedImageData = new ImageData(clientArea.width, clientArea.height, 24, colorMap.getPalette());
-					}					
-				}else if(bufferedImageData == null || bufferedImageData.width != croppedDataWidth
-						|| bufferedImageData.height !=croppedDataHeight)
-					bufferedImageData = new ImageData(croppedDataWidth, croppedDataHeight, 24, colorMap.getPalette());
-
-					
 				ImageData imageData = null;
-				if(inRGBMode)
-					try {
-						imageData = drawRGBImage(croppedDataArray,
-								croppedDataWidth, croppedDataHeight,
-								max, min, bufferedImageData, shrink);
-					} catch (IllegalArgumentException e) {
-						graphics.drawText("Drawing Exception: RGB value is not between 0 and 255." +
-					"\nPlease check if the data or color depth is correct.",
-								clientArea.getLocation());
-					}
-				else
-					imageData = colorMap.drawImage(croppedDataArray,
-								croppedDataWidth, croppedDataHeight,
-								max, min, bufferedImageData, shrink);		
+				try {
+					bufferedImageData = imageData = renderImage(croppedDataArray,
+							croppedDataWidth, croppedDataHeight, clientArea.width, clientArea.height,
+							max, min, colorMap, inRGBMode, colorDepth, palette, bufferedImageData);
+				} catch (IllegalArgumentException e) {
+					graphics.drawText("Drawing Exception: RGB value is not between 0 and 255." +
+				"\nPlease check if the data or color depth is correct.",
+							clientArea.getLocation());
+				}
 
 				if(imageData == null)
 					return;
@@ -507,66 +490,99 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
 
 		}
 		
-		private synchronized void updateTextCursor(MouseEvent me) {
-			if(SWT.getPlatform().startsWith("rap")) //$NON-NLS-1$
+		/**Schedule an update of the value readout at the mouse location. Updates are 
+		 * throttled so the readout is refreshed at most once per frame.
+		 * @param location the mouse location.
+		 */
+		private void updateValueReadout(Point location) {
+			readoutLocation = location;
+			if(readoutScheduled)
 				return;
-					if(croppedDataArray == null)
-						return;
-					if(getCursor() != null)
-						getCursor().dispose();
-					double xCoordinate = xAxis.getPositionValue(me.x, false);
-					double yCoordinate = yAxis.getPositionValue(me.y, false);
-					
-					Point dataLocation = getDataLocation(me.x, me.y);		
-					if(dataLocation == null)
-						return;
-					if((dataLocation.y)*croppedDataWidth + dataLocation.x >= croppedDataArray.getSize())
-						return;
-					double valueUnderMouse;
-					if(inRGBMode){
-						int index = (dataLocation.y) * croppedDataWidth * 3
-								+ dataLocation.x * 3;
-						if(index >= croppedDataArray.getSize()-3)
-							return;
-						valueUnderMouse = (croppedDataArray.get(index)
-								+ croppedDataArray.get(index + 1) + croppedDataArray
-								.get(index + 2)) / 3;
-					} else {
-						int index = (dataLocation.y)*croppedDataWidth + dataLocation.x;
-						if(index >= croppedDataArray.getSize())
-							return;
-						valueUnderMouse = croppedDataArray.get(index);
-					}
-					String text = "(" + xAxis.format(xCoordinate) + ", " + yAxis.format(yCoordinate) + ", "+ 
-						yAxis.format(valueUnderMouse) + ")";
-					text = text + getPixelInfo(dataLocation.x + cropLeft, dataLocation.y + cropTop,
-							xCoordinate, yCoordinate, valueUnderMouse);							
-					Dimension size = FigureUtilities.getTextExtents(
-							text, Display.getDefault().getSystemFont());
-					Image image = new Image(Display.getDefault(),
-							size.width + CURSOR_SIZE, size.height + CURSOR_SIZE);
-					
-					GC gc = GraphicsUtil.createGC(image);
-					//gc.setAlpha(0);
-					gc.setBackground(TRANSPARENT_COLOR);					
-					gc.fillRectangle(image.getBounds());
-					gc.setForeground(BLACK_COLOR);
-					gc.drawLine(0, CURSOR_SIZE/2, CURSOR_SIZE, CURSOR_SIZE/2);
-					gc.drawLine(CURSOR_SIZE/2, 0, CURSOR_SIZE/2, CURSOR_SIZE);
-					gc.setBackground(WHITE_COLOR);
-					gc.fillRectangle(CURSOR_SIZE, CURSOR_SIZE, 
-							image.getBounds().width-CURSOR_SIZE, 
-							image.getBounds().height-CURSOR_SIZE);					
-					gc.drawText(text, CURSOR_SIZE, CURSOR_SIZE, true);
-					
-					ImageData imageData = image.getImageData();
-					imageData.transparentPixel = imageData.palette.getPixel(TRANSPARENT_COLOR.getRGB());
-					setCursor(GraphicsUtil.createCursor(Display.getCurrent(),
-							imageData, CURSOR_SIZE/2 ,CURSOR_SIZE/2));
-					gc.dispose();
-					image.dispose();
+			readoutScheduled = true;
+			Display.getCurrent().timerExec(READOUT_INTERVAL, readoutTask);
+		}
+		
+		private final Runnable readoutTask = new Runnable() {
+			public void run() {
+				readoutScheduled = false;
+				if(readoutLocation == null)
+					valueReadout.setVisible(false);
+				else
+					doUpdateValueReadout(readoutLocation);
+			}
+		};
+		
+		private synchronized void doUpdateValueReadout(Point location) {
+			if(croppedDataArray == null || !getClientArea().contains(location)){
+				valueReadout.setVisible(false);
+				return;
+			}
+			double xCoordinate = xAxis.getPositionValue(location.x, false);
+			double yCoordinate = yAxis.getPositionValue(location.y, false);
+			
+			Point dataLocation = getDataLocation(location.x, location.y);		
+			int pixelIndex = dataLocation.y*croppedDataWidth + dataLocation.x;
+			if(pixelIndex < 0 || (inRGBMode ? 3*pixelIndex + 2 : pixelIndex) >= croppedDataArray.getSize()){
+				valueReadout.setVisible(false);
+				return;
+			}
+			double valueUnderMouse = getPixelValue(croppedDataArray, pixelIndex, inRGBMode);
+			String text = "(" + xAxis.format(xCoordinate) + ", " + yAxis.format(yCoordinate) + ", "+ 
+				yAxis.format(valueUnderMouse) + ")";
+			text = text + getPixelInfo(dataLocation.x + cropLeft, dataLocation.y + cropTop,
+					xCoordinate, yCoordinate, valueUnderMouse);
+			valueReadout.setText(text, location, getClientArea());
 		}
 	}
+	
+	/**A label showing the coordinates and value under the mouse. It is reused between
+	 * mouse moves and it is transparent to mouse events.
+	 */
+	class ValueReadout extends Figure {
+		private static final int OFFSET = 12;
+		private static final int PADDING = 2;
+		private String text = ""; //$NON-NLS-1$
+		
+		public ValueReadout() {
+			setVisible(false);
+		}
+		
+		@Override
+		public boolean containsPoint(int x, int y) {
+			return false;
+		}
+		
+		/**Set the text and place the readout next to the location, inside the area.
+		 * @param text the text
+		 * @param location the mouse location
+		 * @param area the area where the readout should be inside.
+		 */
+		public void setText(String text, Point location, Rectangle area) {
+			Dimension size = this.text.equals(text) ? getSize() : 
+				FigureUtilities.getTextExtents(text, getFont()).expand(2*PADDING, 2*PADDING);
+			this.text = text;
+			int x = location.x + OFFSET;
+			int y = location.y + OFFSET;
+			if(x + size.width > area.right())
+				x = Math.max(area.x, location.x - OFFSET - size.width);
+			if(y + size.height > area.bottom())
+				y = Math.max(area.y, location.y - OFFSET - size.height);
+			setBounds(new Rectangle(x, y, size.width, size.height));
+			setVisible(true);
+			repaint();
+		}
+		
+		@Override
+		protected void paintFigure(Graphics graphics) {
+			Rectangle bounds = getBounds();
+			graphics.setBackgroundColor(WHITE_COLOR);
+			graphics.fillRectangle(bounds);
+			graphics.setForegroundColor(BLACK_COLOR);
+			graphics.drawRectangle(bounds.x, bounds.y, bounds.width - 1, bounds.height - 1);
+			graphics.drawText(text, bounds.x + PADDING, bounds.y + PADDING);
+		}
+	}
+	
 	class GraphAreaZoomer extends MouseMotionListener.Stub implements MouseListener{	
 				
 		public void mouseDoubleClicked(MouseEvent me) {
@@ -591,7 +607,7 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
 			if(!armed)
 				return;
 			if(graphArea.getClientArea().contains(me.getLocation())){
-				graphArea.updateTextCursor(me);
+				graphArea.updateValueReadout(me.getLocation());
 				end = me.getLocation();		
 				graphArea.repaint();
 			}
@@ -599,7 +615,12 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
 
 		@Override
 		public void mouseMoved(MouseEvent me) {
-			graphArea.updateTextCursor(me);
+			graphArea.updateValueReadout(me.getLocation());
+		}
+		
+		@Override
+		public void mouseExited(MouseEvent me) {
+			graphArea.updateValueReadout(null);
 		}
 
 		
@@ -626,6 +647,173 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
 		
 	}
 	
+	/**A posted frame with the settings of the graph when it was posted, and the
+	 * image data it is converted to in background, waiting to be blitted. The
+	 * conversion only reads this snapshot, so the settings may change meanwhile.
+	 */
+	private static class ConvertedFrame {
+		Object buffer;
+		IPrimaryArrayWrapper data;
+		int dataWidth, dataHeight;
+		int cropLeft, cropRight, cropTop, cropBottom;
+		int areaWidth, areaHeight;
+		boolean inRGBMode, unsigned, autoContrast;
+		int unsignedBits;
+		ColorMap colorMap;
+		ColorDepth colorDepth;
+		PaletteData palette;
+		/** true if RGB data has to be converted by an overridden calcRGBPixel */
+		boolean calcRGBPixelOverridden;
+		/** A copy of the statistics of the graph, owned by the conversion */
+		ImageStatistics statistics;
+		IPrimaryArrayWrapper croppedData;
+		ImageData imageData;
+		double max, min;
+	}
+	
+	/**Ingests frames posted from any thread with latest-wins semantics. Frames
+	 * are converted to image data on a background thread and only the most recent
+	 * converted frame is handed over to the UI thread. Frame buffers are recycled 
+	 * through a pool once they are replaced.
+	 */
+	class FrameStream implements Runnable {
+		private static final int POOL_CAPACITY = 4;
+		private final Display display;
+		private final PrimaryArrayPool pool = new PrimaryArrayPool(POOL_CAPACITY);
+		private final AtomicReference<ConvertedFrame> pendingFrame = new AtomicReference<ConvertedFrame>();
+		private final AtomicReference<ConvertedFrame> convertedFrame = new AtomicReference<ConvertedFrame>();
+		private final AtomicReference<ImageData> spareImageData = new AtomicReference<ImageData>();
+		private final AtomicBoolean converting = new AtomicBoolean();
+		private final AtomicBoolean blitScheduled = new AtomicBoolean();
+		/**
+		 * Buffer of the frame which is currently displayed. Only accessed in UI thread.
+		 */
+		private Object displayedBuffer;
+		
+		private final Runnable blitTask = new Runnable() {
+			public void run() {
+				blitScheduled.set(false);
+				blit();
+			}
+		};
+		
+		public FrameStream(Display display) {
+			this.display = display;
+		}
+		
+		public <T> T acquire(Class<T> arrayType, int length) {
+			return pool.acquire(arrayType, length);
+		}
+		
+		public void post(ConvertedFrame frame) {
+			ConvertedFrame dropped = pendingFrame.getAndSet(frame);
+			if(dropped != null)
+				pool.release(dropped.buffer);
+			if(converting.compareAndSet(false, true))
+				ParallelUtil.getPool().execute(this);
+		}
+		
+		public void run() {
+			try {
+				while(convertPendingFrame())
+					;
+			} finally {
+				//reset even if the conversion failed, so later frames are not dropped
+				converting.set(false);
+				//a frame may have been posted after the last check
+				if(pendingFrame.get() != null && converting.compareAndSet(false, true))
+					ParallelUtil.getPool().execute(this);
+			}
+		}
+		
+		/**Convert the pending frame and schedule the blit.
+		 * @return false if no frame was pending.
+		 */
+		private boolean convertPendingFrame() {
+			ConvertedFrame frame = pendingFrame.getAndSet(null);
+			if(frame == null)
+				return false;
+			try {
+				convert(frame);
+			} catch (RuntimeException e) {
+				LOGGER.log(Level.WARNING, "Failed to convert a frame", e); //$NON-NLS-1$
+				pool.release(frame.buffer);
+				return true;
+			}
+			ConvertedFrame dropped = convertedFrame.getAndSet(frame);
+			if(dropped != null){
+				pool.release(dropped.buffer);
+				recycleImageData(dropped.imageData);
+			}
+			if(blitScheduled.compareAndSet(false, true) && !display.isDisposed())
+				display.asyncExec(blitTask);
+			return true;
+		}
+		
+		private void convert(ConvertedFrame frame) {
+			//leave it to the paint, so an overridden calcRGBPixel is only called in the UI thread
+			if(frame.inRGBMode && frame.calcRGBPixelOverridden)
+				return;
+			int cw = frame.dataWidth - frame.cropLeft - frame.cropRight;
+			int ch = frame.dataHeight - frame.cropTop - frame.cropBottom;
+			int size = frame.dataWidth * frame.dataHeight * (frame.inRGBMode ? 3 : 1);
+			if(cw <= 0 || ch <= 0 || size == 0 || frame.data.getSize() < size)
+				return;
+			IPrimaryArrayWrapper cropped = cropDataArray(frame.data, frame.dataWidth, frame.dataHeight,
+					frame.inRGBMode, frame.cropLeft, frame.cropRight, frame.cropTop, frame.cropBottom);
+			if(frame.unsigned)
+				cropped = new UnsignedPrimitiveArrayWrapper(cropped, frame.unsignedBits);
+			frame.croppedData = cropped;
+			ImageStatistics stats = frame.statistics;
+			if(stats != null && !frame.inRGBMode){
+				stats.compute(cropped, cw * ch);
+				if(frame.autoContrast && stats.getCount() > 0){
+					frame.min = stats.getLowerClip();
+					frame.max = stats.getUpperClip();
+				}
+			}
+			try {
+				frame.imageData = renderImage(cropped, cw, ch, frame.areaWidth, frame.areaHeight,
+						frame.max, frame.min, frame.colorMap, frame.inRGBMode, frame.colorDepth,
+						frame.palette, spareImageData.getAndSet(null));
+			} catch (IllegalArgumentException e) {
+				//leave it to the paint to report the error.
+				frame.imageData = null;
+			}
+		}
+		
+		private void blit() {
+			ConvertedFrame frame = convertedFrame.getAndSet(null);
+			if(frame == null)
+				return;
+			synchronized (IntensityGraphFigure.this) {
+				dataArray = frame.data;
+				croppedDataArray = frame.croppedData;
+				profileDataDirty = true;
+				if(frame.imageData == null || frame.croppedData == null)
+					dataDirty = true;
+				else{
+					if(streamedImageData != null)
+						recycleImageData(streamedImageData);
+					streamedImageData = frame.imageData;
+				}
+				if(statistics != null && frame.statistics != null)
+					statistics.set(frame.statistics);
+			}
+			if(statistics != null && !inRGBMode)
+				applyStatistics();
+			if(displayedBuffer != null)
+				pool.release(displayedBuffer);
+			displayedBuffer = frame.buffer;
+			graphArea.repaint();
+		}
+		
+		public void recycleImageData(ImageData imageData) {
+			if(imageData != null)
+				spareImageData.set(imageData);
+		}
+	}
+	
 	public interface ICroppedDataSizeListener {
 		void croppedDataSizeChanged(int croppedDataWidth, int croppedDataHeight);
 	}
@@ -641,6 +829,51 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
 				Range xAxisRange, Range yAxisRange);
 	}
 	
+	/**A profile data listener which notifies its delegate at most once per interval.
+	 * The latest profile data within an interval is delivered when the interval elapses.
+	 */
+	private static class ThrottledProfileDataListener implements IProfileDataChangeLisenter, Runnable{
+		private final IProfileDataChangeLisenter delegate;
+		private final int interval;
+		private long lastNotifiedTime;
+		private boolean scheduled;
+		private double[] xProfileData, yProfileData;
+		private Range xAxisRange, yAxisRange;
+		
+		public ThrottledProfileDataListener(IProfileDataChangeLisenter delegate, int interval) {
+			this.delegate = delegate;
+			this.interval = interval;
+		}
+		
+		public void profileDataChanged(double[] xProfileData,
+				double[] yProfileData, Range xAxisRange, Range yAxisRange) {
+			this.xProfileData = xProfileData;
+			this.yProfileData = yProfileData;
+			this.xAxisRange = xAxisRange;
+			this.yAxisRange = yAxisRange;
+			if(scheduled)
+				return;
+			long delay = lastNotifiedTime + interval - System.currentTimeMillis();
+			Display display = Display.getCurrent();
+			if(delay <= 0 || display == null)
+				run();
+			else{
+				scheduled = true;
+				display.timerExec((int) delay, this);
+			}
+		}
+		
+		public void run() {
+			scheduled = false;
+			if(xProfileData == null)
+				return;
+			lastNotifiedTime = System.currentTimeMillis();
+			delegate.profileDataChanged(xProfileData, yProfileData, xAxisRange, yAxisRange);
+			xProfileData = null;
+			yProfileData = null;
+		}
+	}
+	
 	public interface IPixelInfoProvider{
 		/**Get related information on this pixel, which will be displayed below the cursor.
 		 * @param xIndex x index of the pixel
@@ -681,6 +914,7 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
 	private boolean armed;
 	
 	private boolean dataDirty;  //true if the image need to be redrawn
+	private boolean profileDataDirty = true; //true if the profile data need to be recalculated
 	private ImageData bufferedImageData;
 	private Image bufferedImage; //the buffered image 
 	private List<IProfileDataChangeLisenter> profileListeners;
@@ -698,20 +932,34 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
 	private final Color BLACK_COLOR = XYGraphMediaFactory.getInstance().getColor(
 			XYGraphMediaFactory.COLOR_BLACK);
 	
-	private final Color TRANSPARENT_COLOR = XYGraphMediaFactory.getInstance().getColor(
-			new RGB(123,0,23));
-	
 	private boolean inRGBMode = false;
 	
 	private ColorDepth colorDepth = ColorDepth.BIT8;
 	
 	private PaletteData palette = new PaletteData(0xff, 0xff00, 0xff0000);
+	private Boolean calcRGBPixelOverridden;
 	private Boolean savedShowRamp;
 	
 	private boolean isSingleLineProfiling = false;
 	
 	private Color roiColor = ColorConstants.cyan;
 	
+	private ImageStatistics statistics;
+	
+	private boolean autoContrast = false;
+	
+	private FrameStream frameStream;
+	
+	/**
+	 * Image data converted from a streamed frame, to be blitted on next paint.
+	 */
+	private ImageData streamedImageData;
+	
+	/**
+	 * Size of the graph area, which is read by the frame stream converter.
+	 */
+	private volatile int areaWidth, areaHeight;
+	
 	public IntensityGraphFigure() {
 		this(true);
 	}
@@ -744,8 +992,32 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
 
 
 	public void addProfileDataListener(IProfileDataChangeLisenter listener){
-		if(listener != null)
+		if(listener != null){
 			profileListeners.add(listener);
+			profileDataDirty = true;
+		}
+	}
+	
+	/**Add a profile data listener which will be notified at most once per interval,
+	 * so a slow profile plot will not be updated at the frame rate of the graph.
+	 * @param listener the listener.
+	 * @param minInterval the minimum interval between two notifications in milliseconds.
+	 */
+	public void addProfileDataListener(IProfileDataChangeLisenter listener, int minInterval){
+		if(listener == null)
+			return;
+		if(minInterval <= 0)
+			addProfileDataListener(listener);
+		else
+			addProfileDataListener(new ThrottledProfileDataListener(listener, minInterval));
+	}
+	
+	public void removeProfileDataListener(IProfileDataChangeLisenter listener){
+		for(IProfileDataChangeLisenter l : new ArrayList<IProfileDataChangeLisenter>(profileListeners)){
+			if(l == listener || (l instanceof ThrottledProfileDataListener && 
+					((ThrottledProfileDataListener)l).delegate == listener))
+				profileListeners.remove(l);
+		}
 	}
 
 	public void addPixelInfoProvider(IPixelInfoProvider pixelInfoProvider){
@@ -788,64 +1060,72 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
 		}
 	}
 
-	private double[] calculateXProfileData(IPrimaryArrayWrapper data, int dw, int dh){
-		double[] output = new double[dw];
+	/**Calculate the averaged profiles on both axes in a single row-major pass.
+	 * Large arrays are split into bands of rows which are summed in parallel.
+	 * @return {xProfileData, yProfileData}
+	 */
+	private double[][] calculateProfileData(final IPrimaryArrayWrapper data, final int dw, final int dh){
+		final double[] xOutput = new double[dw];
+		final double[] yOutput = new double[dh];
+		final boolean rgb = inRGBMode;
 		if(isSingleLineProfiling()){
 			Point dataloc = graphArea.getDataLocation(graphArea.crossHair.crossX, 
 					graphArea.crossHair.crossY);
-			for(int i=0; i<dw; i++){
-				if(inRGBMode){
-					int index = dataloc.y*dw*3 + i*3;
-					output[i] = (data.get(index) + data.get(index + 1) + data
-							.get(index + 2)) / 3;
-				}else
-					output[i] = data.get(dataloc.y*dw + i);
-			}
-			
-		}else {
-			for (int i = 0; i < dw; i++) {
-				for (int j = 0; j < dh; j++)
-					if (inRGBMode) {
-						int index = j * dw * 3 + i * 3;
-						output[i] += (data.get(index) + data.get(index + 1) + data
-								.get(index + 2)) / 3;
-					} else
-						output[i] += data.get(j * dw + i);
-				output[i] /= dh;
-			}
+			for(int i=0; i<dw; i++)
+				xOutput[i] = getPixelValue(data, dataloc.y*dw + i, rgb);
+			for(int i=0; i<dh; i++)
+				yOutput[i] = getPixelValue(data, dataloc.x + i*dw, rgb);
+			return new double[][]{xOutput, yOutput};
 		}
 		
-		return output;
-	}
-
-	private double[] calculateYProfileData(IPrimaryArrayWrapper data, int dw,
-			int dh) {
-		double[] output = new double[dh];
-		if (isSingleLineProfiling()) {
-			Point dataloc = graphArea.getDataLocation(graphArea.crossHair.crossX, 
-					graphArea.crossHair.crossY);
-			for (int i = 0; i < dh; i++) {
-				if (inRGBMode) {
-					int index = dataloc.x *3 + i*dw* 3;
-					output[i] = (data.get(index) + data.get(index + 1) + data
-							.get(index + 2)) / 3;
-				} else
-					output[i] = data.get(dataloc.x + i*dw);
-			}
-
-		} else {
-			for (int i = 0; i < dh; i++) {
-				for (int j = 0; j < dw; j++)
-					if (inRGBMode) {
-						int index = i * dw * 3 + j * 3;
-						output[i] += (data.get(index) + data.get(index + 1) + data
-								.get(index + 2)) / 3;
-					} else
-						output[i] += data.get(i * dw + j);
-				output[i] /= dw;
+		int bands = ParallelUtil.getBandCount(dh, dw*dh);
+		List<double[]> partialSums = ParallelUtil.computeBands(new IBandTask<double[]>() {
+			public double[] compute(int start, int end) {
+				double[] xSum = new double[dw];
+				double[] raw = (!rgb && data instanceof DoubleArrayWrapper)?
+						((DoubleArrayWrapper)data).data : null;
+				for (int j = start; j < end; j++) {
+					int offset = j*dw;
+					double rowSum = 0;
+					if(raw != null){
+						for(int i=0; i<dw; i++){
+							double v = raw[offset + i];
+							xSum[i] += v;
+							rowSum += v;
+						}
+					}else{
+						for(int i=0; i<dw; i++){
+							double v = getPixelValue(data, offset + i, rgb);
+							xSum[i] += v;
+							rowSum += v;
+						}
+					}
+					yOutput[j] = rowSum/dw;
+				}
+				return xSum;
 			}
+		}, dh, bands);
+		
+		for(double[] xSum : partialSums)
+			for(int i=0; i<dw; i++)
+				xOutput[i] += xSum[i];
+		for(int i=0; i<dw; i++)
+			xOutput[i] /= dh;
+		return new double[][]{xOutput, yOutput};
+	}
+	
+	/**
+	 * @param data the data array
+	 * @param pixelIndex index of the pixel, not of the array element.
+	 * @param rgb true if the data is in RGB mode.
+	 * @return value of the pixel. In RGB mode it is the average of the three channels.
+	 */
+	private static double getPixelValue(IPrimaryArrayWrapper data, int pixelIndex, boolean rgb){
+		if(rgb){
+			int index = pixelIndex*3;
+			return (data.get(index) + data.get(index + 1) + data.get(index + 2)) / 3;
 		}
-		return output;
+		return data.get(pixelIndex);
 	}
 
 	public void dispose(){
@@ -855,12 +1135,75 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
 		}
 	}
 	
+	/**Crop a data array of the given size.
+	 * @return the cropped data, or the data itself if nothing is cropped.
+	 */
+	private static IPrimaryArrayWrapper cropDataArray(IPrimaryArrayWrapper dataArray,
+			int dataWidth, int dataHeight, boolean inRGBMode, int left, int right, int top, int bottom){
+		if((left != 0 || right != 0 || top != 0 || bottom != 0) &&
+				(dataWidth - left - right) * (dataHeight - top-bottom) >0){
+			int i=0;
+			if((dataWidth - left - right) * (dataHeight - top - bottom) > MAX_ARRAY_SIZE)
+				return dataArray;
+			double[] result = null;
+			if (inRGBMode) {
+				result = new double[(dataWidth - left - right)
+						* (dataHeight - top - bottom)*3];
+				for (int y = top; y < (dataHeight - bottom); y++) {
+					for (int x = left; x < (dataWidth - right); x++) {
+						int p=y * dataWidth*3 + x*3;
+						result[i] = dataArray.get(p);
+						result[i+1]=dataArray.get(p+1);
+						result[i+2]=dataArray.get(p+2);
+						i+=3;
+					}
+				}
+			} else {
+				result = new double[(dataWidth - left - right)
+						* (dataHeight - top - bottom)];
+				for (int y = top; y < (dataHeight - bottom); y++) {
+					for (int x = left; x < (dataWidth - right); x++) {
+						result[i++] = dataArray.get(y * dataWidth + x);
+					}
+				}
+			}				
+			return new DoubleArrayWrapper(result);
+		}else
+			return dataArray;			
+	}
+	
+	/**Render the cropped data to image data. The image is shrunk to the graph area
+	 * if the area is smaller than the data.
+	 * @param imageData the image data to be reused if its size matches. Can be null.
+	 * @return the image data, null if the data size is invalid.
+	 * @throws IllegalArgumentException in RGB mode if a RGB value is not between 0 and 255.
+	 */
+	private ImageData renderImage(IPrimaryArrayWrapper croppedData, int croppedWidth,
+			int croppedHeight, int areaWidth, int areaHeight, double max, double min,
+			ColorMap colorMap, boolean inRGBMode, ColorDepth colorDepth, PaletteData palette,
+			ImageData imageData){
+		boolean shrink = areaWidth*areaHeight < croppedHeight * croppedWidth;
+		int width = shrink ? areaWidth : croppedWidth;
+		int height = shrink ? areaHeight : croppedHeight;
+		if(width < 1 || height < 1)
+			return null;
+		if(imageData == null || imageData.width != width || imageData.height != height)
+			imageData = new ImageData(width, height, 24, colorMap.getPalette());
+		if(inRGBMode)
+			return drawRGBImage(croppedData, croppedWidth, croppedHeight,
+					max, min, colorDepth, palette, imageData, shrink);
+		return colorMap.drawImage(croppedData, croppedWidth, croppedHeight,
+				max, min, imageData, shrink);
+	}
+	
 	/**Calculate the image data from source RGB data array [RGBRGBRGB...].
 	 * @param dataArray the source data in RGB mode.
 	 * @param dataWidth number of columns of dataArray; This will be the width of image data.
 	 * @param dataHeight number of rows of dataArray; This will be the height of image data.
 	 * @param max the upper limit of the data in dataArray
 	 * @param min the lower limit of the data in dataArray
+	 * @param colorDepth the color depth of the data.
+	 * @param palette the palette of a new image data.
 	 * @param imageData the imageData to be filled. null if a new instance should be created.
 	 * @param shrink true if area size of image data is smaller than dataWidth*dataHeight. If this is true, it will use
 	 * the nearest neighbor iamge scaling algorithm as described at http://tech-algorithm.com/articles/nearest-neighbor-image-scaling/.
@@ -868,13 +1211,17 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
 	 */
 	private ImageData drawRGBImage(IPrimaryArrayWrapper dataArray,
 			int dataWidth, int dataHeight, double max, double min,
-			ImageData imageData, boolean shrink) {
+			ColorDepth colorDepth, PaletteData palette, ImageData imageData, boolean shrink) {
 		if (dataWidth < 1 || dataHeight < 1
 				|| dataWidth * dataHeight * 3 > dataArray.getSize()
 				|| dataWidth * dataHeight < 0)
 			return null;
 		if (imageData == null)
 			imageData = new ImageData(dataWidth, dataHeight, 24, palette);
+		
+		if (imageData.depth == 24 && !isCalcRGBPixelOverridden())
+			return drawRGBImageDirect(dataArray, dataWidth, dataHeight, max, min,
+					colorDepth, palette, imageData, shrink);
 
 		if (shrink) {
 			int height = imageData.height;
@@ -908,7 +1255,96 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
 		}
 		return imageData;
 	}
+	/**Fast path of {@link #drawRGBImage} for 24 bit image data, which writes the
+	 * channels straight into the bytes of the image data according to the palette masks.
+	 */
+	static ImageData drawRGBImageDirect(IPrimaryArrayWrapper dataArray,
+			int dataWidth, int dataHeight, double max, double min,
+			ColorDepth colorDepth, PaletteData palette, ImageData imageData, boolean shrink) {
+		int height = imageData.height;
+		int width = imageData.width;
+		//24 bit pixels are stored MSB first, so a channel in the lowest byte is the third byte
+		int rOffset = 2 - Integer.numberOfTrailingZeros(palette.redMask) / 8;
+		int gOffset = 2 - Integer.numberOfTrailingZeros(palette.greenMask) / 8;
+		int bOffset = 2 - Integer.numberOfTrailingZeros(palette.blueMask) / 8;
+		
+		// source index of each column
+		int[] columnIndex = new int[width];
+		int x_ratio = shrink ? (int) ((dataWidth << 16) / width) + 1 : 1 << 16;
+		int y_ratio = shrink ? (int) ((dataHeight << 16) / height) + 1 : 1 << 16;
+		for (int j = 0; j < width; j++)
+			columnIndex[j] = ((j * x_ratio) >> 16) * 3;
+		
+		int shift = 0, mask = -1;
+		switch (colorDepth) {
+		case BIT16:
+			shift = 8;
+			break;
+		case BIT24:
+			shift = 16;
+			break;
+		case BIT30:
+			shift = 22;
+			break;
+		case LOWER8BIT:
+			mask = 0xFF;
+			break;
+		default:
+			break;
+		}
+		boolean scale = colorDepth == ColorDepth.SCALE;
+		double range = max - min;
+		byte[] data = imageData.data;
+		int r, g, b;
+		for (int i = 0; i < height; i++) {
+			int rowIndex = ((i * y_ratio) >> 16) * dataWidth * 3;
+			int p = i * imageData.bytesPerLine;
+			for (int j = 0; j < width; j++, p += 3) {
+				int index = rowIndex + columnIndex[j];
+				if (scale) {
+					//the same expression as calcRGBPixel, so both round alike
+					r = (int) ((dataArray.get(index) - min) / range * 255);
+					g = (int) ((dataArray.get(index + 1) - min) / range * 255);
+					b = (int) ((dataArray.get(index + 2) - min) / range * 255);
+				} else {
+					r = ((int) dataArray.get(index) >> shift) & mask;
+					g = ((int) dataArray.get(index + 1) >> shift) & mask;
+					b = ((int) dataArray.get(index + 2) >> shift) & mask;
+				}
+				if (((r | g | b) & ~0xFF) != 0)
+					throw new IllegalArgumentException("RGB value is not between 0 and 255");
+				data[p + rOffset] = (byte) r;
+				data[p + gOffset] = (byte) g;
+				data[p + bOffset] = (byte) b;
+			}
+		}
+		return imageData;
+	}
+	
 	/**
+	 * @return true if {@link #calcRGBPixel} is overridden by a subclass, 
+	 * in which case the direct RGB fast path cannot be used.
+	 */
+	private synchronized boolean isCalcRGBPixelOverridden() {
+		if (calcRGBPixelOverridden == null) {
+			calcRGBPixelOverridden = false;
+			for (Class<?> c = getClass(); c != IntensityGraphFigure.class; c = c.getSuperclass()) {
+				try {
+					c.getDeclaredMethod("calcRGBPixel", IPrimaryArrayWrapper.class, //$NON-NLS-1$
+							double.class, double.class, int.class);
+					calcRGBPixelOverridden = true;
+					break;
+				} catch (NoSuchMethodException e) {
+					// not declared in this class
+				}
+			}
+		}
+		return calcRGBPixelOverridden;
+	}
+	
+	/**Calculate the pixel of a RGB value in the data. It is only called in the
+	 * UI thread, also for frames posted by {@link #postFrame(Object)}, which are
+	 * then converted by the paint if this method is overridden.
 	 * @param dataArray
 	 * @param max
 	 * @param min
@@ -957,15 +1393,17 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
 		return pixel;
 	}
 
+	/**Calculate the profile data and notify the listeners. Nothing is done if
+	 * neither the data, the crop nor the cross hair position has changed since last call.
+	 */
 	private synchronized void fireProfileDataChanged(final IPrimaryArrayWrapper data,
 			final int dw, final int dh) {
-		if (profileListeners.size() <= 0)
+		if (profileListeners.size() <= 0 || !profileDataDirty)
 			return;
-
-		double[] xProfileData = calculateXProfileData(data, dw, dh);
-		double[] yProfileData = calculateYProfileData(data, dw, dh);
+		profileDataDirty = false;
+		double[][] profileData = calculateProfileData(data, dw, dh);
 		for (IProfileDataChangeLisenter lisenter : profileListeners)
-			lisenter.profileDataChanged(xProfileData, yProfileData,
+			lisenter.profileDataChanged(profileData[0], profileData[1],
 					xAxis.getRange(), yAxis.getRange());
 	}
 
@@ -1193,7 +1631,7 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
 	/**
 	 * @param colorMap the colorMap to set
 	 */
-	public final void setColorMap(ColorMap colorMap) {
+	public synchronized final void setColorMap(ColorMap colorMap) {
 		if(colorMap == null)
 			return;
 		this.colorMap = colorMap;
@@ -1206,13 +1644,14 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
 	/**
 	 * @param cropBottom the cropBottom to set
 	 */
-	public final void setCropBottom(int cropBottom) {
+	public synchronized final void setCropBottom(int cropBottom) {
 		if(cropBottom < 0 || cropBottom + cropTop > dataHeight)
 			throw new IllegalArgumentException();
 		if(this.cropBottom == cropBottom)
 			return;
 		this.cropBottom = cropBottom;
 		dataDirty = true;
+		profileDataDirty = true;
 		updateCroppedDataSize();
 		repaint();
 
@@ -1222,13 +1661,14 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
 	/**
 	 * @param cropLeft the cropLeft to set
 	 */
-	public final void setCropLeft(int cropLeft) {
+	public synchronized final void setCropLeft(int cropLeft) {
 		if(cropLeft <0 || cropLeft + cropRight > dataWidth)
 			throw new IllegalArgumentException();
 		if(this.cropLeft == cropLeft)
 			return;
 		this.cropLeft = cropLeft;
 		dataDirty = true;
+		profileDataDirty = true;
 		updateCroppedDataSize();
 		repaint();
 
@@ -1238,13 +1678,14 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
 	/**
 	 * @param cropRight the cropRigth to set
 	 */
-	public final void setCropRight(int cropRight) {
+	public synchronized final void setCropRight(int cropRight) {
 		if(cropRight < 0 || cropRight + cropLeft > dataWidth)
 			throw new IllegalArgumentException();
 		if(this.cropRight == cropRight)
 			return;
 		this.cropRight = cropRight;
 		dataDirty = true;
+		profileDataDirty = true;
 		updateCroppedDataSize();
 		repaint();
 	}
@@ -1253,13 +1694,14 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
 	/**
 	 * @param cropTop the cropTop to set
 	 */
-	public final void setCropTop(int cropTop) {
+	public synchronized final void setCropTop(int cropTop) {
 		if(cropTop < 0 || cropTop + cropBottom > dataHeight)
 			throw new IllegalArgumentException();
 		if(this.cropTop == cropTop)
 			return;
 		this.cropTop = cropTop;
 		dataDirty = true;
+		profileDataDirty = true;
 		updateCroppedDataSize();
 		repaint();
 	}
@@ -1361,7 +1803,8 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
 	/**Set the data array wrapper for the intensity graph. It must be called in UI thread.
 	 * Warning: for big image for example 1024*768, it may takes several milliseconds (10-50ms)
 	 *  to paint the image. If this is called too fast that exceeds the painting capability, 
-	 *  it may cause memory leaking.
+	 *  it may cause memory leaking. Use {@link #postFrame(Object)} to stream frames from 
+	 *  a non UI thread.
 	 * @param data the dataArray to set
 	 * 
 	 */
@@ -1369,13 +1812,72 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
 		dataArray = dataWrapper;
 		croppedDataArray = null;
 		dataDirty = true;
+		profileDataDirty = true;
 		graphArea.repaint();
 	}
 
+	/**Get a buffer for a frame to be posted by {@link #postFrame(Object)}.
+	 * The buffer is taken from a pool of recycled frame buffers if possible.
+	 * It can be called in any thread.
+	 * @param arrayType the type of the buffer, for example short[].class
+	 * @return a buffer of dataWidth*dataHeight elements, or 3*dataWidth*dataHeight 
+	 * elements in RGB mode. Its content is undefined.
+	 */
+	public <T> T acquireFrameBuffer(Class<T> arrayType) {
+		return getFrameStream().acquire(arrayType, dataWidth * dataHeight * (inRGBMode ? 3 : 1));
+	}
+	
+	/**Post a new frame to the intensity graph. It can be called in any thread and 
+	 * does not block. The frame is converted to an image in background; frames 
+	 * which arrive faster than they can be converted or painted are dropped, so
+	 * only the most recent frame is displayed. The caller must not modify the 
+	 * frame after posting it. The buffer will be recycled by 
+	 * {@link #acquireFrameBuffer(Class)} once it is not used anymore.
+	 * @param frame the frame data, one of byte[], short[], int[], long[], float[] or double[].
+	 * @throws IllegalArgumentException if the frame is none of these types.
+	 */
+	public void postFrame(Object frame) {
+		if(frame == null)
+			return;
+		ConvertedFrame posted = new ConvertedFrame();
+		posted.buffer = frame;
+		//wrap it here, so an unsupported array type fails in the caller
+		posted.data = PrimaryArrayPool.wrap(frame);
+		synchronized (this) {
+			posted.dataWidth = dataWidth;
+			posted.dataHeight = dataHeight;
+			posted.cropLeft = cropLeft;
+			posted.cropRight = cropRight;
+			posted.cropTop = cropTop;
+			posted.cropBottom = cropBottom;
+			posted.areaWidth = areaWidth;
+			posted.areaHeight = areaHeight;
+			posted.inRGBMode = inRGBMode;
+			posted.unsigned = unsigned;
+			posted.unsignedBits = unsignedBits;
+			posted.autoContrast = autoContrast;
+			posted.colorMap = colorMap;
+			posted.colorDepth = colorDepth;
+			posted.palette = palette;
+			posted.calcRGBPixelOverridden = inRGBMode && isCalcRGBPixelOverridden();
+			posted.max = max;
+			posted.min = min;
+			if(statistics != null)
+				posted.statistics = statistics.copy();
+		}
+		getFrameStream().post(posted);
+	}
+	
+	private synchronized FrameStream getFrameStream() {
+		if(frameStream == null)
+			frameStream = new FrameStream(Display.getDefault());
+		return frameStream;
+	}
+	
 	/**
 	 * @param dataHeight the dataHeight to set
 	 */
-	public final void setDataHeight(int dataHeight) {
+	public synchronized final void setDataHeight(int dataHeight) {
 		if(dataHeight <0|| dataWidth * dataHeight > MAX_ARRAY_SIZE || dataWidth * dataHeight < 0)
 			throw new IllegalArgumentException();
 		if(this.dataHeight == dataHeight)
@@ -1383,6 +1885,7 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
 		this.dataHeight = dataHeight;
 		updateCroppedDataSize();
 		dataDirty = true;
+		profileDataDirty = true;
 		repaint();
 	}
 
@@ -1390,7 +1893,7 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
 	/**
 	 * @param dataWidth the dataWidth to set
 	 */
-	public final void setDataWidth(int dataWidth) {
+	public synchronized final void setDataWidth(int dataWidth) {
 		if(dataWidth < 0 || dataWidth * dataHeight > MAX_ARRAY_SIZE || dataWidth * dataHeight < 0)
 			throw new IllegalArgumentException();
 		if(this.dataWidth == dataWidth)
@@ -1398,6 +1901,7 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
 		this.dataWidth = dataWidth;
 		updateCroppedDataSize();
 		dataDirty = true;
+		profileDataDirty = true;
 		repaint();
 	}
 
@@ -1419,6 +1923,7 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
 		
 		this.inRGBMode = inRGBMode;
 		dataDirty = true;
+		profileDataDirty = true;
 		repaint();
 	}
 	
@@ -1426,7 +1931,7 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
 	/**
 	 * @param max the max to set
 	 */
-	public final void setMax(double max) {
+	public synchronized final void setMax(double max) {
 		if(this.max == max)
 			return;
 		this.max = max;
@@ -1444,7 +1949,7 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
 	/**
 	 * @param min the min to set
 	 */
-	public final void setMin(double min) {
+	public synchronized final void setMin(double min) {
 		if(this.min == min)
 			return;
 		this.min = min;
@@ -1457,15 +1962,17 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
 	/**
 	 * @param unsigned true if the data is unsigned
 	 */
-	public void setUnsigned(boolean unsigned) {
+	public synchronized void setUnsigned(boolean unsigned) {
 		this.unsigned = unsigned;
+		profileDataDirty = true;
 	}
 
 	/**
 	 * @param bits the number of bits in the unsigned data, or zero
 	 */
-	public final void setUnsignedBits(int bits) {
+	public synchronized final void setUnsignedBits(int bits) {
 		this.unsignedBits = bits;
+		profileDataDirty = true;
 	}
 
 
@@ -1557,11 +2064,94 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
 	/**Set Color depth of the image.
 	 * @param colorDepth the colorDepth to set
 	 */
-	public void setColorDepth(ColorDepth colorDepth) {
+	public synchronized void setColorDepth(ColorDepth colorDepth) {
 		this.colorDepth = colorDepth;
 		dataDirty = true;
 		repaint();
 	}
+	/**Enable or disable the statistics which are computed on the cropped data
+	 * whenever a new image is drawn. It is ignored in RGB mode.
+	 * @param enabled true if the statistics should be computed.
+	 */
+	public synchronized void setStatisticsEnabled(boolean enabled) {
+		if(isStatisticsEnabled() == enabled)
+			return;
+		statistics = enabled ? new ImageStatistics() : null;
+		if(!enabled){
+			autoContrast = false;
+			colorMapRamp.setHistogram(null, 0, 0);
+		}
+		dataDirty = true;
+		repaint();
+	}
+	
+	/**
+	 * @return true if statistics are computed on the image.
+	 */
+	public boolean isStatisticsEnabled() {
+		return statistics != null;
+	}
+	
+	/**
+	 * @return the statistics of the last drawn image, or null if statistics is not enabled.
+	 */
+	public ImageStatistics getStatistics() {
+		return statistics;
+	}
+	
+	/**Set if the range of the color map is set automatically to the values at 
+	 * the clip percentiles of the image statistics. Enabling it also enables the statistics.
+	 * @param autoContrast true if auto contrast is on.
+	 */
+	public synchronized void setAutoContrast(boolean autoContrast) {
+		if(autoContrast)
+			setStatisticsEnabled(true);
+		this.autoContrast = autoContrast;
+		dataDirty = true;
+		repaint();
+	}
+	
+	/**
+	 * @return true if auto contrast is on.
+	 */
+	public boolean isAutoContrast() {
+		return autoContrast;
+	}
+	
+	/**Set the percentiles used for auto contrast, for example 0.01 and 0.99.
+	 * @param lower the lower percentile in [0, 1]
+	 * @param upper the upper percentile in [0, 1]
+	 */
+	public synchronized void setAutoContrastPercentiles(double lower, double upper) {
+		setStatisticsEnabled(true);
+		statistics.setPercentiles(lower, upper);
+		dataDirty = true;
+		repaint();
+	}
+	
+	/**Compute the statistics on the cropped data and apply the auto contrast.
+	 * It is called while painting, so min and max are set without requesting another repaint.
+	 */
+	private void updateStatistics() {
+		statistics.compute(croppedDataArray, croppedDataWidth * croppedDataHeight);
+		applyStatistics();
+	}
+	
+	/**Apply the statistics to the color map range and the histogram of the ramp.
+	 */
+	private void applyStatistics() {
+		if(statistics == null || statistics.getCount() == 0)
+			return;
+		if(autoContrast){
+			min = statistics.getLowerClip();
+			max = statistics.getUpperClip();
+			colorMapRamp.setMin(min);
+			colorMapRamp.setMax(max);
+		}
+		colorMapRamp.setHistogram(statistics.getHistogram(),
+				statistics.getHistogramMin(), statistics.getHistogramMax());
+	}
+	
 	/**If it is profiling on single pixel.
 	 * @return the isSinglePixelProfiling
 	 */
@@ -185,7 +185,6 @@ public class KnobFigure extends AbstractRoundRampedFigure {
 							value, true);						
 						fireManualValueChange(value);
 						KnobFigure.this.revalidate();
-						KnobFigure.this.repaint();					
 					}
 					me.consume();					
 				}
@@ -237,18 +236,18 @@ public class KnobFigure extends AbstractRoundRampedFigure {
 				try {
 					graphics.setBackgroundColor(thumbColor);
 					super.fillShape(graphics);
-					pattern = GraphicsUtil.createScaledPattern(graphics, Display.getCurrent(), bounds.x, bounds.y,
+					pattern = GraphicsUtil.acquireScaledPattern(KnobFigure.this, graphics, Display.getCurrent(), bounds.x, bounds.y,
 							bounds.x + bounds.width, bounds.y + bounds.height, 
 							WHITE_COLOR, 0, WHITE_COLOR, 255);
 					graphics.setBackgroundPattern(pattern);
 				} catch (Exception e) {
 					support3D = false;
-					pattern.dispose();
+					GraphicsUtil.releasePattern(pattern);
 				}				
 			}			
 			super.fillShape(graphics);
 			if(effect3D && support3D)
-				pattern.dispose();
+				GraphicsUtil.releasePattern(pattern);
 			graphics.setForegroundColor(thumbColor);
 		}		
 	} 
@@ -414,6 +413,18 @@ public class KnobFigure extends AbstractRoundRampedFigure {
 		bulb.setBulbColor(color);
 	}
 	
+	@Override
+	protected boolean isStaticChild(IFigure child) {
+		return child == bulb || super.isStaticChild(child);
+	}
+	
+	@Override
+	protected void collectStaticStyle(List<Object> key) {
+		super.collectStaticStyle(key);
+		key.add(effect3D);
+		key.add(bulb.getBulbColor());
+	}
+	
 	@Override
 	public void setCursor(Cursor cursor) {
 		super.setCursor(cursor);
@@ -266,6 +266,15 @@ public class ProgressBarFigure extends AbstractLinearMarkedFigure {
 	}
 		
 	
+	@Override
+	protected void repaintValue() {
+		//the thumb and the label are repainted when the layout moves them.
+		if(!indicatorMode)
+			repaintFillDelta(track, track.paintedValuePosition,
+					((LinearScale) scale).getValuePosition(getCoercedValue(), false),
+					track.getLineWidth() + 1);
+	}
+	
 	/**
 	 * Update the text of the label.
 	 */
@@ -307,7 +316,7 @@ public class ProgressBarFigure extends AbstractLinearMarkedFigure {
 			boolean support3D = GraphicsUtil.testPatternSupported(g);
 			setOutline(effect3D && support3D);
 			if(effect3D && support3D) {
-				thumbPattern = GraphicsUtil.createScaledPattern(g, Display.getCurrent(),
+				thumbPattern = GraphicsUtil.acquireScaledPattern(ProgressBarFigure.this, g, Display.getCurrent(),
 					leftPoint.x, leftPoint.y, rightPoint.x, rightPoint.y, WHITE_COLOR, 0, 
 					fillColor, 255);
 				g.setBackgroundPattern(thumbPattern);		
@@ -317,12 +326,13 @@ public class ProgressBarFigure extends AbstractLinearMarkedFigure {
 			g.fillPolygon(getPoints());
 			
 			if(effect3D && support3D)
-				thumbPattern.dispose();
+				GraphicsUtil.releasePattern(thumbPattern);
 					
 		}
 	}
 
 	class Track extends RectangleFigure {		
+		private int paintedValuePosition = UNPAINTED;
 		public Track() {
 			super();
 			setForegroundColor(GRAY_COLOR);
@@ -334,6 +344,7 @@ public class ProgressBarFigure extends AbstractLinearMarkedFigure {
 			
 			graphics.setAntialias(SWT.ON);			
 			int valuePosition = ((LinearScale) scale).getValuePosition(getCoercedValue(), false);
+			paintedValuePosition = valuePosition;
 			double tempOrigin;
 			if(originIgnored)
 				tempOrigin = minimum;
@@ -349,13 +360,13 @@ public class ProgressBarFigure extends AbstractLinearMarkedFigure {
 				super.fillShape(graphics);
 				Pattern backGroundPattern; 
 				if(horizontal)
-					backGroundPattern= GraphicsUtil.createScaledPattern(graphics, Display.getCurrent(),
+					backGroundPattern= GraphicsUtil.acquireScaledPattern(ProgressBarFigure.this, graphics, Display.getCurrent(),
 						bounds.x, bounds.y,
 						bounds.x, bounds.y + bounds.height,
 						WHITE_COLOR, 255,
 						fillBackgroundColor, 0);
 				else
-					backGroundPattern= GraphicsUtil.createScaledPattern(graphics, Display.getCurrent(),
+					backGroundPattern= GraphicsUtil.acquireScaledPattern(ProgressBarFigure.this, graphics, Display.getCurrent(),
 						bounds.x, bounds.y,
 						bounds.x + bounds.width, bounds.y,
 						WHITE_COLOR, 255,
@@ -363,18 +374,18 @@ public class ProgressBarFigure extends AbstractLinearMarkedFigure {
 				graphics.setBackgroundPattern(backGroundPattern);
 				super.fillShape(graphics);
 				
-				backGroundPattern.dispose();
+				GraphicsUtil.releasePattern(backGroundPattern);
 				
 				//fill value
 				if(!indicatorMode){
 					if(horizontal)
-						backGroundPattern = GraphicsUtil.createScaledPattern(graphics, Display.getCurrent(),
+						backGroundPattern = GraphicsUtil.acquireScaledPattern(ProgressBarFigure.this, graphics, Display.getCurrent(),
 							bounds.x, bounds.y,
 							bounds.x, bounds.y + bounds.height,
 							WHITE_COLOR, 255,
 							fillColor, 0);
 					else
-						backGroundPattern = GraphicsUtil.createScaledPattern(graphics, Display.getCurrent(),
+						backGroundPattern = GraphicsUtil.acquireScaledPattern(ProgressBarFigure.this, graphics, Display.getCurrent(),
 							bounds.x, bounds.y,
 							bounds.x + bounds.width, bounds.y,
 							WHITE_COLOR, 255,
@@ -397,7 +408,7 @@ public class ProgressBarFigure extends AbstractLinearMarkedFigure {
 						graphics.fillRectangle(valueRectangle);
 	
 					}		
-					backGroundPattern.dispose();
+					GraphicsUtil.releasePattern(backGroundPattern);
 				}
 				
 				graphics.setForegroundColor(GRAY_COLOR);
@@ -434,6 +434,14 @@ public class ScaledSliderFigure extends AbstractLinearMarkedFigure {
 		revalidate();
 	}
 	
+	@Override
+	protected void repaintValue() {
+		//the thumb and the label are repainted when the layout moves them.
+		repaintFillDelta(track, track.paintedValuePosition,
+				((LinearScale) scale).getValuePosition(getCoercedValue(), false),
+				track.getLineWidth() + 1);
+	}
+	
 	public void stepDown(){
 		manualSetValue(getValue() - stepIncrement);
 		fireManualValueChange(getValue());
@@ -560,7 +568,7 @@ public class ScaledSliderFigure extends AbstractLinearMarkedFigure {
 			Pattern thumbPattern = null;
 			boolean support3D = GraphicsUtil.testPatternSupported(g);
 			if(effect3D && support3D) {
-				thumbPattern = GraphicsUtil.createScaledPattern(g, Display.getCurrent(),
+				thumbPattern = GraphicsUtil.acquireScaledPattern(ScaledSliderFigure.this, g, Display.getCurrent(),
 					leftPoint.x, leftPoint.y, rightPoint.x, rightPoint.y, WHITE_COLOR, 0, 
 					thumbColor, 255);
 				g.setBackgroundPattern(thumbPattern);		
@@ -570,7 +578,7 @@ public class ScaledSliderFigure extends AbstractLinearMarkedFigure {
 			g.fillPolygon(getPoints());
 			
 			if(effect3D && support3D)
-				thumbPattern.dispose();
+				GraphicsUtil.releasePattern(thumbPattern);
 					
 		}
 	}
@@ -579,6 +587,7 @@ public class ScaledSliderFigure extends AbstractLinearMarkedFigure {
 			private RepeatFiringBehavior behavior = new RepeatFiringBehavior();
 			private double pressedValue;
 			private boolean pageUp;
+			private int paintedValuePosition = UNPAINTED;
 			public Track() {
 				super();
 				
@@ -640,6 +649,7 @@ public class ScaledSliderFigure extends AbstractLinearMarkedFigure {
 				
 				graphics.setAntialias(SWT.ON);			
 				int valuePosition = ((LinearScale) scale).getValuePosition(getCoercedValue(), false);
+				paintedValuePosition = valuePosition;
 				boolean support3D = GraphicsUtil.testPatternSupported(graphics);
 				if(effect3D && support3D) {		
 					//fill background
@@ -647,13 +657,13 @@ public class ScaledSliderFigure extends AbstractLinearMarkedFigure {
 					super.fillShape(graphics);
 					Pattern backGroundPattern; 
 					if(horizontal)
-						backGroundPattern= GraphicsUtil.createScaledPattern(graphics, Display.getCurrent(),
+						backGroundPattern= GraphicsUtil.acquireScaledPattern(ScaledSliderFigure.this, graphics, Display.getCurrent(),
 							bounds.x, bounds.y,
 							bounds.x, bounds.y + bounds.height,
 							WHITE_COLOR, 255,
 							fillBackgroundColor, 0);
 					else
-						backGroundPattern= GraphicsUtil.createScaledPattern(graphics, Display.getCurrent(),
+						backGroundPattern= GraphicsUtil.acquireScaledPattern(ScaledSliderFigure.this, graphics, Display.getCurrent(),
 							bounds.x, bounds.y,
 							bounds.x + bounds.width, bounds.y,
 							WHITE_COLOR, 255,
@@ -662,17 +672,17 @@ public class ScaledSliderFigure extends AbstractLinearMarkedFigure {
 					super.fillShape(graphics);
 					graphics.setForegroundColor(fillBackgroundColor);
 					outlineShape(graphics);
-					backGroundPattern.dispose();
+					GraphicsUtil.releasePattern(backGroundPattern);
 					
 					//fill value
 					if(horizontal)
-						backGroundPattern = GraphicsUtil.createScaledPattern(graphics, Display.getCurrent(),
+						backGroundPattern = GraphicsUtil.acquireScaledPattern(ScaledSliderFigure.this, graphics, Display.getCurrent(),
 							bounds.x, bounds.y,
 							bounds.x, bounds.y + bounds.height,
 							WHITE_COLOR, 255,
 							fillColor, 0);
 					else
-						backGroundPattern = GraphicsUtil.createScaledPattern(graphics, Display.getCurrent(),
+						backGroundPattern = GraphicsUtil.acquireScaledPattern(ScaledSliderFigure.this, graphics, Display.getCurrent(),
 							bounds.x, bounds.y,
 							bounds.x + bounds.width, bounds.y,
 							WHITE_COLOR, 255,
@@ -708,7 +718,7 @@ public class ScaledSliderFigure extends AbstractLinearMarkedFigure {
 							fillHeight - Math.max(1, lineWidth)));
 					}		
 					
-					backGroundPattern.dispose();
+					GraphicsUtil.releasePattern(backGroundPattern);
 					
 					
 					
@@ -122,6 +122,18 @@ public class TankFigure extends AbstractLinearMarkedFigure {
 	public void setForegroundColor(Color fg) {
 		super.setForegroundColor(fg);
 	}
+	
+	@Override
+	protected boolean isStaticChild(IFigure child) {
+		return child == scale || child == marker;
+	}
+	
+	@Override
+	protected void repaintValue() {
+		repaintFillDelta(tank, tank.paintedValuePosition,
+				((LinearScale) scale).getValuePosition(getCoercedValue(), false),
+				Tank.DEFAULT_CORNER + tank.getLineWidth());
+	}
 
 
 	class Tank extends RoundedRectangle {			
@@ -129,6 +141,7 @@ public class TankFigure extends AbstractLinearMarkedFigure {
 					new RGB(160, 160, 160));
 			private static final int DEFAULT_CORNER = 15;
 			private Boolean support3d;
+			private int paintedValuePosition = UNPAINTED;
 			public Tank() {
 				super();
 				setOutline(true);
@@ -149,6 +162,7 @@ public class TankFigure extends AbstractLinearMarkedFigure {
 				corner.width = fill_corner;
 				graphics.setAntialias(SWT.ON);			
 				int valuePosition = ((LinearScale) scale).getValuePosition(getCoercedValue(), false);
+				paintedValuePosition = valuePosition;
 				if(support3d == null)
 					support3d = GraphicsUtil.testPatternSupported(graphics);
 				
@@ -158,7 +172,7 @@ public class TankFigure extends AbstractLinearMarkedFigure {
 					//fill background
 					Rectangle leftRectangle = new Rectangle(
 							bounds.x, bounds.y, rectWidth, bounds.height);
-					Pattern leftGradientPattern = GraphicsUtil.createScaledPattern(graphics, Display.getCurrent(),
+					Pattern leftGradientPattern = GraphicsUtil.acquireScaledPattern(TankFigure.this, graphics, Display.getCurrent(),
 							leftRectangle.x, leftRectangle.y,
 							leftRectangle.x + leftRectangle.width+2, leftRectangle.y,
 							fillBackgroundColor, 255, WHITE_COLOR, 0);
@@ -166,14 +180,14 @@ public class TankFigure extends AbstractLinearMarkedFigure {
 					graphics.fillRoundRectangle(leftRectangle, corner.width, corner.height);
 					Rectangle rightRectangle = new Rectangle(
 							bounds.x + bounds.width - rectWidth, bounds.y, rectWidth, bounds.height);
-					Pattern rightGradientPattern = GraphicsUtil.createScaledPattern(graphics, Display.getCurrent(),
+					Pattern rightGradientPattern = GraphicsUtil.acquireScaledPattern(TankFigure.this, graphics, Display.getCurrent(),
 							rightRectangle.x-2, rightRectangle.y, 
 							rightRectangle.x + rightRectangle.width, rightRectangle.y,
 							WHITE_COLOR, 0, fillBackgroundColor, 255);
 					graphics.setBackgroundPattern(rightGradientPattern);
 					graphics.fillRoundRectangle(rightRectangle, corner.width, corner.height);
-					leftGradientPattern.dispose();
-					rightGradientPattern.dispose();
+					GraphicsUtil.releasePattern(leftGradientPattern);
+					GraphicsUtil.releasePattern(rightGradientPattern);
 					
 					//fill value
 					graphics.setBackgroundColor(WHITE_COLOR);
@@ -184,8 +198,7 @@ public class TankFigure extends AbstractLinearMarkedFigure {
 								fill_corner, fill_corner);
 						leftRectangle = new Rectangle(bounds.x, valuePosition,
 								rectWidth, fillHeight);
-						leftGradientPattern = GraphicsUtil.createScaledPattern(
-								graphics, Display.getCurrent(), leftRectangle.x,
+						leftGradientPattern = GraphicsUtil.acquireScaledPattern(TankFigure.this, graphics, Display.getCurrent(), leftRectangle.x,
 								leftRectangle.y, leftRectangle.x
 										+ leftRectangle.width+2, leftRectangle.y,
 								fillColor, 255, WHITE_COLOR, 0);
@@ -195,8 +208,7 @@ public class TankFigure extends AbstractLinearMarkedFigure {
 	
 						rightRectangle = new Rectangle(bounds.x + bounds.width
 								- rectWidth, valuePosition, rectWidth, fillHeight);
-						rightGradientPattern = GraphicsUtil.createScaledPattern(
-								graphics, Display.getCurrent(), rightRectangle.x-2,
+						rightGradientPattern = GraphicsUtil.acquireScaledPattern(TankFigure.this, graphics, Display.getCurrent(), rightRectangle.x-2,
 								rightRectangle.y, rightRectangle.x
 										+ rightRectangle.width, rightRectangle.y,
 								WHITE_COLOR, 0, fillColor, 255);
@@ -204,8 +216,8 @@ public class TankFigure extends AbstractLinearMarkedFigure {
 						graphics.fillRoundRectangle(rightRectangle, fill_corner,
 								fill_corner);
 	
-						leftGradientPattern.dispose();
-						rightGradientPattern.dispose();
+						GraphicsUtil.releasePattern(leftGradientPattern);
+						GraphicsUtil.releasePattern(rightGradientPattern);
 					}
 					graphics.setForegroundColor(EFFECT3D_OUTLINE_COLOR);
 					
@@ -7,6 +7,8 @@
  ******************************************************************************/
 package org.eclipse.nebula.visualization.widgets.figures;
 
+import java.util.List;
+
 import org.eclipse.draw2d.AbstractLayout;
 import org.eclipse.draw2d.Ellipse;
 import org.eclipse.draw2d.FigureUtilities;
@@ -216,6 +218,26 @@ public class ThermometerFigure extends AbstractLinearMarkedFigure {
 	public void setValue(double value) {
 		super.setValue(value);
 	}
+	
+	@Override
+	protected boolean isStaticChild(IFigure child) {
+		return child == scale || child == marker || child == unit;
+	}
+	
+	@Override
+	protected void collectStaticStyle(List<Object> key) {
+		super.collectStaticStyle(key);
+		key.add(temperatureUnit);
+	}
+	
+	@Override
+	protected void repaintValue() {
+		repaintFillDelta(pipe, pipe.paintedFillPosition, pipe.getFillPosition(),
+				Pipe.FILL_CORNER + pipe.getLineWidth());
+		//the value text is painted on the bulb.
+		if(bulb.isVisible())
+			bulb.repaint();
+	}
 
 
 	class Bulb extends Ellipse {
@@ -241,13 +263,13 @@ public class ThermometerFigure extends AbstractLinearMarkedFigure {
 				//int l = (int) ((bounds.width - lineWidth)*0.293/2);
 				Pattern backPattern = null;
 				
-				 backPattern = GraphicsUtil.createScaledPattern(graphics, Display.getCurrent(), 
+				 backPattern = GraphicsUtil.acquireScaledPattern(ThermometerFigure.this, graphics, Display.getCurrent(), 
 					bounds.x + lineWidth, bounds.y + lineWidth, 
 					bounds.x+bounds.width-lineWidth, bounds.y+bounds.height-lineWidth,
 					WHITE_COLOR,255, fillColor, 0);			
 				graphics.setBackgroundPattern(backPattern);
 				super.fillShape(graphics);
-				backPattern.dispose();
+				GraphicsUtil.releasePattern(backPattern);
 				
 			}else{
 				graphics.setBackgroundColor(fillColor);				
@@ -284,7 +306,7 @@ public class ThermometerFigure extends AbstractLinearMarkedFigure {
 				graphics.fillRectangle(new Rectangle(pipe.getBounds().x + pipe.getLineWidth(),
 					((LinearScale) scale).getValuePosition(scale.getRange().getLower(), false),
 					Pipe.PIPE_WIDTH- pipe.getLineWidth() *2, 2));
-				Pattern backPattern = GraphicsUtil.createScaledPattern(graphics, Display.getCurrent(), 
+				Pattern backPattern = GraphicsUtil.acquireScaledPattern(ThermometerFigure.this, graphics, Display.getCurrent(), 
 					pipe.getBounds().x, ((LinearScale) scale).getValuePosition(scale.getRange().getLower(), false),
 					pipe.getBounds().x + Pipe.PIPE_WIDTH,
 					((LinearScale) scale).getValuePosition(scale.getRange().getLower(), false),
@@ -293,7 +315,7 @@ public class ThermometerFigure extends AbstractLinearMarkedFigure {
 				graphics.fillRectangle(new Rectangle(pipe.getBounds().x + pipe.getLineWidth(),
 					((LinearScale) scale).getValuePosition(scale.getRange().getLower(), false),
 					Pipe.PIPE_WIDTH- pipe.getLineWidth() *2, 2));
-				backPattern.dispose();
+				GraphicsUtil.releasePattern(backPattern);
 		
 			}else{
 				graphics.setBackgroundColor(fillColor);
@@ -314,16 +336,17 @@ public class ThermometerFigure extends AbstractLinearMarkedFigure {
 		public final static int PIPE_WIDTH = 15;
 		private final Color EFFECT3D_PIPE_COLOR = XYGraphMediaFactory.getInstance().getColor(
 				new RGB(160, 160, 160));
+		private int paintedFillPosition = UNPAINTED;
 		public Pipe() {
 			super();
 			setOutline(true);
 		}
-		@Override
-		protected void fillShape(Graphics graphics) {
-			corner.height =PIPE_WIDTH/2;
-			corner.width = PIPE_WIDTH/2;
-			graphics.setBackgroundColor(fillBackgroundColor);
-			
+		
+		/**
+		 * @return the position of the top of the fill. It is moved beyond the
+		 * scale if the value is out of range.
+		 */
+		private int getFillPosition() {
 			int valuePosition = ((LinearScale) scale).getValuePosition(getCoercedValue(), false);
 			if(maximum > minimum){
 				if(value > maximum)
@@ -336,6 +359,17 @@ public class ThermometerFigure extends AbstractLinearMarkedFigure {
 				else if(value < maximum)
 					valuePosition -=10;
 			}
+			return valuePosition;
+		}
+		
+		@Override
+		protected void fillShape(Graphics graphics) {
+			corner.height =PIPE_WIDTH/2;
+			corner.width = PIPE_WIDTH/2;
+			graphics.setBackgroundColor(fillBackgroundColor);
+			
+			int valuePosition = getFillPosition();
+			paintedFillPosition = valuePosition;
 			boolean support3D = false;
 			if(effect3D)
 				 support3D = GraphicsUtil.testPatternSupported(graphics);
@@ -344,12 +378,12 @@ public class ThermometerFigure extends AbstractLinearMarkedFigure {
 				graphics.setForegroundColor(EFFECT3D_PIPE_COLOR);
 				//fill back
 				super.fillShape(graphics);
-				Pattern backPattern = GraphicsUtil.createScaledPattern(graphics, Display.getCurrent(), 
+				Pattern backPattern = GraphicsUtil.acquireScaledPattern(ThermometerFigure.this, graphics, Display.getCurrent(), 
 						bounds.x, bounds.y, bounds.x+bounds.width, bounds.y, 
 						WHITE_COLOR,255, fillBackgroundColor, 0);
 				graphics.setBackgroundPattern(backPattern);
 				super.fillShape(graphics);
-				backPattern.dispose();
+				GraphicsUtil.releasePattern(backPattern);
 				
 				//fill value
 				graphics.setBackgroundColor(fillColor);
@@ -358,7 +392,7 @@ public class ThermometerFigure extends AbstractLinearMarkedFigure {
 						bounds.width - 2* lineWidth, 
 						bounds.height - (valuePosition - bounds.y)),
 						FILL_CORNER, FILL_CORNER);		
-				backPattern = GraphicsUtil.createScaledPattern(graphics, Display.getCurrent(), 
+				backPattern = GraphicsUtil.acquireScaledPattern(ThermometerFigure.this, graphics, Display.getCurrent(), 
 						bounds.x, bounds.y, bounds.x+bounds.width, bounds.y, 
 						WHITE_COLOR,255, fillColor, 0);
 				graphics.setBackgroundPattern(backPattern);
@@ -367,7 +401,7 @@ public class ThermometerFigure extends AbstractLinearMarkedFigure {
 						bounds.width - 2* lineWidth, 
 						bounds.height - (valuePosition - bounds.y)),
 						FILL_CORNER, FILL_CORNER);
-				backPattern.dispose();			
+				GraphicsUtil.releasePattern(backPattern);			
 			} else {
 				super.fillShape(graphics);
 				graphics.setBackgroundColor(fillColor);
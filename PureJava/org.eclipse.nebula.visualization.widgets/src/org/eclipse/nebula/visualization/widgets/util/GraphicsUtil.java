@@ -7,6 +7,14 @@
  ******************************************************************************/
 package org.eclipse.nebula.visualization.widgets.util;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
 import org.eclipse.draw2d.Graphics;
 import org.eclipse.nebula.visualization.xygraph.util.Preferences;
 import org.eclipse.swt.SWT;
@@ -77,5 +85,182 @@ public class GraphicsUtil {
 				(float) (x2 * scale), (float) (y2 * scale), color1, color2);
 	}
 	
+	/**
+	 * The maximum number of cached patterns which are not in use.
+	 */
+	private static final int PATTERN_CACHE_CAPACITY = 256;
+	
+	/**
+	 * The key of a cached pattern.
+	 */
+	private static final class PatternKey {
+		private final Device device;
+		private final float[] coordinates;
+		private final int[] colors;
+		
+		PatternKey(Device device, float x1, float y1, float x2, float y2,
+				Color color1, int alpha1, Color color2, int alpha2) {
+			this.device = device;
+			coordinates = new float[]{x1, y1, x2, y2};
+			RGB rgb1 = color1.getRGB();
+			RGB rgb2 = color2.getRGB();
+			colors = new int[]{rgb1.red, rgb1.green, rgb1.blue, alpha1,
+					rgb2.red, rgb2.green, rgb2.blue, alpha2};
+		}
+		
+		@Override
+		public int hashCode() {
+			return (System.identityHashCode(device) * 31 + Arrays.hashCode(coordinates))
+					* 31 + Arrays.hashCode(colors);
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof PatternKey))
+				return false;
+			PatternKey other = (PatternKey) obj;
+			return device == other.device && Arrays.equals(coordinates, other.coordinates)
+					&& Arrays.equals(colors, other.colors);
+		}
+	}
+	
+	/**
+	 * A cached pattern with the number of its current users and the figures
+	 * which have painted with it.
+	 */
+	private static final class PatternEntry {
+		private Pattern pattern;
+		private int references;
+		private final Set<Object> owners = 
+				Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+	}
+	
+	/**
+	 * The cached patterns in the order of their last use.
+	 */
+	private static final LinkedHashMap<PatternKey, PatternEntry> patternCache = 
+			new LinkedHashMap<PatternKey, PatternEntry>(16, 0.75f, true);
+	
+	private static final Map<Pattern, PatternEntry> patternEntries = 
+			new IdentityHashMap<Pattern, PatternEntry>();
+	
+	/**Get a pattern from the pattern cache, with the coordinates scaled by
+	 * the absolute scale of the graphics. It must be released by 
+	 * {@link #releasePattern(Pattern)} and never be disposed by the caller.
+	 * @param owner the figure which paints with the pattern. 
+	 * The cached patterns of a figure are disposed by {@link #releasePatterns(Object)} 
+	 * when the figure is removed.
+	 * @see #createScaledPattern(Graphics, Device, float, float, float, float, Color, int, Color, int)
+	 */
+	public static Pattern acquireScaledPattern(Object owner, Graphics graphics, Device device,
+			float x1, float y1, float x2, float y2, Color color1, int alpha1,
+			Color color2, int alpha2) {
+		double scale = graphics.getAbsoluteScale();
+		return acquirePattern(owner, device, (float) (x1 * scale), (float) (y1 * scale),
+				(float) (x2 * scale), (float) (y2 * scale), color1, alpha1, color2,
+				alpha2);
+	}
+	
+	/**
+	 * @see #acquireScaledPattern(Object, Graphics, Device, float, float, float, float, Color, int, Color, int)
+	 */
+	public static Pattern acquireScaledPattern(Object owner, Graphics graphics, Device device,
+			float x1, float y1, float x2, float y2, Color color1, Color color2) {
+		return acquireScaledPattern(owner, graphics, device, x1, y1, x2, y2, 
+				color1, 255, color2, 255);
+	}
+	
+	/**
+	 * @see #acquirePattern(Object, Device, float, float, float, float, Color, int, Color, int)
+	 */
+	public static Pattern acquirePattern(Object owner, Device device,
+			float x1, float y1, float x2, float y2, Color color1, Color color2) {
+		return acquirePattern(owner, device, x1, y1, x2, y2, color1, 255, color2, 255);
+	}
+	
+	/**Get a linear gradient pattern from the pattern cache, or create it if 
+	 * there is no cached pattern with the same coordinates, colors, alphas and
+	 * device. It must be released by {@link #releasePattern(Pattern)} and never
+	 * be disposed by the caller.
+	 * @param owner the figure which paints with the pattern. 
+	 * The cached patterns of a figure are disposed by {@link #releasePatterns(Object)} 
+	 * when the figure is removed.
+	 */
+	public static synchronized Pattern acquirePattern(Object owner, Device device,
+			float x1, float y1, float x2, float y2, Color color1, int alpha1,
+			Color color2, int alpha2) {
+		PatternKey key = new PatternKey(device, x1, y1, x2, y2, color1, alpha1, color2, alpha2);
+		PatternEntry entry = patternCache.get(key);
+		if (entry == null) {
+			entry = new PatternEntry();
+			patternCache.put(key, entry);
+		}
+		if (entry.pattern == null || entry.pattern.isDisposed()) {
+			if (entry.pattern != null)
+				patternEntries.remove(entry.pattern);
+			entry.pattern = new Pattern(device, x1, y1, x2, y2, color1, alpha1, color2, alpha2);
+			patternEntries.put(entry.pattern, entry);
+		}
+		entry.references++;
+		entry.owners.add(owner);
+		evictPatterns();
+		return entry.pattern;
+	}
+	
+	/**Release a pattern acquired from the pattern cache. The pattern stays 
+	 * cached for the next paint.
+	 * @param pattern the pattern.
+	 */
+	public static synchronized void releasePattern(Pattern pattern) {
+		PatternEntry entry = patternEntries.get(pattern);
+		if (entry == null) {
+			//not a cached pattern
+			if (pattern != null && !pattern.isDisposed())
+				pattern.dispose();
+			return;
+		}
+		if (entry.references > 0)
+			entry.references--;
+	}
+	
+	/**Dispose the cached patterns which are only used by the figure. 
+	 * It should be called when the figure is removed.
+	 * @param owner the figure.
+	 */
+	public static synchronized void releasePatterns(Object owner) {
+		for (Iterator<PatternEntry> it = patternCache.values().iterator(); it.hasNext();) {
+			PatternEntry entry = it.next();
+			if (entry.owners.remove(owner) && entry.owners.isEmpty() && entry.references == 0) {
+				it.remove();
+				disposePattern(entry);
+			}
+		}
+	}
+	
+	/**
+	 * Dispose the least recently used patterns which are not in use, 
+	 * until the cache is within its capacity.
+	 */
+	private static void evictPatterns() {
+		int excess = patternCache.size() - PATTERN_CACHE_CAPACITY;
+		for (Iterator<PatternEntry> it = patternCache.values().iterator(); 
+				excess > 0 && it.hasNext();) {
+			PatternEntry entry = it.next();
+			if (entry.references == 0) {
+				it.remove();
+				disposePattern(entry);
+				excess--;
+			}
+		}
+	}
+	
+	private static void disposePattern(PatternEntry entry) {
+		if (entry.pattern != null) {
+			patternEntries.remove(entry.pattern);
+			if (!entry.pattern.isDisposed())
+				entry.pattern.dispose();
+			entry.pattern = null;
+		}
+	}
 	
 }
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.eclipse.nebula.visualization.widgets.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**The utility class to split computations on large 2D data arrays into
+ * bands of rows which are processed in parallel.
+ */
+public final class ParallelUtil {
+
+	/**
+	 * Minimum number of elements before a computation is split into bands.
+	 * Below it the overhead of scheduling is higher than the gain.
+	 */
+	public static final int PARALLEL_THRESHOLD = 1 << 18;
+
+	private static ForkJoinPool pool;
+
+	/**
+	 * Private constructor, to avoid instantiation.
+	 */
+	private ParallelUtil() {}
+
+	/**
+	 * @return the shared pool used for the computations.
+	 */
+	public static synchronized ForkJoinPool getPool() {
+		if (pool == null)
+			pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+		return pool;
+	}
+
+	/**Get the number of bands that a computation on the given number of rows
+	 * should be split to.
+	 * @param rows number of rows
+	 * @param elements total number of elements to be processed.
+	 * @return the number of bands. 1 if it should not be computed in parallel.
+	 */
+	public static int getBandCount(int rows, int elements) {
+		int processors = Runtime.getRuntime().availableProcessors();
+		if (processors < 2 || rows < 2 || elements < PARALLEL_THRESHOLD)
+			return 1;
+		return Math.min(rows, processors);
+	}
+
+	/**A task working on a band of rows.
+	 * @param <T> the result type of the band.
+	 */
+	public interface IBandTask<T> {
+		/**Process rows from start (inclusive) to end (exclusive).
+		 * @param start the first row.
+		 * @param end the row after the last row.
+		 * @return the result of this band.
+		 */
+		public T compute(int start, int end);
+	}
+
+	/**Run the task on all rows, split into the given number of bands. The
+	 * bands are run in the calling thread if there is only one band.
+	 * @param task the task
+	 * @param rows number of rows
+	 * @param bands number of bands
+	 * @return the results of each band in row order.
+	 */
+	public static <T> List<T> computeBands(final IBandTask<T> task, int rows, int bands) {
+		List<T> results = new ArrayList<T>(bands);
+		if (bands <= 1) {
+			results.add(task.compute(0, rows));
+			return results;
+		}
+		List<Callable<T>> callables = new ArrayList<Callable<T>>(bands);
+		for (int i = 0; i < bands; i++) {
+			final int start = (int) ((long) rows * i / bands);
+			final int end = (int) ((long) rows * (i + 1) / bands);
+			callables.add(new Callable<T>() {
+				public T call() throws Exception {
+					return task.compute(start, end);
+				}
+			});
+		}
+		try {
+			for (Future<T> f : getPool().invokeAll(callables))
+				results.add(f.get());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+		return results;
+	}
+}
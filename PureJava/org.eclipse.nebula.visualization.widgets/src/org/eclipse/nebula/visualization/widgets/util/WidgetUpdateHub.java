@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.eclipse.nebula.visualization.widgets.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.nebula.visualization.widgets.figures.AbstractScaledWidgetFigure;
+import org.eclipse.swt.widgets.Display;
+
+/**A hub which throttles and coalesces value updates of scaled widgets.
+ * <p>
+ * Producers may post values from any thread. Only the latest value of each
+ * widget is kept, so a burst of updates doesn't flood the event queue. All
+ * pending values are applied in a single tick on the UI thread, at most once
+ * per tick interval, so the dirty regions of all widgets are painted in one
+ * update. A value within the deadband of the current value of its widget is
+ * dropped.
+ * </p>
+ */
+public class WidgetUpdateHub {
+
+	/** The default tick interval in milliseconds. */
+	public static final int DEFAULT_TICK_INTERVAL = 40;
+
+	private final Display display;
+
+	private final ConcurrentMap<AbstractScaledWidgetFigure, Double> pendingValues =
+		new ConcurrentHashMap<AbstractScaledWidgetFigure, Double>();
+
+	private final ConcurrentMap<AbstractScaledWidgetFigure, Double> deadbands =
+		new ConcurrentHashMap<AbstractScaledWidgetFigure, Double>();
+
+	private final AtomicBoolean tickScheduled = new AtomicBoolean();
+
+	private volatile int tickInterval = DEFAULT_TICK_INTERVAL;
+
+	private volatile boolean disposed;
+
+	/** Time of the last tick in milliseconds, only accessed on the UI thread. */
+	private long lastTickTime;
+
+	private final Runnable tick = new Runnable() {
+		public void run() {
+			applyPendingValues();
+		}
+	};
+
+	private final Runnable scheduleTick = new Runnable() {
+		public void run() {
+			if (disposed || display.isDisposed())
+				return;
+			long delay = lastTickTime + tickInterval - System.currentTimeMillis();
+			if (delay <= 0)
+				applyPendingValues();
+			else
+				display.timerExec((int) delay, tick);
+		}
+	};
+
+	/**
+	 * @param display the display of the widgets.
+	 */
+	public WidgetUpdateHub(Display display) {
+		this.display = display;
+	}
+
+	/**Post a value of a widget. This method can be called from any thread.
+	 * @param figure the widget figure.
+	 * @param value the new value. It replaces a pending value which has not
+	 * been applied yet.
+	 */
+	public void post(AbstractScaledWidgetFigure figure, double value) {
+		if (disposed)
+			return;
+		pendingValues.put(figure, value);
+		if (tickScheduled.compareAndSet(false, true) && !display.isDisposed())
+			display.asyncExec(scheduleTick);
+	}
+
+	/**Set the deadband of a widget. A posted value is only applied if it
+	 * differs from the current value of the widget by more than the deadband.
+	 * @param figure the widget figure.
+	 * @param deadband the deadband, 0 to apply every change.
+	 */
+	public void setDeadband(AbstractScaledWidgetFigure figure, double deadband) {
+		if (deadband < 0)
+			throw new IllegalArgumentException("deadband must not be negative");
+		if (deadband == 0)
+			deadbands.remove(figure);
+		else
+			deadbands.put(figure, deadband);
+	}
+
+	/**
+	 * @param figure the widget figure.
+	 * @return the deadband of the widget.
+	 */
+	public double getDeadband(AbstractScaledWidgetFigure figure) {
+		Double deadband = deadbands.get(figure);
+		return deadband == null ? 0 : deadband;
+	}
+
+	/**Set the minimum time between two ticks.
+	 * @param tickInterval the interval in milliseconds.
+	 */
+	public void setTickInterval(int tickInterval) {
+		if (tickInterval < 0)
+			throw new IllegalArgumentException("tickInterval must not be negative");
+		this.tickInterval = tickInterval;
+	}
+
+	/**
+	 * @return the minimum time between two ticks in milliseconds.
+	 */
+	public int getTickInterval() {
+		return tickInterval;
+	}
+
+	/**Forget a widget, for example when it is disposed. A pending value of
+	 * the widget is dropped.
+	 * @param figure the widget figure.
+	 */
+	public void remove(AbstractScaledWidgetFigure figure) {
+		pendingValues.remove(figure);
+		deadbands.remove(figure);
+	}
+
+	/**
+	 * Drop all pending values and stop accepting new ones.
+	 */
+	public void dispose() {
+		disposed = true;
+		pendingValues.clear();
+		deadbands.clear();
+	}
+
+	private void applyPendingValues() {
+		lastTickTime = System.currentTimeMillis();
+		//values posted from now on need another tick.
+		tickScheduled.set(false);
+		if (disposed)
+			return;
+		for (AbstractScaledWidgetFigure figure : pendingValues.keySet()) {
+			Double value = pendingValues.remove(figure);
+			if (value == null)
+				continue;
+			Double deadband = deadbands.get(figure);
+			if (deadband != null && Math.abs(value - figure.getValue()) <= deadband)
+				continue;
+			figure.setValue(value);
+		}
+	}
+}
@@ -0,0 +1,164 @@
+package org.eclipse.nebula.visualization.xygraph.dataprovider;
+
+import org.eclipse.nebula.visualization.xygraph.linearscale.Range;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DerivedDataProviderTest {
+
+	private static final double ERROR = 1e-9;
+
+	/** The samples of a circular buffer, which notifies on each sample. */
+	private static class BufferData extends AbstractDataProvider implements IAppendingDataProvider {
+		final CircularBuffer<ISample> buffer;
+		int reads;
+
+		BufferData(int size) {
+			super(true);
+			buffer = new CircularBuffer<ISample>(size);
+		}
+
+		void add(double x, double y) {
+			buffer.add(new Sample(x, y));
+			fireDataChange();
+		}
+
+		@Override
+		public int getSize() {
+			return buffer.size();
+		}
+
+		@Override
+		public ISample getSample(int index) {
+			reads++;
+			return buffer.getElement(index);
+		}
+
+		@Override
+		public long getAddCount() {
+			return buffer.getAddCount();
+		}
+
+		@Override
+		protected void innerUpdate() {
+		}
+
+		@Override
+		protected void updateDataRange(boolean positiveOnly) {
+			double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < getSize(); i++) {
+				min = Math.min(min, getSample(i).getYValue());
+				max = Math.max(max, getSample(i).getYValue());
+			}
+			yDataMinMax = new Range(min, max);
+		}
+
+		@Override
+		public boolean hasErrors() {
+			return false;
+		}
+	}
+
+	private static class CountingListener implements IDataProviderListener {
+		int count;
+
+		@Override
+		public void dataChanged(IDataProvider dataProvider) {
+			count++;
+		}
+	}
+
+	@Test
+	public void testTransformDerivativeAndDifference() {
+		BufferData a = new BufferData(10);
+		BufferData b = new BufferData(10);
+		LinearTransformDataProvider celsius = new LinearTransformDataProvider(a, 1, -273.15);
+		DerivativeDataProvider slope = new DerivativeDataProvider(a);
+		DifferenceDataProvider difference = new DifferenceDataProvider(a, b);
+		CountingListener listener = new CountingListener();
+		difference.addDataProviderListener(listener);
+		for (int i = 0; i < 5; i++) {
+			a.add(i, 300 + i * i);
+			b.add(i, 2 * i);
+		}
+		Assert.assertEquals(10, listener.count);
+		Assert.assertEquals(5, celsius.getSize());
+		Assert.assertEquals(300 + 9 - 273.15, celsius.getSample(3).getYValue(), ERROR);
+		Assert.assertEquals(26.85, celsius.getYDataMinMax().getLower(), ERROR);
+		Assert.assertEquals(42.85, celsius.getYDataMinMax().getUpper(), ERROR);
+
+		Assert.assertEquals(4, slope.getSize());
+		Assert.assertEquals(2, slope.getSample(1).getXValue(), ERROR);
+		Assert.assertEquals(4 - 1, slope.getSample(1).getYValue(), ERROR);
+
+		Assert.assertEquals(300 + 16 - 8, difference.getSample(4).getYValue(), ERROR);
+		// the view of the newest samples while a source is a sample ahead
+		a.add(5, 0);
+		Assert.assertEquals(5, difference.getSize());
+		Assert.assertEquals(5, difference.getSample(4).getXValue(), ERROR);
+
+		difference.dispose();
+		a.add(6, 0);
+		Assert.assertEquals(11, listener.count);
+	}
+
+	@Test
+	public void testMovingAverageIsIncremental() {
+		final BufferData data = new BufferData(100);
+		MovingAverageDataProvider average = new MovingAverageDataProvider(data, 3);
+		for (int i = 0; i < 250; i++) {
+			data.add(i, i % 7 == 6 ? Double.NaN : i);
+			average.getSample(average.getSize() - 1);
+		}
+		// the buffer dropped the oldest samples, only new samples were read
+		Assert.assertTrue(data.reads < 250 * 3);
+		for (int index = 0; index < average.getSize(); index++) {
+			ISample sample = average.getSample(index);
+			double x = sample.getXValue();
+			double sum = 0;
+			int count = 0;
+			for (double y = x - 2; y <= x; y++)
+				if (y >= 0 && y % 7 != 6) {
+					sum += y;
+					count++;
+				}
+			Assert.assertEquals(sum / count, sample.getYValue(), ERROR);
+		}
+
+		// a cleared source is averaged again
+		data.buffer.clear();
+		data.add(1000, 5);
+		Assert.assertEquals(1, average.getSize());
+		Assert.assertEquals(5, average.getSample(0).getYValue(), ERROR);
+	}
+
+	@Test
+	public void testMovingAverageOfRepeatedSample() {
+		BufferData data = new BufferData(4);
+		MovingAverageDataProvider average = new MovingAverageDataProvider(data, 2);
+		data.add(0, 10);
+		data.add(1, 0);
+		data.add(2, 0);
+		data.add(3, 0);
+		Assert.assertEquals(10, average.getSample(0).getYValue(), ERROR);
+		// the full buffer drops a sample for a copy of its newest one
+		data.add(3, 0);
+		Assert.assertEquals(1, average.getSample(0).getXValue(), ERROR);
+		Assert.assertEquals(5, average.getSample(0).getYValue(), ERROR);
+		Assert.assertEquals(0, average.getSample(3).getYValue(), ERROR);
+	}
+
+	@Test
+	public void testMovingAverageOfView() {
+		BufferData data = new BufferData(10);
+		LinearTransformDataProvider view = new LinearTransformDataProvider(data, 1, 1);
+		MovingAverageDataProvider average = new MovingAverageDataProvider(view, 2);
+		for (int i = 0; i < 15; i++) {
+			data.add(i, i);
+			Assert.assertEquals(i + 0.5 + (i == 0 ? 0.5 : 0),
+					average.getSample(average.getSize() - 1).getYValue(), ERROR);
+		}
+		// the view has no add count, so it is averaged again in full
+		Assert.assertEquals(6, average.getSample(0).getYValue(), ERROR);
+	}
+}
@@ -0,0 +1,106 @@
+package org.eclipse.nebula.visualization.xygraph.dataprovider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SpatialIndexTest {
+
+	/** The samples of a circular buffer, with the add count of the buffer. */
+	private static class BufferData extends AbstractDataProvider {
+		final CircularBuffer<ISample> buffer;
+
+		BufferData(int size) {
+			super(false);
+			buffer = new CircularBuffer<ISample>(size);
+		}
+
+		@Override
+		public int getSize() {
+			return buffer.size();
+		}
+
+		@Override
+		public ISample getSample(int index) {
+			return buffer.getElement(index);
+		}
+
+		@Override
+		protected void innerUpdate() {
+		}
+
+		@Override
+		protected void updateDataRange(boolean positiveOnly) {
+		}
+
+		@Override
+		public boolean hasErrors() {
+			return false;
+		}
+	}
+
+	private static List<Integer> bruteForce(BufferData data, double xMin, double xMax, double yMin, double yMax) {
+		List<Integer> result = new ArrayList<Integer>();
+		for (int i = 0; i < data.getSize(); i++) {
+			ISample s = data.getSample(i);
+			if (s.getXValue() >= xMin && s.getXValue() <= xMax && s.getYValue() >= yMin && s.getYValue() <= yMax)
+				result.add(i);
+		}
+		return result;
+	}
+
+	private static void assertContains(BufferData data, int[] indices, List<Integer> expected) {
+		Assert.assertNotNull(indices);
+		for (int i = 1; i < indices.length; i++)
+			Assert.assertTrue(indices[i - 1] < indices[i]);
+		for (int i = 0; i < indices.length; i++)
+			Assert.assertTrue(indices[i] >= 0 && indices[i] < data.getSize());
+		List<Integer> found = new ArrayList<Integer>();
+		for (int index : indices)
+			found.add(index);
+		Assert.assertTrue(found.containsAll(expected));
+	}
+
+	@Test
+	public void testQueriesWhileAppending() {
+		Random random = new Random(7);
+		BufferData data = new BufferData(5000);
+		SpatialIndex index = new SpatialIndex(16);
+		for (int round = 0; round < 20; round++) {
+			// the data drifts out of the bounds of the grid and wraps around
+			for (int i = 0; i < 1000; i++)
+				data.buffer.add(new Sample(random.nextDouble() * 100 + round * 20, random.nextGaussian() * 10));
+			index.update(data, data.buffer.getAddCount());
+			double x = round * 20 + 10;
+			int[] indices = index.getSampleIndices(x, x + 5, -2, 3);
+			assertContains(data, indices, bruteForce(data, x, x + 5, -2, 3));
+			Assert.assertTrue(indices.length < data.getSize() / 4);
+		}
+	}
+
+	@Test
+	public void testNaNAndClear() {
+		BufferData data = new BufferData(100);
+		SpatialIndex index = new SpatialIndex();
+		data.buffer.add(new Sample(1, Double.NaN));
+		for (int i = 0; i < 50; i++)
+			data.buffer.add(new Sample(i, i));
+		index.update(data, data.buffer.getAddCount());
+		int[] indices = index.getSampleIndices(10, 11, 10, 11);
+		assertContains(data, indices, bruteForce(data, 10, 11, 10, 11));
+		// the NaN sample is always returned
+		Assert.assertEquals(0, indices[0]);
+		Assert.assertTrue(indices.length < 10);
+
+		data.buffer.clear();
+		index.update(data, data.buffer.getAddCount());
+		Assert.assertEquals(0, index.getSampleIndices(0, 100, 0, 100).length);
+		data.buffer.add(new Sample(5, 5));
+		index.update(data, data.buffer.getAddCount());
+		// the only sample is most of the samples
+		Assert.assertNull(index.getSampleIndices(0, 10, 0, 10));
+	}
+}
@@ -0,0 +1,101 @@
+package org.eclipse.nebula.visualization.xygraph.dataprovider;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StatisticsIndexTest {
+
+	private static final double ERROR = 1e-6;
+
+	/** The samples of a circular buffer, with the add count of the buffer. */
+	private static class BufferData extends AbstractDataProvider {
+		final CircularBuffer<ISample> buffer;
+
+		BufferData(int size) {
+			super(true);
+			buffer = new CircularBuffer<ISample>(size);
+		}
+
+		@Override
+		public int getSize() {
+			return buffer.size();
+		}
+
+		@Override
+		public ISample getSample(int index) {
+			return buffer.getElement(index);
+		}
+
+		@Override
+		protected void innerUpdate() {
+		}
+
+		@Override
+		protected void updateDataRange(boolean positiveOnly) {
+		}
+
+		@Override
+		public boolean hasErrors() {
+			return false;
+		}
+	}
+
+	private static void assertStatistics(SampleStatistics expected, SampleStatistics actual) {
+		Assert.assertEquals(expected.getCount(), actual.getCount());
+		Assert.assertEquals(expected.getSum(), actual.getSum(), ERROR);
+		Assert.assertEquals(expected.getSumOfSquares(), actual.getSumOfSquares(), ERROR);
+		Assert.assertEquals(expected.getMin(), actual.getMin(), 0);
+		Assert.assertEquals(expected.getMax(), actual.getMax(), 0);
+	}
+
+	@Test
+	public void testWindowsWhileAppending() {
+		Random random = new Random(3);
+		BufferData data = new BufferData(3000);
+		StatisticsIndex index = new StatisticsIndex();
+		int x = 0;
+		for (int round = 0; round < 10; round++) {
+			// the ring of the index wraps around several times
+			for (int i = 0, n = 500 + random.nextInt(1000); i < n; i++)
+				data.buffer.add(new Sample(x++, i % 97 == 0 ? Double.NaN : random.nextGaussian() * 10));
+			index.update(data, data.buffer.getAddCount());
+			for (int query = 0; query < 20; query++) {
+				int from = random.nextInt(data.getSize());
+				int to = from + random.nextInt(data.getSize() - from + 1);
+				assertStatistics(SampleStatistics.compute(data, from, to), index.getStatistics(from, to));
+			}
+			assertStatistics(SampleStatistics.compute(data, 0, data.getSize()),
+					index.getStatistics(-5, data.getSize() + 5));
+		}
+	}
+
+	@Test
+	public void testClearAndGrow() {
+		BufferData data = new BufferData(10);
+		StatisticsIndex index = new StatisticsIndex();
+		for (int i = 0; i < 10; i++)
+			data.buffer.add(new Sample(i, i));
+		index.update(data, data.buffer.getAddCount());
+		SampleStatistics statistics = index.getStatistics(2, 5);
+		Assert.assertEquals(3, statistics.getCount());
+		Assert.assertEquals(3, statistics.getMean(), ERROR);
+		Assert.assertEquals(Math.sqrt((4 + 9 + 16) / 3.0), statistics.getRms(), ERROR);
+		Assert.assertEquals(2, statistics.getMin(), 0);
+		Assert.assertEquals(4, statistics.getMax(), 0);
+
+		data.buffer.clear();
+		index.update(data, data.buffer.getAddCount());
+		statistics = index.getStatistics(0, 10);
+		Assert.assertEquals(0, statistics.getCount());
+		Assert.assertTrue(Double.isNaN(statistics.getMean()));
+		Assert.assertTrue(Double.isNaN(statistics.getMax()));
+
+		data.buffer.setBufferSize(5000, false);
+		for (int i = 0; i < 5000; i++)
+			data.buffer.add(new Sample(i, -i));
+		index.update(data, data.buffer.getAddCount());
+		assertStatistics(SampleStatistics.compute(data, 100, 4900), index.getStatistics(100, 4900));
+	}
+}
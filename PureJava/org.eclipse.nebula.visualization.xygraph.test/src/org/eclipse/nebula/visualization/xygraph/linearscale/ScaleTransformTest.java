@@ -0,0 +1,56 @@
+package org.eclipse.nebula.visualization.xygraph.linearscale;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ScaleTransformTest {
+
+	private static final double ERROR = 1e-9;
+
+	@Test
+	public void testHorizontal() {
+		ScaleTransform t = new ScaleTransform(0, 100, false, 220, 10, true, 50);
+		Assert.assertEquals(60, t.getValuePrecisePosition(0), ERROR);
+		Assert.assertEquals(260, t.getValuePrecisePosition(100), ERROR);
+		Assert.assertEquals(160, t.getValuePosition(50));
+		Assert.assertEquals(50, t.getPositionValue(160), ERROR);
+	}
+
+	@Test
+	public void testVertical() {
+		ScaleTransform t = new ScaleTransform(0, 100, false, 220, 10, false, 50);
+		Assert.assertEquals(260, t.getValuePrecisePosition(0), ERROR);
+		Assert.assertEquals(60, t.getValuePrecisePosition(100), ERROR);
+		Assert.assertEquals(25, t.getPositionValue(210), ERROR);
+	}
+
+	@Test
+	public void testLog() {
+		ScaleTransform t = new ScaleTransform(1, 1000, true, 320, 10, true, 0);
+		Assert.assertEquals(10, t.getValuePrecisePosition(1), ERROR);
+		Assert.assertEquals(110, t.getValuePrecisePosition(10), ERROR);
+		Assert.assertEquals(310, t.getValuePrecisePosition(1000), ERROR);
+		// not positive values are mapped to the lower end
+		Assert.assertEquals(10, t.getValuePrecisePosition(-5), ERROR);
+		Assert.assertEquals(100, t.getPositionValue(210), 1e-9);
+	}
+
+	@Test
+	public void testBulk() {
+		double[] values = { -3, 1, 2.5, 10, 77, 1000 };
+		for (boolean log : new boolean[] { false, true }) {
+			ScaleTransform t = new ScaleTransform(1, 1000, log, 517, 13, false, 7);
+			int[] pixels = new int[values.length - 1];
+			double[] positions = new double[values.length - 1];
+			t.mapValues(values, 1, pixels.length, pixels);
+			t.mapValues(values, 1, positions.length, positions);
+			double[] inverse = new double[positions.length];
+			t.mapPositions(positions, 0, positions.length, inverse);
+			for (int i = 0; i < pixels.length; i++) {
+				Assert.assertEquals(t.getValuePosition(values[i + 1]), pixels[i]);
+				Assert.assertEquals(t.getValuePrecisePosition(values[i + 1]), positions[i], ERROR);
+				Assert.assertEquals(values[i + 1], inverse[i], 1e-9 * values[i + 1]);
+			}
+		}
+	}
+}
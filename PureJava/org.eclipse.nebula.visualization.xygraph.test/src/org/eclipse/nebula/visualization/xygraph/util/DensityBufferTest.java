@@ -0,0 +1,85 @@
+package org.eclipse.nebula.visualization.xygraph.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DensityBufferTest {
+
+	private static final double ERROR = 1e-6;
+
+	@Test
+	public void testSharedPointsAreHitOnce() {
+		DensityBuffer buffer = new DensityBuffer(10, 10);
+		buffer.accumulatePolyline(new double[] { 0, 5, 9 }, new double[] { 2, 2, 2 }, 3);
+		for (int x = 0; x < 10; x++)
+			Assert.assertEquals(1, buffer.getCount(x, 2), ERROR);
+		Assert.assertEquals(0, buffer.getCount(0, 3), ERROR);
+		Assert.assertEquals(1, buffer.getMaxCount(), ERROR);
+	}
+
+	@Test
+	public void testOverlappingAcquisitions() {
+		DensityBuffer buffer = new DensityBuffer(10, 10);
+		for (int i = 0; i < 3; i++)
+			buffer.accumulatePolyline(new double[] { 0, 9 }, new double[] { 5, 5 }, 2);
+		buffer.accumulatePolyline(new double[] { 4, 4 }, new double[] { 0, 9 }, 2);
+		Assert.assertEquals(3, buffer.getCount(0, 5), ERROR);
+		Assert.assertEquals(4, buffer.getCount(4, 5), ERROR);
+		Assert.assertEquals(1, buffer.getCount(4, 0), ERROR);
+		Assert.assertEquals(4, buffer.getMaxCount(), ERROR);
+	}
+
+	@Test
+	public void testClipAndNaN() {
+		DensityBuffer buffer = new DensityBuffer(10, 10);
+		buffer.accumulatePolyline(new double[] { -1e9, 1e9, Double.NaN, 3 }, new double[] { 7, 7, 1, 1 }, 4);
+		for (int x = 0; x < 10; x++)
+			Assert.assertEquals(1, buffer.getCount(x, 7), ERROR);
+		// a single point after the NaN
+		Assert.assertEquals(1, buffer.getCount(3, 1), ERROR);
+	}
+
+	@Test
+	public void testPoints() {
+		DensityBuffer buffer = new DensityBuffer(4, 4);
+		buffer.accumulatePoint(1.2, 2.4);
+		buffer.accumulatePoint(0.8, 1.6);
+		buffer.accumulatePoint(-0.6, 1);
+		buffer.accumulatePoint(Double.NaN, 1);
+		Assert.assertEquals(2, buffer.getCount(1, 2), ERROR);
+		Assert.assertEquals(2, buffer.getMaxCount(), ERROR);
+		Assert.assertEquals(0, buffer.getCount(0, 1), ERROR);
+	}
+
+	@Test
+	public void testDecay() {
+		DensityBuffer buffer = new DensityBuffer(4, 1);
+		buffer.accumulateLine(0, 0, 0, 0, true);
+		buffer.decay(0.5);
+		buffer.accumulateLine(1, 0, 1, 0, true);
+		Assert.assertEquals(0.5, buffer.getCount(0, 0), ERROR);
+		Assert.assertEquals(1, buffer.getCount(1, 0), ERROR);
+		// renormalization keeps the relative counts
+		for (int i = 0; i < 100; i++)
+			buffer.decay(0.5);
+		buffer.accumulateLine(2, 0, 2, 0, true);
+		Assert.assertEquals(1, buffer.getCount(2, 0), ERROR);
+		Assert.assertEquals(Math.pow(0.5, 100), buffer.getCount(1, 0), 1e-35);
+	}
+
+	@Test
+	public void testColors() {
+		int[] table = DensityBuffer.createLookupTable(new int[] { 0xFF000000, 0xFFFFFFFF }, 3);
+		Assert.assertArrayEquals(new int[] { 0xFF000000, 0xFF808080, 0xFFFFFFFF }, table);
+		DensityBuffer buffer = new DensityBuffer(3, 1);
+		buffer.accumulateLine(0, 0, 0, 0, true);
+		for (int i = 0; i < 4; i++)
+			buffer.accumulateLine(1, 0, 1, 0, true);
+		int[] pixels = new int[3];
+		buffer.toARGB(table, false, pixels);
+		Assert.assertEquals(0xFF000000, pixels[0]);
+		Assert.assertEquals(0xFFFFFFFF, pixels[1]);
+		// never hit pixels are transparent
+		Assert.assertEquals(0, pixels[2]);
+	}
+}
@@ -0,0 +1,130 @@
+package org.eclipse.nebula.visualization.xygraph.util;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SoftwareRasterizerTest {
+
+	private static final int RED = 0xFFFF0000;
+
+	private static int pixel(SoftwareRasterizer r, int x, int y) {
+		return r.getPixels()[y * r.getWidth() + x];
+	}
+
+	@Test
+	public void testLine() {
+		SoftwareRasterizer r = new SoftwareRasterizer(10, 10);
+		r.setColor(RED);
+		r.drawLine(0, 0, 9, 9);
+		r.drawLine(0, 9, 4, 9);
+		r.rasterize();
+		for (int i = 0; i < 10; i++)
+			Assert.assertEquals(RED, pixel(r, i, i));
+		for (int x = 0; x <= 4; x++)
+			Assert.assertEquals(RED, pixel(r, x, 9));
+		Assert.assertEquals(0, pixel(r, 5, 9));
+		Assert.assertEquals(0, pixel(r, 1, 0));
+	}
+
+	@Test
+	public void testClip() {
+		SoftwareRasterizer r = new SoftwareRasterizer(10, 10);
+		r.setColor(RED);
+		r.setClip(2, 2, 6, 6);
+		r.drawLine(-1000000, 5, 1000000, 5);
+		r.drawLine(0, 0, 1, 1);
+		r.rasterize();
+		Assert.assertEquals(1, r.getPrimitiveCount());
+		Assert.assertEquals(0, pixel(r, 1, 5));
+		for (int x = 2; x < 8; x++)
+			Assert.assertEquals(RED, pixel(r, x, 5));
+		Assert.assertEquals(0, pixel(r, 8, 5));
+	}
+
+	@Test
+	public void testFills() {
+		SoftwareRasterizer r = new SoftwareRasterizer(20, 20);
+		r.setColor(RED);
+		r.fillRectangle(1, 1, 3, 2);
+		r.fillOval(10, 10, 6, 6);
+		r.fillArea(0, 10, 4, 14, 19);
+		r.rasterize();
+		Assert.assertEquals(RED, pixel(r, 3, 2));
+		Assert.assertEquals(0, pixel(r, 4, 2));
+		Assert.assertEquals(0, pixel(r, 3, 3));
+		Assert.assertEquals(RED, pixel(r, 13, 13));
+		Assert.assertEquals(0, pixel(r, 10, 10));
+		Assert.assertEquals(RED, pixel(r, 0, 10));
+		Assert.assertEquals(0, pixel(r, 0, 9));
+		Assert.assertEquals(RED, pixel(r, 2, 12));
+		Assert.assertEquals(0, pixel(r, 2, 11));
+		// the right end column is not filled
+		Assert.assertEquals(0, pixel(r, 4, 19));
+	}
+
+	@Test
+	public void testBlend() {
+		SoftwareRasterizer r = new SoftwareRasterizer(2, 1);
+		r.setColor(0, 0, 255, 255);
+		r.fillRectangle(0, 0, 1, 1);
+		r.setColor(255, 0, 0, 128);
+		r.fillRectangle(0, 0, 2, 1);
+		r.rasterize();
+		int blended = pixel(r, 0, 0);
+		Assert.assertEquals(255, blended >>> 24);
+		Assert.assertEquals(128, (blended >> 16) & 0xFF, 1);
+		Assert.assertEquals(127, blended & 0xFF, 1);
+		Assert.assertEquals(0x80FF0000, pixel(r, 1, 0));
+	}
+
+	@Test
+	public void testImagesAreClippedToTheRaster() {
+		SoftwareRasterizer r = new SoftwareRasterizer(3, 3);
+		int[] sprite = new int[] { 0xFF00FF00, 0, 0x80FF0000, 0xFF0000FF };
+		r.drawImage(sprite, 2, 2, -1, -1);
+		r.drawImage(sprite, 2, 2, 2, 2);
+		r.drawImage(sprite, 2, 2, 3, 0);
+		r.rasterize();
+		Assert.assertEquals(0xFF0000FF, pixel(r, 0, 0));
+		Assert.assertEquals(0xFF00FF00, pixel(r, 2, 2));
+		Assert.assertEquals(0, pixel(r, 1, 1));
+		Assert.assertEquals(0, pixel(r, 2, 0));
+		Assert.assertEquals(2, r.getPrimitiveCount());
+	}
+
+	@Test
+	public void testLinesHaveOnePixelPerStep() {
+		SoftwareRasterizer r = new SoftwareRasterizer(40, 100);
+		r.setColor(RED);
+		r.drawLine(3, 0, 30, 99);
+		int[] pixels = r.rasterize(5);
+		for (int y = 0; y < 100; y++) {
+			int count = 0;
+			for (int x = 0; x < 40; x++)
+				if (pixels[y * 40 + x] == RED)
+					count++;
+			Assert.assertEquals(1, count);
+		}
+		Assert.assertEquals(RED, pixel(r, 3, 0));
+		Assert.assertEquals(RED, pixel(r, 30, 99));
+	}
+
+	@Test
+	public void testBandsAreDeterministic() {
+		SoftwareRasterizer r = new SoftwareRasterizer(300, 200);
+		Random random = new Random(42);
+		for (int i = 0; i < 5000; i++) {
+			r.setColor(random.nextInt());
+			r.setLineWidth(1 + random.nextInt(3));
+			r.drawLine(random.nextInt(400) - 50, random.nextInt(300) - 50, random.nextInt(400) - 50,
+					random.nextInt(300) - 50);
+			if (i % 10 == 0)
+				r.fillArea(random.nextInt(300), random.nextInt(200), random.nextInt(300), random.nextInt(200), 100);
+		}
+		int[] single = r.rasterize(1).clone();
+		Assert.assertArrayEquals(single, r.rasterize(7));
+		Assert.assertArrayEquals(single, r.rasterize());
+	}
+}
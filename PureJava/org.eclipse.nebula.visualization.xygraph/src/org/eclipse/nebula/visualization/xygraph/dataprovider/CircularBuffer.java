@@ -24,6 +24,7 @@ public class CircularBuffer<T> extends AbstractCollection<T> {
 	private int head;
 	private int tail;
 	private int count;
+	private long addCount;
 
 	public CircularBuffer(int bufferSize) {
 		if (bufferSize <= 0)
@@ -37,6 +38,7 @@ public class CircularBuffer<T> extends AbstractCollection<T> {
 	 * @param element
 	 */
 	public synchronized boolean add(T element) {
+		addCount++;
 		if (tail == head && count == bufferSize) { // buffer is full
 			buffer[tail] = element;
 			head = (head + 1) % bufferSize;
@@ -160,6 +162,18 @@ public class CircularBuffer<T> extends AbstractCollection<T> {
 		};
 	}
 
+	/**
+	 * Get the number of elements added since the buffer was created. The
+	 * buffer always holds the last {@link #size()} added elements, so the
+	 * element at index i was added as number
+	 * <code>getAddCount() - size() + i</code>.
+	 * 
+	 * @return the number of added elements.
+	 */
+	public synchronized long getAddCount() {
+		return addCount;
+	}
+
 	@Override
 	public int size() {
 		return count;
@@ -19,7 +19,8 @@ import org.eclipse.swt.widgets.Display;
  * @author Xihui Chen
  *
  */
-public class CircularBufferDataProvider extends AbstractDataProvider {
+public class CircularBufferDataProvider extends AbstractDataProvider
+		implements ISpatialDataProvider, IStatisticsDataProvider, IAppendingDataProvider {
 
 	public enum UpdateMode {
 		X_OR_Y("X or Y"), X_AND_Y("X AND Y"), X("X"), Y("Y"), TRIGGER("Trigger");
@@ -106,6 +107,10 @@ public class CircularBufferDataProvider extends AbstractDataProvider {
 
 	private Runnable fireUpdate;
 
+	private SpatialIndex spatialIndex;
+
+	private StatisticsIndex statisticsIndex;
+
 	public CircularBufferDataProvider(boolean chronological) {
 		super(chronological);
 		traceData = new CircularBuffer<ISample>(100);
@@ -504,8 +509,87 @@ public class CircularBufferDataProvider extends AbstractDataProvider {
 		this.updateDelay = updateDelay;
 	}
 
+	/**
+	 * Enable a spatial index of the samples, so a trace of data which is not
+	 * chronological only visits the visible samples when it is zoomed in.
+	 * The index is updated with each appended sample, and costs about 4 bytes
+	 * per sample. It is not used for chronological data.
+	 * 
+	 * @param spatialIndexEnabled
+	 *            true to index the samples.
+	 * @see #getSampleIndices(Range, Range)
+	 */
+	public synchronized void setSpatialIndexEnabled(boolean spatialIndexEnabled) {
+		if (!spatialIndexEnabled)
+			spatialIndex = null;
+		else if (spatialIndex == null) {
+			spatialIndex = new SpatialIndex();
+			spatialIndex.update(this, traceData.getAddCount());
+		}
+	}
+
+	/**
+	 * @return true if the samples are spatially indexed.
+	 */
+	public synchronized boolean isSpatialIndexEnabled() {
+		return spatialIndex != null;
+	}
+
+	@Override
+	public synchronized int[] getSampleIndices(Range xRange, Range yRange) {
+		if (spatialIndex == null || chronological)
+			return null;
+		spatialIndex.update(this, traceData.getAddCount());
+		return spatialIndex.getSampleIndices(xRange.getLower(), xRange.getUpper(), yRange.getLower(),
+				yRange.getUpper());
+	}
+
+	/**
+	 * Enable an index of the y values, so the mean, RMS, minimum and maximum
+	 * of any window of samples, like the samples visible on the x axis, are
+	 * computed in O(log n) instead of iterating the window. The index is
+	 * updated with each appended sample, and costs about 80 bytes per
+	 * sample.
+	 * 
+	 * @param statisticsIndexEnabled
+	 *            true to index the y values.
+	 * @see #getStatistics(int, int)
+	 */
+	public synchronized void setStatisticsIndexEnabled(boolean statisticsIndexEnabled) {
+		if (!statisticsIndexEnabled)
+			statisticsIndex = null;
+		else if (statisticsIndex == null) {
+			statisticsIndex = new StatisticsIndex();
+			statisticsIndex.update(this, traceData.getAddCount());
+		}
+	}
+
+	/**
+	 * @return true if the y values are indexed.
+	 */
+	public synchronized boolean isStatisticsIndexEnabled() {
+		return statisticsIndex != null;
+	}
+
+	@Override
+	public synchronized SampleStatistics getStatistics(int fromIndex, int toIndex) {
+		if (statisticsIndex == null)
+			return null;
+		statisticsIndex.update(this, traceData.getAddCount());
+		return statisticsIndex.getStatistics(fromIndex, toIndex);
+	}
+
+	@Override
+	public synchronized long getAddCount() {
+		return traceData.getAddCount();
+	}
+
 	@Override
 	protected synchronized void fireDataChange() {
+		if (spatialIndex != null && !chronological)
+			spatialIndex.update(this, traceData.getAddCount());
+		if (statisticsIndex != null)
+			statisticsIndex.update(this, traceData.getAddCount());
 		if (updateDelay > 0) {
 			innerUpdate();
 			if (!duringDelay) {
@@ -0,0 +1,39 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.eclipse.nebula.visualization.xygraph.dataprovider;
+
+/**
+ * A view of the derivative of a data provider. The sample at index i is the
+ * slope from source sample i to source sample i + 1, at the x value of the
+ * latter, so the view has one sample less than its source. The slope is NaN
+ * where the x values are equal.
+ */
+public class DerivativeDataProvider extends DerivedDataProvider {
+
+	/**
+	 * @param source
+	 *            the source data provider.
+	 */
+	public DerivativeDataProvider(IDataProvider source) {
+		super(source);
+	}
+
+	@Override
+	public int getSize() {
+		return Math.max(0, super.getSize() - 1);
+	}
+
+	@Override
+	public ISample getSample(int index) {
+		final ISample previous = sources[0].getSample(index);
+		final ISample sample = sources[0].getSample(index + 1);
+		final double dx = sample.getXValue() - previous.getXValue();
+		final double dy = sample.getYValue() - previous.getYValue();
+		return new Sample(sample.getXValue(), dx == 0 ? Double.NaN : dy / dx);
+	}
+}
@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.eclipse.nebula.visualization.xygraph.dataprovider;
+
+import org.eclipse.nebula.visualization.xygraph.linearscale.Range;
+
+/**
+ * A view of one or more source data providers, whose samples are computed
+ * from the samples of the sources when they are requested instead of being
+ * copied into a buffer.
+ * <p>
+ * The view listens to its sources and forwards their data changes to its own
+ * listeners. Views can be composed, for example a moving average of the
+ * difference of two traces. Each view documents which samples of its sources
+ * a sample is computed from; a view of several sources pairs their samples
+ * counted from the newest ones, so the sources should be sampled alike. Call
+ * {@link #dispose()} to stop listening to the sources.
+ * </p>
+ */
+public abstract class DerivedDataProvider extends AbstractDataProvider implements IDataProviderListener {
+
+	/** The source data providers */
+	protected final IDataProvider[] sources;
+
+	/** The data ranges computed by the last pass over the samples */
+	private Range xRange;
+	private Range yRange;
+	private boolean dataRangeDirty = true;
+	private boolean dataRangePositiveOnly;
+
+	/**
+	 * @param sources
+	 *            the source data providers, at least one.
+	 */
+	protected DerivedDataProvider(IDataProvider... sources) {
+		super(false);
+		if (sources.length == 0)
+			throw new IllegalArgumentException("A derived data provider needs a source"); //$NON-NLS-1$
+		this.sources = sources.clone();
+		for (IDataProvider source : this.sources)
+			source.addDataProviderListener(this);
+	}
+
+	/**
+	 * Stop listening to the sources.
+	 */
+	public void dispose() {
+		for (IDataProvider source : sources)
+			source.removeDataProviderListener(this);
+	}
+
+	/**
+	 * @return the number of samples of the smallest source.
+	 */
+	@Override
+	public int getSize() {
+		int size = Integer.MAX_VALUE;
+		for (IDataProvider source : sources)
+			size = Math.min(size, source.getSize());
+		return size;
+	}
+
+	/**
+	 * @return true if the first source is chronological.
+	 */
+	@Override
+	public boolean isChronological() {
+		return sources[0].isChronological();
+	}
+
+	@Override
+	public boolean hasErrors() {
+		return false;
+	}
+
+	public void dataChanged(IDataProvider dataProvider) {
+		fireDataChange();
+	}
+
+	@Override
+	protected void innerUpdate() {
+		dataRangeDirty = true;
+	}
+
+	/**
+	 * Compute the data ranges with a pass over the samples, only after the
+	 * data changed.
+	 */
+	@Override
+	protected void updateDataRange(boolean positiveOnly) {
+		if (!dataRangeDirty && dataRangePositiveOnly == positiveOnly) {
+			xDataMinMax = xRange;
+			yDataMinMax = yRange;
+			return;
+		}
+		double xMin = Double.POSITIVE_INFINITY, xMax = Double.NEGATIVE_INFINITY;
+		double yMin = Double.POSITIVE_INFINITY, yMax = Double.NEGATIVE_INFINITY;
+		for (int i = 0, size = getSize(); i < size; i++) {
+			final ISample sample = getSample(i);
+			final double x = sample.getXValue(), y = sample.getYValue();
+			if (isValid(x, positiveOnly)) {
+				xMin = Math.min(xMin, x);
+				xMax = Math.max(xMax, x);
+			}
+			if (isValid(y, positiveOnly)) {
+				yMin = Math.min(yMin, y);
+				yMax = Math.max(yMax, y);
+			}
+		}
+		xRange = xDataMinMax = xMin <= xMax ? new Range(xMin, xMax) : null;
+		yRange = yDataMinMax = yMin <= yMax ? new Range(yMin, yMax) : null;
+		dataRangeDirty = false;
+		dataRangePositiveOnly = positiveOnly;
+	}
+
+	private static boolean isValid(double value, boolean positiveOnly) {
+		return !Double.isNaN(value) && !Double.isInfinite(value) && (!positiveOnly || value > 0);
+	}
+}
@@ -0,0 +1,36 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.eclipse.nebula.visualization.xygraph.dataprovider;
+
+/**
+ * A view of the difference of two data providers, which must be sampled at
+ * the same x values. The view has as many samples as the smaller source,
+ * paired from their newest samples, as the oldest samples of a circular
+ * buffer are the ones dropped. Each sample has the x value of the minuend
+ * and the difference of the y values.
+ */
+public class DifferenceDataProvider extends DerivedDataProvider {
+
+	/**
+	 * @param minuend
+	 *            the data provider whose y values are subtracted from.
+	 * @param subtrahend
+	 *            the data provider whose y values are subtracted.
+	 */
+	public DifferenceDataProvider(IDataProvider minuend, IDataProvider subtrahend) {
+		super(minuend, subtrahend);
+	}
+
+	@Override
+	public ISample getSample(int index) {
+		final int size = getSize();
+		final ISample sample = sources[0].getSample(sources[0].getSize() - size + index);
+		final ISample other = sources[1].getSample(sources[1].getSize() - size + index);
+		return new Sample(sample.getXValue(), sample.getYValue() - other.getYValue());
+	}
+}
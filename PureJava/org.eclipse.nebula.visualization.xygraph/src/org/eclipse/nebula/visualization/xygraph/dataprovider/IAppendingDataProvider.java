@@ -0,0 +1,29 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.eclipse.nebula.visualization.xygraph.dataprovider;
+
+/**
+ * A data provider whose samples are only appended, and dropped from the
+ * oldest ones, like the samples of a {@link CircularBuffer}. So the samples
+ * appended since a previous look at the provider can be found by counting,
+ * for example by a {@link MovingAverageDataProvider}.
+ * <p>
+ * <b>Synchronization:</b> <code>synchronize</code> on the data provider
+ * around the call and the access to the samples, like for
+ * {@link IDataProvider#getSample(int)}.
+ */
+public interface IAppendingDataProvider extends IDataProvider {
+
+	/**
+	 * Get the number of samples ever appended. The sample at index i was
+	 * appended as number <code>getAddCount() - getSize() + i</code>.
+	 *
+	 * @return the number of appended samples.
+	 */
+	public long getAddCount();
+}
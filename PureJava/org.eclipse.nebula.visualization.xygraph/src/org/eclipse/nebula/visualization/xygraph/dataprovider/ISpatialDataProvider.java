@@ -0,0 +1,36 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.eclipse.nebula.visualization.xygraph.dataprovider;
+
+import org.eclipse.nebula.visualization.xygraph.linearscale.Range;
+
+/**
+ * A data provider which can find the samples inside an area without
+ * iterating all samples, for example with a {@link SpatialIndex}. This lets
+ * a trace of data which is not chronological only visit the visible samples
+ * when it is zoomed in.
+ * <p>
+ * <b>Synchronization:</b> <code>synchronize</code> on the data provider
+ * around the call and the access to the samples, like for
+ * {@link IDataProvider#getSample(int)}.
+ */
+public interface ISpatialDataProvider extends IDataProvider {
+
+	/**
+	 * Get the indices of the samples inside an area. The result may contain
+	 * samples near the area as well, and the samples whose y value is NaN.
+	 *
+	 * @param xRange
+	 *            the range of the area on the x axis.
+	 * @param yRange
+	 *            the range of the area on the y axis.
+	 * @return the indices in ascending order, or null if the provider has no
+	 *         index, in which case all samples must be visited.
+	 */
+	public int[] getSampleIndices(Range xRange, Range yRange);
+}
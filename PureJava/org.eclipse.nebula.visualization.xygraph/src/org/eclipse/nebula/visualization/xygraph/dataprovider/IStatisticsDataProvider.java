@@ -0,0 +1,31 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.eclipse.nebula.visualization.xygraph.dataprovider;
+
+/**
+ * A data provider which can compute the statistics of a window of samples
+ * without iterating them, for example with a {@link StatisticsIndex}.
+ * <p>
+ * <b>Synchronization:</b> <code>synchronize</code> on the data provider
+ * around the call and the computation of the window, like for
+ * {@link IDataProvider#getSample(int)}.
+ */
+public interface IStatisticsDataProvider extends IDataProvider {
+
+	/**
+	 * Get the statistics of the y values of a window of samples.
+	 *
+	 * @param fromIndex
+	 *            the index of the first sample, inclusive.
+	 * @param toIndex
+	 *            the index of the last sample, exclusive.
+	 * @return the statistics, or null if the provider has no index, in which
+	 *         case the samples must be iterated.
+	 */
+	public SampleStatistics getStatistics(int fromIndex, int toIndex);
+}
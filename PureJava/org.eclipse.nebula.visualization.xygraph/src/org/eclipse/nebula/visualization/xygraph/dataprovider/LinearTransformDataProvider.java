@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.eclipse.nebula.visualization.xygraph.dataprovider;
+
+import org.eclipse.nebula.visualization.xygraph.linearscale.Range;
+
+/**
+ * A view of a data provider with its values scaled and offset, for example
+ * to convert them to another unit: <code>value * scale + offset</code>. The
+ * errors are scaled as well.
+ */
+public class LinearTransformDataProvider extends DerivedDataProvider {
+
+	private double xScale = 1;
+	private double xOffset = 0;
+	private double yScale = 1;
+	private double yOffset = 0;
+
+	/**
+	 * @param source
+	 *            the source data provider.
+	 */
+	public LinearTransformDataProvider(IDataProvider source) {
+		super(source);
+	}
+
+	/**
+	 * @param source
+	 *            the source data provider.
+	 * @param yScale
+	 *            the factor of the y values.
+	 * @param yOffset
+	 *            the offset added to the scaled y values.
+	 */
+	public LinearTransformDataProvider(IDataProvider source, double yScale, double yOffset) {
+		super(source);
+		this.yScale = yScale;
+		this.yOffset = yOffset;
+	}
+
+	/**
+	 * @param scale
+	 *            the factor of the x values, not 0.
+	 * @param offset
+	 *            the offset added to the scaled x values.
+	 */
+	public synchronized void setXTransform(double scale, double offset) {
+		if (scale == 0)
+			throw new IllegalArgumentException("The x scale must not be 0"); //$NON-NLS-1$
+		xScale = scale;
+		xOffset = offset;
+		fireDataChange();
+	}
+
+	/**
+	 * @param scale
+	 *            the factor of the y values.
+	 * @param offset
+	 *            the offset added to the scaled y values.
+	 */
+	public synchronized void setYTransform(double scale, double offset) {
+		yScale = scale;
+		yOffset = offset;
+		fireDataChange();
+	}
+
+	/**
+	 * @return true if the source is chronological and the x scale is
+	 *         positive.
+	 */
+	@Override
+	public boolean isChronological() {
+		return xScale > 0 && super.isChronological();
+	}
+
+	@Override
+	public boolean hasErrors() {
+		return sources[0].hasErrors();
+	}
+
+	@Override
+	public ISample getSample(int index) {
+		final ISample sample = sources[0].getSample(index);
+		final double xFactor = Math.abs(xScale), yFactor = Math.abs(yScale);
+		// a negative scale swaps the plus and minus errors
+		return new Sample(sample.getXValue() * xScale + xOffset, sample.getYValue() * yScale + yOffset,
+				(yScale < 0 ? sample.getYMinusError() : sample.getYPlusError()) * yFactor,
+				(yScale < 0 ? sample.getYPlusError() : sample.getYMinusError()) * yFactor,
+				(xScale < 0 ? sample.getXMinusError() : sample.getXPlusError()) * xFactor,
+				(xScale < 0 ? sample.getXPlusError() : sample.getXMinusError()) * xFactor, sample.getInfo());
+	}
+
+	/**
+	 * Map the data ranges of the source, so no pass over the samples is
+	 * needed unless the range of the positive values is requested.
+	 */
+	@Override
+	protected void updateDataRange(boolean positiveOnly) {
+		if (positiveOnly) {
+			super.updateDataRange(positiveOnly);
+			return;
+		}
+		xDataMinMax = transform(sources[0].getXDataMinMax(), xScale, xOffset);
+		yDataMinMax = transform(sources[0].getYDataMinMax(), yScale, yOffset);
+	}
+
+	private static Range transform(Range range, double scale, double offset) {
+		if (range == null)
+			return null;
+		final double lower = range.getLower() * scale + offset, upper = range.getUpper() * scale + offset;
+		return new Range(Math.min(lower, upper), Math.max(lower, upper));
+	}
+}
@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.eclipse.nebula.visualization.xygraph.dataprovider;
+
+import java.util.Arrays;
+
+/**
+ * A view of the trailing moving average of the y values of a data provider.
+ * The sample at index i has the x value of source sample i, and the mean of
+ * the finite y values of the last samples of the window ending at it.
+ * <p>
+ * The view keeps a running sum of the window, and one average per source
+ * sample. If the source is an {@link IAppendingDataProvider}, only the
+ * samples appended since the last update are averaged, found by its add
+ * count. The window may include samples the source dropped already. A
+ * source which was cleared, or whose samples were all replaced, is averaged
+ * again in full, like any other source, for example another view, after it
+ * changed.
+ * </p>
+ */
+public class MovingAverageDataProvider extends DerivedDataProvider {
+
+	private final int window;
+
+	/**
+	 * The y values of the last samples, at their sequence number modulo the
+	 * window
+	 */
+	private final double[] windowValues;
+	private double windowSum;
+	private int windowCount;
+
+	/** The averages, at their sequence number modulo the capacity */
+	private double[] averages = new double[64];
+
+	/** The number of samples averaged since the last reset */
+	private long averagedCount;
+
+	/** The size of the source at the last update */
+	private int averagedSize;
+
+	/** The add count of an appending source at the last update */
+	private long averagedAddCount;
+
+	/** true if the source changed since the last update */
+	private boolean sourceChanged = true;
+
+	/**
+	 * @param source
+	 *            the source data provider.
+	 * @param window
+	 *            the number of samples of the window, at least 1.
+	 */
+	public MovingAverageDataProvider(IDataProvider source, int window) {
+		super(source);
+		if (window < 1)
+			throw new IllegalArgumentException("The window must have at least one sample"); //$NON-NLS-1$
+		this.window = window;
+		windowValues = new double[window];
+		reset();
+	}
+
+	/**
+	 * @return the number of samples of the window.
+	 */
+	public int getWindow() {
+		return window;
+	}
+
+	@Override
+	public void dataChanged(IDataProvider dataProvider) {
+		synchronized (this) {
+			sourceChanged = true;
+		}
+		super.dataChanged(dataProvider);
+	}
+
+	@Override
+	public synchronized ISample getSample(int index) {
+		update();
+		final ISample sample = sources[0].getSample(index);
+		final long sequence = averagedCount - averagedSize + index;
+		return new Sample(sample.getXValue(), averages[(int) (sequence % averages.length)]);
+	}
+
+	/**
+	 * Average the samples appended to the source since the last update, or
+	 * all samples if they can't be told apart.
+	 */
+	private void update() {
+		final IDataProvider source = sources[0];
+		final int size = source.getSize();
+		if (size == 0) {
+			reset();
+			return;
+		}
+		int first = 0;
+		if (source instanceof IAppendingDataProvider) {
+			final long addCount = ((IAppendingDataProvider) source).getAddCount();
+			final long appended = addCount - averagedAddCount;
+			if (appended == 0 && averagedSize > 0) {
+				// the source may have dropped samples
+				averagedSize = size;
+				return;
+			}
+			// appending alone doesn't shrink the source, so it was cleared or
+			// resized
+			if (averagedSize == 0 || appended < 0 || appended >= size || size < averagedSize)
+				reset();
+			else
+				first = size - (int) appended;
+			averagedAddCount = addCount;
+		} else {
+			if (!sourceChanged && size == averagedSize)
+				return;
+			reset();
+		}
+		sourceChanged = false;
+		if (averages.length < size) {
+			int capacity = averages.length;
+			while (capacity < size)
+				capacity *= 2;
+			final double[] grown = new double[capacity];
+			for (long sequence = averagedCount - averagedSize; sequence < averagedCount; sequence++)
+				grown[(int) (sequence % capacity)] = averages[(int) (sequence % averages.length)];
+			averages = grown;
+		}
+		for (int i = first; i < size; i++)
+			add(source.getSample(i).getYValue());
+		averagedSize = size;
+	}
+
+	private void add(double y) {
+		final int slot = (int) (averagedCount % window);
+		if (averagedCount >= window && isFinite(windowValues[slot])) {
+			windowSum -= windowValues[slot];
+			windowCount--;
+		}
+		windowValues[slot] = y;
+		if (isFinite(y)) {
+			windowSum += y;
+			windowCount++;
+		}
+		// sum the window again once per window, so rounding errors don't add
+		// up
+		if (slot == window - 1) {
+			windowSum = 0;
+			for (double value : windowValues)
+				if (isFinite(value))
+					windowSum += value;
+		}
+		averages[(int) (averagedCount % averages.length)] = windowCount > 0 ? windowSum / windowCount : Double.NaN;
+		averagedCount++;
+	}
+
+	private void reset() {
+		Arrays.fill(windowValues, Double.NaN);
+		windowSum = 0;
+		windowCount = 0;
+		averagedCount = 0;
+		averagedSize = 0;
+	}
+
+	private static boolean isFinite(double value) {
+		return !Double.isNaN(value) && !Double.isInfinite(value);
+	}
+}
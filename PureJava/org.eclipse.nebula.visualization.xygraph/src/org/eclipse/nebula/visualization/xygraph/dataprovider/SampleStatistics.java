@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.eclipse.nebula.visualization.xygraph.dataprovider;
+
+/**
+ * Statistics of the y values of a window of samples. Samples whose y value is
+ * NaN or infinite are not counted.
+ */
+public class SampleStatistics {
+
+	private final int count;
+	private final double sum;
+	private final double sumOfSquares;
+	private final double min;
+	private final double max;
+
+	/**
+	 * @param count
+	 *            the number of counted samples.
+	 * @param sum
+	 *            the sum of their y values.
+	 * @param sumOfSquares
+	 *            the sum of the squares of their y values.
+	 * @param min
+	 *            the minimum y value.
+	 * @param max
+	 *            the maximum y value.
+	 */
+	public SampleStatistics(int count, double sum, double sumOfSquares, double min, double max) {
+		this.count = count;
+		this.sum = sum;
+		this.sumOfSquares = sumOfSquares;
+		this.min = count > 0 ? min : Double.NaN;
+		this.max = count > 0 ? max : Double.NaN;
+	}
+
+	/**
+	 * Compute the statistics of a window of samples by iterating them.
+	 *
+	 * @param data
+	 *            the data provider, which the caller must have locked.
+	 * @param fromIndex
+	 *            the index of the first sample, inclusive.
+	 * @param toIndex
+	 *            the index of the last sample, exclusive.
+	 * @return the statistics.
+	 */
+	public static SampleStatistics compute(IDataProvider data, int fromIndex, int toIndex) {
+		int count = 0;
+		double sum = 0, sumOfSquares = 0;
+		double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+		for (int i = Math.max(0, fromIndex), end = Math.min(toIndex, data.getSize()); i < end; i++) {
+			final ISample sample = data.getSample(i);
+			if (sample == null)
+				break;
+			final double y = sample.getYValue();
+			if (Double.isNaN(y) || Double.isInfinite(y))
+				continue;
+			count++;
+			sum += y;
+			sumOfSquares += y * y;
+			min = Math.min(min, y);
+			max = Math.max(max, y);
+		}
+		return new SampleStatistics(count, sum, sumOfSquares, min, max);
+	}
+
+	/**
+	 * @return the number of counted samples.
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * @return the sum of the y values.
+	 */
+	public double getSum() {
+		return sum;
+	}
+
+	/**
+	 * @return the sum of the squares of the y values.
+	 */
+	public double getSumOfSquares() {
+		return sumOfSquares;
+	}
+
+	/**
+	 * @return the minimum y value, NaN if no sample was counted.
+	 */
+	public double getMin() {
+		return min;
+	}
+
+	/**
+	 * @return the maximum y value, NaN if no sample was counted.
+	 */
+	public double getMax() {
+		return max;
+	}
+
+	/**
+	 * @return the mean y value, NaN if no sample was counted.
+	 */
+	public double getMean() {
+		return count > 0 ? sum / count : Double.NaN;
+	}
+
+	/**
+	 * @return the root mean square of the y values, NaN if no sample was
+	 *         counted.
+	 */
+	public double getRms() {
+		return count > 0 ? Math.sqrt(sumOfSquares / count) : Double.NaN;
+	}
+
+	/**
+	 * @return the population standard deviation of the y values, NaN if no
+	 *         sample was counted.
+	 */
+	public double getStandardDeviation() {
+		if (count == 0)
+			return Double.NaN;
+		final double mean = sum / count;
+		return Math.sqrt(Math.max(0, sumOfSquares / count - mean * mean));
+	}
+
+	@Override
+	public String toString() {
+		return "SampleStatistics [count=" + count + ", mean=" + getMean() + ", rms=" + getRms() + ", min=" + min //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				+ ", max=" + max + "]"; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
@@ -0,0 +1,251 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.eclipse.nebula.visualization.xygraph.dataprovider;
+
+import java.util.Arrays;
+
+/**
+ * A uniform grid over the samples of a data provider, which finds the
+ * samples inside an area without iterating all samples.
+ * <p>
+ * The index is meant for data providers which append samples and drop the
+ * oldest ones, like a {@link CircularBuffer}. Each sample is identified by
+ * its add number, so the index stays valid when old samples are dropped:
+ * {@link #update(IDataProvider, long)} only bins the samples added since the
+ * last update. Entries of dropped samples are skipped by the queries, and
+ * the grid is rebuilt when there are too many of them, or when too many
+ * samples fall outside the bounds of the grid and are clamped into its
+ * border cells.
+ * </p>
+ * <p>
+ * The index is not synchronized. The data provider must update and query it
+ * while it is locked.
+ * </p>
+ */
+public class SpatialIndex {
+
+	/** The default number of cells along each axis. */
+	public static final int DEFAULT_CELLS = 64;
+
+	/** Number of stale or clamped entries which never cause a rebuild. */
+	private static final int REBUILD_THRESHOLD = 1024;
+
+	private final int cells;
+
+	/** Entries of each cell, and of the samples with non finite values. */
+	private int[][] cellEntries;
+	private int[] cellCounts;
+
+	private boolean hasBounds;
+	private double minX;
+	private double minY;
+	private double scaleX;
+	private double scaleY;
+
+	/** Add number of the entry value 0. */
+	private long base;
+
+	/** Add number of the sample at index 0. */
+	private long firstAddNumber;
+
+	/** Number of added samples which are in the index. */
+	private long indexedAddCount;
+
+	private int entryCount;
+
+	private int clampedCount;
+
+	public SpatialIndex() {
+		this(DEFAULT_CELLS);
+	}
+
+	/**
+	 * @param cells
+	 *            the number of cells along each axis.
+	 */
+	public SpatialIndex(int cells) {
+		if (cells <= 0)
+			throw new IllegalArgumentException("cells must be positive"); //$NON-NLS-1$
+		this.cells = cells;
+		clear();
+	}
+
+	/**
+	 * Remove all samples from the index.
+	 */
+	public void clear() {
+		cellEntries = new int[cells * cells + 1][];
+		cellCounts = new int[cells * cells + 1];
+		hasBounds = false;
+		base = 0;
+		firstAddNumber = 0;
+		indexedAddCount = 0;
+		entryCount = 0;
+		clampedCount = 0;
+	}
+
+	/**
+	 * Bin the samples added since the last update.
+	 *
+	 * @param data
+	 *            the data provider. Its sample at index i must be the sample
+	 *            added as number <code>addCount - data.getSize() + i</code>.
+	 * @param addCount
+	 *            the number of samples ever added to the data provider.
+	 */
+	public void update(IDataProvider data, long addCount) {
+		final int size = data.getSize();
+		if (!hasBounds || addCount < indexedAddCount || addCount - base > Integer.MAX_VALUE) {
+			rebuild(data, addCount);
+			return;
+		}
+		firstAddNumber = addCount - size;
+		if (addCount > indexedAddCount) {
+			final int start = (int) Math.max(0, size - (addCount - indexedAddCount));
+			for (int i = start; i < size; i++) {
+				final ISample sample = data.getSample(i);
+				if (sample == null)
+					break;
+				add(firstAddNumber + i, sample.getXValue(), sample.getYValue());
+			}
+			indexedAddCount = addCount;
+		}
+		if (entryCount - size > Math.max(size, REBUILD_THRESHOLD)
+				|| clampedCount > Math.max(entryCount / 4, REBUILD_THRESHOLD))
+			rebuild(data, addCount);
+	}
+
+	/**
+	 * Bin all samples of a data provider into a new grid, which covers them
+	 * with some room to grow.
+	 */
+	private void rebuild(IDataProvider data, long addCount) {
+		clear();
+		final int size = data.getSize();
+		double xMin = Double.POSITIVE_INFINITY, xMax = Double.NEGATIVE_INFINITY;
+		double yMin = Double.POSITIVE_INFINITY, yMax = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < size; i++) {
+			final ISample sample = data.getSample(i);
+			if (sample == null)
+				break;
+			final double x = sample.getXValue(), y = sample.getYValue();
+			if (!isFinite(x) || !isFinite(y))
+				continue;
+			xMin = Math.min(xMin, x);
+			xMax = Math.max(xMax, x);
+			yMin = Math.min(yMin, y);
+			yMax = Math.max(yMax, y);
+		}
+		if (xMin > xMax) {
+			xMin = xMax = 0;
+			yMin = yMax = 0;
+		}
+		final double width = xMax > xMin ? xMax - xMin : 1;
+		final double height = yMax > yMin ? yMax - yMin : 1;
+		// leave a quarter of the extent on each side for new samples
+		minX = xMin - width / 4;
+		minY = yMin - height / 4;
+		scaleX = cells / (width * 1.5);
+		scaleY = cells / (height * 1.5);
+		hasBounds = true;
+		base = addCount - size;
+		firstAddNumber = base;
+		indexedAddCount = addCount;
+		for (int i = 0; i < size; i++) {
+			final ISample sample = data.getSample(i);
+			if (sample == null)
+				break;
+			add(base + i, sample.getXValue(), sample.getYValue());
+		}
+	}
+
+	private static boolean isFinite(double value) {
+		return !Double.isNaN(value) && !Double.isInfinite(value);
+	}
+
+	private void add(long addNumber, double x, double y) {
+		final int cell;
+		if (isFinite(x) && isFinite(y)) {
+			final double cx = (x - minX) * scaleX, cy = (y - minY) * scaleY;
+			if (cx < 0 || cx >= cells || cy < 0 || cy >= cells)
+				clampedCount++;
+			cell = clampCell(cy) * cells + clampCell(cx);
+		} else
+			cell = cells * cells;
+		int[] entries = cellEntries[cell];
+		final int count = cellCounts[cell];
+		if (entries == null)
+			entries = cellEntries[cell] = new int[16];
+		else if (count == entries.length)
+			entries = cellEntries[cell] = Arrays.copyOf(entries, count * 2);
+		entries[count] = (int) (addNumber - base);
+		cellCounts[cell] = count + 1;
+		entryCount++;
+	}
+
+	private int clampCell(double c) {
+		if (c < 0)
+			return 0;
+		if (c >= cells)
+			return cells - 1;
+		return (int) c;
+	}
+
+	/**
+	 * Get the indices of the samples inside an area, as of the last update.
+	 * The samples in the cells which touch the area are returned, and the
+	 * samples with non finite values.
+	 *
+	 * @param xMin
+	 *            the lower x value of the area.
+	 * @param xMax
+	 *            the upper x value of the area.
+	 * @param yMin
+	 *            the lower y value of the area.
+	 * @param yMax
+	 *            the upper y value of the area.
+	 * @return the sample indices in ascending order, or null if the area
+	 *         holds most of the samples, so iterating all samples is faster.
+	 */
+	public int[] getSampleIndices(double xMin, double xMax, double yMin, double yMax) {
+		final long size = indexedAddCount - firstAddNumber;
+		if (!hasBounds || size == 0)
+			return new int[0];
+		final int x0 = clampCell((Math.min(xMin, xMax) - minX) * scaleX);
+		final int x1 = clampCell((Math.max(xMin, xMax) - minX) * scaleX);
+		final int y0 = clampCell((Math.min(yMin, yMax) - minY) * scaleY);
+		final int y1 = clampCell((Math.max(yMin, yMax) - minY) * scaleY);
+		int count = cellCounts[cells * cells];
+		for (int y = y0; y <= y1; y++)
+			for (int x = x0; x <= x1; x++)
+				count += cellCounts[y * cells + x];
+		if (count > size / 2)
+			return null;
+		final int[] indices = new int[count];
+		final long offset = base - firstAddNumber;
+		int n = collect(cells * cells, offset, indices, 0);
+		for (int y = y0; y <= y1; y++)
+			for (int x = x0; x <= x1; x++)
+				n = collect(y * cells + x, offset, indices, n);
+		Arrays.sort(indices, 0, n);
+		return n == count ? indices : Arrays.copyOf(indices, n);
+	}
+
+	/**
+	 * Copy the indices of the samples of a cell which were not dropped.
+	 */
+	private int collect(int cell, long offset, int[] indices, int n) {
+		final int[] entries = cellEntries[cell];
+		for (int i = 0, count = cellCounts[cell]; i < count; i++) {
+			final long index = entries[i] + offset;
+			if (index >= 0)
+				indices[n++] = (int) index;
+		}
+		return n;
+	}
+}
@@ -0,0 +1,207 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.eclipse.nebula.visualization.xygraph.dataprovider;
+
+import java.util.Arrays;
+
+/**
+ * An index of the y values of the samples of a data provider, which computes
+ * the count, sum, sum of squares, minimum and maximum of any window of
+ * samples in O(log n).
+ * <p>
+ * The index is a segment tree over a ring of leaves, one per sample. Like a
+ * {@link SpatialIndex}, it is meant for data providers which append samples
+ * and drop the oldest ones: each sample is stored at its add number modulo
+ * the number of leaves, so {@link #update(IDataProvider, long)} only sets the
+ * leaves of the samples added since the last update, in O(log n) each, and
+ * the dropped samples are simply overwritten. Prefix sums would lose
+ * precision as they grow without bounds, and a sparse table for the
+ * minimum and maximum can't drop the oldest samples.
+ * </p>
+ * <p>
+ * The index is not synchronized. The data provider must update and query it
+ * while it is locked.
+ * </p>
+ */
+public class StatisticsIndex {
+
+	private static final int MIN_CAPACITY = 1024;
+
+	/** Number of leaves, a power of two. */
+	private int capacity;
+
+	/** Nodes of the tree, where node i has the children 2i and 2i + 1. */
+	private int[] counts;
+	private double[] sums;
+	private double[] sumsOfSquares;
+	private double[] mins;
+	private double[] maxs;
+
+	/** Add number of the sample at index 0. */
+	private long firstAddNumber;
+
+	/** Number of added samples which are in the index. */
+	private long indexedAddCount;
+
+	private boolean built;
+
+	/** Accumulator of a query */
+	private int count;
+	private double sum;
+	private double sumOfSquares;
+	private double min;
+	private double max;
+
+	public StatisticsIndex() {
+		allocate(MIN_CAPACITY);
+	}
+
+	private void allocate(int capacity) {
+		this.capacity = capacity;
+		counts = new int[2 * capacity];
+		sums = new double[2 * capacity];
+		sumsOfSquares = new double[2 * capacity];
+		mins = new double[2 * capacity];
+		maxs = new double[2 * capacity];
+		Arrays.fill(mins, Double.POSITIVE_INFINITY);
+		Arrays.fill(maxs, Double.NEGATIVE_INFINITY);
+	}
+
+	/**
+	 * Index the samples added since the last update.
+	 *
+	 * @param data
+	 *            the data provider. Its sample at index i must be the sample
+	 *            added as number <code>addCount - data.getSize() + i</code>.
+	 * @param addCount
+	 *            the number of samples ever added to the data provider.
+	 */
+	public void update(IDataProvider data, long addCount) {
+		final int size = data.getSize();
+		if (!built || addCount < indexedAddCount || size > capacity
+				|| addCount - indexedAddCount >= capacity) {
+			rebuild(data, addCount);
+			return;
+		}
+		firstAddNumber = addCount - size;
+		final int start = (int) Math.max(0, size - (addCount - indexedAddCount));
+		for (int i = start; i < size; i++)
+			setLeaf(firstAddNumber + i, data.getSample(i));
+		indexedAddCount = addCount;
+	}
+
+	/**
+	 * Fill all leaves from the samples, and compute the nodes bottom up.
+	 */
+	private void rebuild(IDataProvider data, long addCount) {
+		final int size = data.getSize();
+		int newCapacity = MIN_CAPACITY;
+		while (newCapacity < size)
+			newCapacity *= 2;
+		if (newCapacity != capacity)
+			allocate(newCapacity);
+		firstAddNumber = addCount - size;
+		indexedAddCount = addCount;
+		built = true;
+		for (int leaf = capacity; leaf < 2 * capacity; leaf++)
+			setNode(leaf, null);
+		for (int i = 0; i < size; i++)
+			setNode(capacity + position(firstAddNumber + i), data.getSample(i));
+		for (int node = capacity - 1; node > 0; node--)
+			combine(node);
+	}
+
+	private int position(long addNumber) {
+		return (int) (addNumber & (capacity - 1));
+	}
+
+	private void setLeaf(long addNumber, ISample sample) {
+		int node = capacity + position(addNumber);
+		setNode(node, sample);
+		for (node >>= 1; node > 0; node >>= 1)
+			combine(node);
+	}
+
+	private void setNode(int node, ISample sample) {
+		final double y = sample == null ? Double.NaN : sample.getYValue();
+		if (Double.isNaN(y) || Double.isInfinite(y)) {
+			counts[node] = 0;
+			sums[node] = 0;
+			sumsOfSquares[node] = 0;
+			mins[node] = Double.POSITIVE_INFINITY;
+			maxs[node] = Double.NEGATIVE_INFINITY;
+		} else {
+			counts[node] = 1;
+			sums[node] = y;
+			sumsOfSquares[node] = y * y;
+			mins[node] = y;
+			maxs[node] = y;
+		}
+	}
+
+	private void combine(int node) {
+		final int left = 2 * node, right = left + 1;
+		counts[node] = counts[left] + counts[right];
+		sums[node] = sums[left] + sums[right];
+		sumsOfSquares[node] = sumsOfSquares[left] + sumsOfSquares[right];
+		mins[node] = Math.min(mins[left], mins[right]);
+		maxs[node] = Math.max(maxs[left], maxs[right]);
+	}
+
+	/**
+	 * Get the statistics of a window of samples, as of the last update.
+	 *
+	 * @param fromIndex
+	 *            the index of the first sample, inclusive.
+	 * @param toIndex
+	 *            the index of the last sample, exclusive.
+	 * @return the statistics.
+	 */
+	public SampleStatistics getStatistics(int fromIndex, int toIndex) {
+		count = 0;
+		sum = 0;
+		sumOfSquares = 0;
+		min = Double.POSITIVE_INFINITY;
+		max = Double.NEGATIVE_INFINITY;
+		final long size = indexedAddCount - firstAddNumber;
+		final int from = Math.max(0, fromIndex);
+		final int to = (int) Math.min(toIndex, size);
+		if (built && from < to) {
+			final int start = position(firstAddNumber + from);
+			final int end = start + (to - from);
+			if (end <= capacity)
+				query(start, end);
+			else {
+				// the window wraps around the ring
+				query(start, capacity);
+				query(0, end - capacity);
+			}
+		}
+		return new SampleStatistics(count, sum, sumOfSquares, min, max);
+	}
+
+	/**
+	 * Accumulate the leaves from start inclusive to end exclusive.
+	 */
+	private void query(int start, int end) {
+		for (int lo = start + capacity, hi = end + capacity; lo < hi; lo >>= 1, hi >>= 1) {
+			if ((lo & 1) == 1)
+				accumulate(lo++);
+			if ((hi & 1) == 1)
+				accumulate(--hi);
+		}
+	}
+
+	private void accumulate(int node) {
+		count += counts[node];
+		sum += sums[node];
+		sumOfSquares += sumsOfSquares[node];
+		min = Math.min(min, mins[node]);
+		max = Math.max(max, maxs[node]);
+	}
+}
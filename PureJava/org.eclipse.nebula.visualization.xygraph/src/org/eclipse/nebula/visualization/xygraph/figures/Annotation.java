@@ -739,12 +739,21 @@ public class Annotation extends Figure implements IAxisListener, IDataProviderLi
 		return annotationColor;
 	}
 
+	/**
+	 * Notify the graph about an interaction, so it renders on the fast path.
+	 */
+	private void notifyInteraction() {
+		if (xyGraph instanceof XYGraph)
+			((XYGraph) xyGraph).notifyInteraction();
+	}
+
 	class InfoLabelDragger extends MouseMotionListener.Stub implements MouseListener {
 
 		private MovingAnnotationLabelCommand command;
 
 		@Override
 		public void mouseDragged(MouseEvent me) {
+			notifyInteraction();
 			x0 = me.getLocation().x - currentPosition.x;
 			y0 = me.getLocation().y - currentPosition.y;
 			knowX0Y0 = true;
@@ -782,6 +791,7 @@ public class Annotation extends Figure implements IAxisListener, IDataProviderLi
 
 			@Override
 			public void mouseDragged(MouseEvent me) {
+				notifyInteraction();
 				// free
 				if (trace == null) {
 					setCurrentPosition(me.getLocation(), me.getState() == (InputEvent.BUTTON1 | InputEvent.CONTROL));
@@ -0,0 +1,520 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.eclipse.nebula.visualization.xygraph.figures;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.FigureUtilities;
+import org.eclipse.draw2d.Graphics;
+import org.eclipse.draw2d.geometry.Dimension;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.nebula.visualization.xygraph.dataprovider.IDataProvider;
+import org.eclipse.nebula.visualization.xygraph.dataprovider.IDataProviderListener;
+import org.eclipse.nebula.visualization.xygraph.dataprovider.ISample;
+import org.eclipse.nebula.visualization.xygraph.linearscale.Range;
+import org.eclipse.nebula.visualization.xygraph.linearscale.ScaleTransform;
+import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * A layer of many lightweight annotations, like event markers, drawn by a
+ * single figure.
+ * <p>
+ * Unlike {@link Annotation}, an annotation of the layer is not a figure: it
+ * is an index into primitive arrays holding its values, name and color. The
+ * layer only draws the annotations in the range of its axes, with their
+ * labels in one pass. Annotations may snap to the nearest sample of a trace,
+ * and all snapped annotations are moved by one batched update after the data
+ * of the trace changed, however often it changes in between.
+ * </p>
+ * <p>
+ * The layer has no mouse handling of its own. Use
+ * {@link #getAnnotationAt(int, int)} to find the annotation under the
+ * pointer.
+ * </p>
+ */
+public class AnnotationLayer extends Figure implements IDataProviderListener {
+
+	private final static int POINT_SIZE = 6;
+	private final static int LABEL_OFFSET = 4;
+
+	private final Axis xAxis;
+	private final Axis yAxis;
+
+	private Trace trace;
+
+	private int count;
+	private double[] xValues = new double[16];
+	private double[] yValues = new double[16];
+	private String[] names = new String[16];
+	/** Color of each annotation as 0xRRGGBB, or -1 for the y axis color */
+	private int[] colors = new int[16];
+	private boolean[] snapped = new boolean[16];
+	/** Label size of each annotation, -1 if not measured yet */
+	private int[] labelWidths = new int[16];
+	private int[] labelHeights = new int[16];
+
+	private boolean showLabels = true;
+
+	/** Colors of the annotations, by their 0xRRGGBB value */
+	private final Map<Integer, Color> colorCache = new HashMap<Integer, Color>();
+
+	private boolean snapScheduled;
+
+	private final Runnable snapper = new Runnable() {
+		@Override
+		public void run() {
+			snapScheduled = false;
+			snapAnnotations();
+		}
+	};
+
+	/**
+	 * @param xAxis
+	 *            the x axis of the annotations.
+	 * @param yAxis
+	 *            the y axis of the annotations.
+	 */
+	public AnnotationLayer(Axis xAxis, Axis yAxis) {
+		this.xAxis = xAxis;
+		this.yAxis = yAxis;
+	}
+
+	/**
+	 * Add an annotation.
+	 *
+	 * @param name
+	 *            the name of the annotation, shown by its label.
+	 * @param x
+	 *            the x value of the annotation.
+	 * @param y
+	 *            the y value of the annotation.
+	 * @return the index of the annotation.
+	 */
+	public int addAnnotation(String name, double x, double y) {
+		if (count == xValues.length) {
+			final int capacity = count * 2;
+			xValues = Arrays.copyOf(xValues, capacity);
+			yValues = Arrays.copyOf(yValues, capacity);
+			names = Arrays.copyOf(names, capacity);
+			colors = Arrays.copyOf(colors, capacity);
+			snapped = Arrays.copyOf(snapped, capacity);
+			labelWidths = Arrays.copyOf(labelWidths, capacity);
+			labelHeights = Arrays.copyOf(labelHeights, capacity);
+		}
+		xValues[count] = x;
+		yValues[count] = y;
+		names[count] = name == null ? "" : name; //$NON-NLS-1$
+		colors[count] = -1;
+		snapped[count] = false;
+		labelWidths[count] = -1;
+		repaint();
+		return count++;
+	}
+
+	/**
+	 * Remove an annotation. The annotations after it move down by one index.
+	 *
+	 * @param index
+	 *            the index of the annotation.
+	 */
+	public void removeAnnotation(int index) {
+		checkIndex(index);
+		final int tail = count - index - 1;
+		System.arraycopy(xValues, index + 1, xValues, index, tail);
+		System.arraycopy(yValues, index + 1, yValues, index, tail);
+		System.arraycopy(names, index + 1, names, index, tail);
+		System.arraycopy(colors, index + 1, colors, index, tail);
+		System.arraycopy(snapped, index + 1, snapped, index, tail);
+		System.arraycopy(labelWidths, index + 1, labelWidths, index, tail);
+		System.arraycopy(labelHeights, index + 1, labelHeights, index, tail);
+		names[--count] = null;
+		repaint();
+	}
+
+	/**
+	 * Remove all annotations.
+	 */
+	public void clearAnnotations() {
+		Arrays.fill(names, 0, count, null);
+		count = 0;
+		repaint();
+	}
+
+	/**
+	 * @return the number of annotations.
+	 */
+	public int getAnnotationCount() {
+		return count;
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= count)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Move an annotation. A snapped annotation snaps to the sample nearest to
+	 * the new x value on the next update.
+	 *
+	 * @param index
+	 *            the index of the annotation.
+	 * @param x
+	 *            the x value.
+	 * @param y
+	 *            the y value.
+	 */
+	public void setValues(int index, double x, double y) {
+		checkIndex(index);
+		xValues[index] = x;
+		yValues[index] = y;
+		repaint();
+	}
+
+	/**
+	 * @param index
+	 *            the index of the annotation.
+	 * @return the x value of the annotation.
+	 */
+	public double getXValue(int index) {
+		checkIndex(index);
+		return xValues[index];
+	}
+
+	/**
+	 * @param index
+	 *            the index of the annotation.
+	 * @return the y value of the annotation.
+	 */
+	public double getYValue(int index) {
+		checkIndex(index);
+		return yValues[index];
+	}
+
+	/**
+	 * @param index
+	 *            the index of the annotation.
+	 * @param name
+	 *            the name of the annotation.
+	 */
+	public void setName(int index, String name) {
+		checkIndex(index);
+		names[index] = name == null ? "" : name; //$NON-NLS-1$
+		labelWidths[index] = -1;
+		repaint();
+	}
+
+	/**
+	 * @param index
+	 *            the index of the annotation.
+	 * @return the name of the annotation.
+	 */
+	public String getName(int index) {
+		checkIndex(index);
+		return names[index];
+	}
+
+	/**
+	 * @param index
+	 *            the index of the annotation.
+	 * @param color
+	 *            the color of the annotation, null for the color of the y
+	 *            axis.
+	 */
+	public void setAnnotationColor(int index, Color color) {
+		checkIndex(index);
+		colors[index] = color == null ? -1 : color.getRed() << 16 | color.getGreen() << 8 | color.getBlue();
+		repaint();
+	}
+
+	/**
+	 * Snap an annotation to the sample of the trace of the layer nearest to
+	 * its x value.
+	 *
+	 * @param index
+	 *            the index of the annotation.
+	 * @param snap
+	 *            true to snap the annotation to the trace.
+	 */
+	public void setSnapped(int index, boolean snap) {
+		checkIndex(index);
+		snapped[index] = snap;
+		if (snap)
+			scheduleSnap();
+	}
+
+	/**
+	 * @param index
+	 *            the index of the annotation.
+	 * @return true if the annotation snaps to the trace.
+	 */
+	public boolean isSnapped(int index) {
+		checkIndex(index);
+		return snapped[index];
+	}
+
+	/**
+	 * @param trace
+	 *            the trace the snapped annotations snap to, or null.
+	 */
+	public void setTrace(Trace trace) {
+		if (this.trace == trace)
+			return;
+		if (this.trace != null)
+			this.trace.getDataProvider().removeDataProviderListener(this);
+		this.trace = trace;
+		if (trace != null) {
+			trace.getDataProvider().addDataProviderListener(this);
+			scheduleSnap();
+		}
+	}
+
+	/**
+	 * @return the trace the snapped annotations snap to, or null.
+	 */
+	public Trace getTrace() {
+		return trace;
+	}
+
+	/**
+	 * @param showLabels
+	 *            true to draw the names of the annotations.
+	 */
+	public void setShowLabels(boolean showLabels) {
+		this.showLabels = showLabels;
+		repaint();
+	}
+
+	/**
+	 * @return true if the names of the annotations are drawn.
+	 */
+	public boolean isShowLabels() {
+		return showLabels;
+	}
+
+	@Override
+	public void setFont(Font font) {
+		super.setFont(font);
+		Arrays.fill(labelWidths, 0, count, -1);
+	}
+
+	/**
+	 * @return the x axis of the annotations.
+	 */
+	public Axis getXAxis() {
+		return xAxis;
+	}
+
+	/**
+	 * @return the y axis of the annotations.
+	 */
+	public Axis getYAxis() {
+		return yAxis;
+	}
+
+	/**
+	 * Find the annotation drawn at a position.
+	 *
+	 * @param x
+	 *            the x position.
+	 * @param y
+	 *            the y position.
+	 * @return the index of the topmost annotation whose marker contains the
+	 *         position, or -1 if there is none.
+	 */
+	public int getAnnotationAt(int x, int y) {
+		final ScaleTransform xTransform = xAxis.getTransform(false);
+		final ScaleTransform yTransform = yAxis.getTransform(false);
+		for (int i = count - 1; i >= 0; i--) {
+			if (Math.abs(xTransform.getValuePrecisePosition(xValues[i]) - x) <= POINT_SIZE / 2
+					&& Math.abs(yTransform.getValuePrecisePosition(yValues[i]) - y) <= POINT_SIZE / 2)
+				return i;
+		}
+		return -1;
+	}
+
+	@Override
+	public boolean containsPoint(int x, int y) {
+		return getAnnotationAt(x, y) >= 0;
+	}
+
+	@Override
+	protected void paintFigure(Graphics graphics) {
+		super.paintFigure(graphics);
+		if (count == 0)
+			return;
+		final Range xRange = xAxis.getRange();
+		final Range yRange = yAxis.getRange();
+		final ScaleTransform xTransform = xAxis.getTransform(false);
+		final ScaleTransform yTransform = yAxis.getTransform(false);
+
+		// cull the annotations to the visible range
+		int[] visible = new int[64];
+		int visibleCount = 0;
+		for (int i = 0; i < count; i++) {
+			if (!xRange.inRange(xValues[i]) || !yRange.inRange(yValues[i]))
+				continue;
+			if (visibleCount == visible.length)
+				visible = Arrays.copyOf(visible, visibleCount * 2);
+			visible[visibleCount++] = i;
+		}
+		if (visibleCount == 0)
+			return;
+		final int[] xPositions = new int[visibleCount];
+		final int[] yPositions = new int[visibleCount];
+		for (int k = 0; k < visibleCount; k++) {
+			xPositions[k] = xTransform.getValuePosition(xValues[visible[k]]);
+			yPositions[k] = yTransform.getValuePosition(yValues[visible[k]]);
+		}
+
+		final Font font = getFont();
+		final Rectangle clip = graphics.getClip(new Rectangle());
+		final Rectangle labelBounds = new Rectangle();
+		graphics.setFont(font);
+		int rgb = -1;
+		graphics.setForegroundColor(yAxis.getForegroundColor());
+		for (int k = 0; k < visibleCount; k++) {
+			final int i = visible[k];
+			if (colors[i] != rgb) {
+				rgb = colors[i];
+				graphics.setForegroundColor(rgb == -1 ? yAxis.getForegroundColor() : getColor(rgb));
+			}
+			final int x = xPositions[k], y = yPositions[k];
+			graphics.drawLine(x - POINT_SIZE / 2, y, x + POINT_SIZE / 2, y);
+			graphics.drawLine(x, y - POINT_SIZE / 2, x, y + POINT_SIZE / 2);
+			if (showLabels && names[i].length() > 0) {
+				if (labelWidths[i] < 0) {
+					final Dimension size = FigureUtilities.getTextExtents(names[i], font);
+					labelWidths[i] = size.width;
+					labelHeights[i] = size.height;
+				}
+				labelBounds.setBounds(x + LABEL_OFFSET, y - LABEL_OFFSET - labelHeights[i], labelWidths[i],
+						labelHeights[i]);
+				if (clip.intersects(labelBounds))
+					graphics.drawText(names[i], labelBounds.x, labelBounds.y);
+			}
+		}
+	}
+
+	/**
+	 * @return the cached color of an annotation.
+	 */
+	private Color getColor(int rgb) {
+		Color color = colorCache.get(rgb);
+		if (color == null) {
+			color = new Color(Display.getCurrent(), rgb >> 16 & 0xFF, rgb >> 8 & 0xFF, rgb & 0xFF);
+			colorCache.put(rgb, color);
+		}
+		return color;
+	}
+
+	@Override
+	public void removeNotify() {
+		for (Color color : colorCache.values())
+			color.dispose();
+		colorCache.clear();
+		super.removeNotify();
+	}
+
+	public void dataChanged(IDataProvider dataProvider) {
+		scheduleSnap();
+	}
+
+	/**
+	 * Snap the annotations once the current events were processed, so the
+	 * data changes of a frame cause a single update.
+	 */
+	private void scheduleSnap() {
+		if (snapScheduled || trace == null)
+			return;
+		snapScheduled = true;
+		Display.getCurrent().asyncExec(snapper);
+	}
+
+	/**
+	 * Move the snapped annotations to the samples of the trace nearest to
+	 * their x values. The annotations and the samples are both visited in x
+	 * order, so all annotations are snapped in a single pass over the
+	 * samples.
+	 */
+	private void snapAnnotations() {
+		if (trace == null)
+			return;
+		int snappedCount = 0;
+		final int[] order = new int[count];
+		for (int i = 0; i < count; i++)
+			if (snapped[i])
+				order[snappedCount++] = i;
+		if (snappedCount == 0)
+			return;
+		sortByValue(order, snappedCount, xValues);
+
+		final IDataProvider dataProvider = trace.getDataProvider();
+		boolean moved = false;
+		synchronized (dataProvider) {
+			final int size = dataProvider.getSize();
+			if (size == 0)
+				return;
+			final double[] sampleX = new double[size];
+			final int[] samples = new int[size];
+			int sampleCount = 0;
+			for (int i = 0; i < size; i++) {
+				final ISample sample = dataProvider.getSample(i);
+				if (sample == null || Double.isNaN(sample.getXValue()) || Double.isNaN(sample.getYValue()))
+					continue;
+				sampleX[i] = sample.getXValue();
+				samples[sampleCount++] = i;
+			}
+			if (sampleCount == 0)
+				return;
+			if (!dataProvider.isChronological())
+				sortByValue(samples, sampleCount, sampleX);
+
+			int s = 0;
+			for (int k = 0; k < snappedCount; k++) {
+				final int i = order[k];
+				final double x = xValues[i];
+				while (s + 1 < sampleCount && sampleX[samples[s + 1]] <= x)
+					s++;
+				int nearest = samples[s];
+				if (s + 1 < sampleCount && Math.abs(sampleX[samples[s + 1]] - x) < Math.abs(sampleX[nearest] - x))
+					nearest = samples[s + 1];
+				final ISample sample = dataProvider.getSample(nearest);
+				if (xValues[i] != sample.getXValue() || yValues[i] != sample.getYValue()) {
+					xValues[i] = sample.getXValue();
+					yValues[i] = sample.getYValue();
+					moved = true;
+				}
+			}
+		}
+		if (moved)
+			repaint();
+	}
+
+	/**
+	 * Sort the first n indices by the values they refer to.
+	 */
+	private static void sortByValue(int[] indices, int n, final double[] values) {
+		final Integer[] boxed = new Integer[n];
+		for (int k = 0; k < n; k++)
+			boxed[k] = indices[k];
+		Arrays.sort(boxed, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer a, Integer b) {
+				return Double.compare(values[a], values[b]);
+			}
+		});
+		for (int k = 0; k < n; k++)
+			indices[k] = boxed[k];
+	}
+}
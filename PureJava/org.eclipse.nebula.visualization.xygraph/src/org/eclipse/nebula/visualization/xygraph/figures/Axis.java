@@ -21,6 +21,7 @@ import org.eclipse.draw2d.geometry.Point;
 import org.eclipse.nebula.visualization.internal.xygraph.undo.AxisPanOrZoomCommand;
 import org.eclipse.nebula.visualization.internal.xygraph.undo.SaveStateCommand;
 import org.eclipse.nebula.visualization.xygraph.dataprovider.IDataProvider;
+import org.eclipse.nebula.visualization.xygraph.dataprovider.IStatisticsDataProvider;
 import org.eclipse.nebula.visualization.xygraph.linearscale.LinearScale;
 import org.eclipse.nebula.visualization.xygraph.linearscale.Range;
 import org.eclipse.nebula.visualization.xygraph.util.GraphicsUtil;
@@ -59,6 +60,8 @@ public class Axis extends LinearScale {
 
 	private boolean autoScale = false;
 
+	private boolean autoScaleVisibleRange = false;
+
 	private boolean showMajorGrid = false;
 
 	private boolean showMinorGrid = false;
@@ -171,6 +174,7 @@ public class Axis extends LinearScale {
 	public void setVisible(boolean visible) {
 		super.setVisible(visible);
 		grid.setVisible(visible);
+		invalidateGridRendering();
 		revalidate();
 	}
 
@@ -205,6 +209,7 @@ public class Axis extends LinearScale {
 	@Override
 	public void setForegroundColor(final Color color) {
 		super.setForegroundColor(color);
+		invalidateGridRendering();
 		if (xyGraph != null)
 			xyGraph.repaint();
 	}
@@ -301,6 +306,8 @@ public class Axis extends LinearScale {
 			final Range range;
 			if (isHorizontal())
 				range = trace.getDataProvider().getXDataMinMax(positiveOnly);
+			else if (autoScaleVisibleRange)
+				range = trace.getVisibleYDataRange(positiveOnly);
 			else
 				range = trace.getDataProvider().getYDataMinMax(positiveOnly);
 			if (range == null)
@@ -461,6 +468,30 @@ public class Axis extends LinearScale {
 		performAutoScale(false);
 	}
 
+	/**
+	 * @return true if the auto-scale of this y axis only covers the samples
+	 *         in the range of the x axes of its traces.
+	 */
+	public boolean isAutoScaleVisibleRange() {
+		return autoScaleVisibleRange;
+	}
+
+	/**
+	 * Auto-scale this y axis to the samples in the range of the x axes of its
+	 * traces instead of all samples, so the axis follows a zoom or pan on the
+	 * x axis. The minimum and maximum of the visible samples are computed
+	 * with an index if the data provider is an {@link IStatisticsDataProvider}
+	 * with its index enabled, and by iterating the visible samples otherwise.
+	 * Horizontal axes ignore this setting.
+	 * 
+	 * @param autoScaleVisibleRange
+	 *            true to auto-scale to the visible samples.
+	 */
+	public void setAutoScaleVisibleRange(final boolean autoScaleVisibleRange) {
+		this.autoScaleVisibleRange = autoScaleVisibleRange;
+		performAutoScale(false);
+	}
+
 	/**
 	 * @return the showMajorGrid
 	 */
@@ -474,6 +505,7 @@ public class Axis extends LinearScale {
 	 */
 	public void setShowMajorGrid(final boolean showMajorGrid) {
 		this.showMajorGrid = showMajorGrid;
+		invalidateGridRendering();
 		if (xyGraph != null)
 			xyGraph.repaint();
 	}
@@ -491,6 +523,7 @@ public class Axis extends LinearScale {
 	 */
 	public void setShowMinorGrid(final boolean showMinorGrid) {
 		this.showMinorGrid = showMinorGrid;
+		invalidateGridRendering();
 		if (xyGraph != null)
 			xyGraph.repaint();
 	}
@@ -510,6 +543,7 @@ public class Axis extends LinearScale {
 	 */
 	public void setMajorGridColor(final Color majorGridColor) {
 		this.majorGridColor = majorGridColor;
+		invalidateGridRendering();
 		if (xyGraph != null)
 			xyGraph.repaint();
 	}
@@ -529,6 +563,7 @@ public class Axis extends LinearScale {
 	 */
 	public void setMinorGridColor(final Color minorGridColor) {
 		this.minorGridColor = minorGridColor;
+		invalidateGridRendering();
 		if (xyGraph != null)
 			xyGraph.repaint();
 	}
@@ -555,10 +590,20 @@ public class Axis extends LinearScale {
 	 */
 	public void setDashGridLine(final boolean dashGridLine) {
 		this.dashGridLine = dashGridLine;
+		invalidateGridRendering();
 		if (xyGraph != null)
 			xyGraph.repaint();
 	}
 
+	/**
+	 * Tell the plot area that the grid looks different, so the images it keeps
+	 * of the grid must be rendered again.
+	 */
+	private void invalidateGridRendering() {
+		if (xyGraph != null && xyGraph.getPlotArea() != null)
+			xyGraph.getPlotArea().invalidateRenderedImages();
+	}
+
 	/**
 	 * @param xyGraph
 	 *            the xyGraph to set
@@ -840,6 +885,8 @@ public class Axis extends LinearScale {
 		public void mouseDragged(final MouseEvent me) {
 			if (!armed)
 				return;
+			if (xyGraph instanceof XYGraph)
+				((XYGraph) xyGraph).notifyInteraction();
 			switch (zoomType) {
 			case RUBBERBAND_ZOOM:
 			case DYNAMIC_ZOOM:
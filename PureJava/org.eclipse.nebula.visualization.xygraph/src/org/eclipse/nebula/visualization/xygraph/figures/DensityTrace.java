@@ -0,0 +1,270 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.eclipse.nebula.visualization.xygraph.figures;
+
+import org.eclipse.draw2d.Graphics;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.nebula.visualization.xygraph.dataprovider.IDataProvider;
+import org.eclipse.nebula.visualization.xygraph.dataprovider.ISample;
+import org.eclipse.nebula.visualization.xygraph.linearscale.ScaleTransform;
+import org.eclipse.nebula.visualization.xygraph.util.DensityBuffer;
+import org.eclipse.nebula.visualization.xygraph.util.GraphicsUtil;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.RGB;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * A trace which shows the density of many overlapping acquisitions, like
+ * the persistence display of an oscilloscope.
+ * <p>
+ * Each acquisition reported by the data provider, or passed to
+ * {@link #accumulate(IDataProvider)}, is drawn once into a per pixel hit
+ * count buffer. The trace then paints the buffer as a single image, mapping
+ * the counts through a color map. So the cost of a paint doesn't grow with
+ * the number of acquisitions. The hits of older acquisitions can decay,
+ * see {@link #setPersistence(double)}.
+ * </p>
+ * <p>
+ * The buffer is in pixels, so the history is cleared whenever the axis
+ * ranges or the size of the plot area change. Use fixed axis ranges to keep
+ * the history.
+ * </p>
+ */
+public class DensityTrace extends Trace {
+
+	/** Number of entries of the color lookup table */
+	private static final int LOOKUP_TABLE_SIZE = 256;
+
+	/** Number of samples mapped at once */
+	private static final int CHUNK_SIZE = 1024;
+
+	/** The default color map, from rarely to often hit pixels */
+	private static final RGB[] DEFAULT_COLOR_MAP = { new RGB(0, 0, 143), new RGB(0, 0, 255), new RGB(0, 255, 255),
+			new RGB(255, 255, 0), new RGB(255, 0, 0), new RGB(128, 0, 0) };
+
+	/** The state of the buffer after its validation */
+	private enum BufferState {
+		/** the trace has no size yet, so there is no buffer */
+		NO_SIZE,
+		/** the buffer matches the plot area and the axes */
+		VALID,
+		/** a new buffer was created with the acquisition of the data provider */
+		REBUILT
+	}
+
+	private DensityBuffer buffer;
+
+	/** The area and transforms the buffer was accumulated with */
+	private Rectangle bufferArea;
+	private ScaleTransform xTransform;
+	private ScaleTransform yTransform;
+
+	private int[] lookupTable;
+
+	private double persistence = 1;
+
+	private boolean logarithmic = true;
+
+	private Image image;
+
+	private boolean imageDirty;
+
+	public DensityTrace(String name, Axis xAxis, Axis yAxis, IDataProvider dataProvider) {
+		super(name, xAxis, yAxis, dataProvider);
+		setColorMap(DEFAULT_COLOR_MAP);
+	}
+
+	/**
+	 * Set the colors of the hit counts. The colors are equally spaced from
+	 * the lowest to the highest count and interpolated in between.
+	 *
+	 * @param colors
+	 *            the colors, at least one.
+	 */
+	public void setColorMap(RGB[] colors) {
+		final int[] argb = new int[colors.length];
+		for (int i = 0; i < colors.length; i++)
+			argb[i] = 0xFF000000 | colors[i].red << 16 | colors[i].green << 8 | colors[i].blue;
+		lookupTable = DensityBuffer.createLookupTable(argb, LOOKUP_TABLE_SIZE);
+		densityChanged();
+	}
+
+	/**
+	 * Set how long the older acquisitions persist.
+	 *
+	 * @param persistence
+	 *            the factor the hit counts are multiplied with before each
+	 *            acquisition, from 0 exclusive to 1 for infinite persistence.
+	 */
+	public void setPersistence(double persistence) {
+		if (persistence <= 0 || persistence > 1)
+			throw new IllegalArgumentException("persistence must be in (0, 1]"); //$NON-NLS-1$
+		this.persistence = persistence;
+	}
+
+	/**
+	 * @return the factor the hit counts are multiplied with before each
+	 *         acquisition.
+	 */
+	public double getPersistence() {
+		return persistence;
+	}
+
+	/**
+	 * @param logarithmic
+	 *            true to map the logarithm of the hit counts to colors, so
+	 *            rarely hit pixels are still visible.
+	 */
+	public void setLogarithmic(boolean logarithmic) {
+		this.logarithmic = logarithmic;
+		densityChanged();
+	}
+
+	/**
+	 * @return true if the logarithm of the hit counts is mapped to colors.
+	 */
+	public boolean isLogarithmic() {
+		return logarithmic;
+	}
+
+	/**
+	 * Remove all acquisitions from the density.
+	 */
+	public void clearHistory() {
+		if (buffer != null)
+			buffer.clear();
+		densityChanged();
+	}
+
+	/**
+	 * Add an acquisition to the density. The acquisitions of the data
+	 * provider of the trace are added automatically when it reports a
+	 * change. Must be called in the UI thread.
+	 *
+	 * @param acquisition
+	 *            the samples of the acquisition.
+	 */
+	public void accumulate(IDataProvider acquisition) {
+		final BufferState state = validateBuffer();
+		if (state == BufferState.NO_SIZE)
+			return;
+		// a new buffer has the acquisition of the data provider already
+		if (state != BufferState.REBUILT || acquisition != traceDataProvider) {
+			buffer.decay(persistence);
+			accumulateSamples(acquisition);
+		}
+		densityChanged();
+	}
+
+	@Override
+	public void dataChanged(IDataProvider dataProvider) {
+		// the auto scale may change the axes, so accumulate afterwards
+		super.dataChanged(dataProvider);
+		accumulate(dataProvider);
+	}
+
+	/**
+	 * Create a new buffer if the plot area or the axes changed. The
+	 * acquisition of the data provider of the trace is added to the new
+	 * buffer, so it isn't empty.
+	 *
+	 * @return the state of the buffer.
+	 */
+	private BufferState validateBuffer() {
+		final Rectangle area = getBounds();
+		if (area.width <= 0 || area.height <= 0)
+			return BufferState.NO_SIZE;
+		final ScaleTransform x = xAxis.getTransform(false);
+		final ScaleTransform y = yAxis.getTransform(false);
+		if (buffer != null && x == xTransform && y == yTransform && area.equals(bufferArea))
+			return BufferState.VALID;
+		buffer = new DensityBuffer(area.width, area.height);
+		bufferArea = area.getCopy();
+		xTransform = x;
+		yTransform = y;
+		if (traceDataProvider != null)
+			accumulateSamples(traceDataProvider);
+		imageDirty = true;
+		return BufferState.REBUILT;
+	}
+
+	/**
+	 * Draw the samples of an acquisition into the buffer.
+	 */
+	private void accumulateSamples(IDataProvider acquisition) {
+		// one more point than a chunk to continue the polyline of the last
+		// chunk
+		final double[] xValues = new double[CHUNK_SIZE + 1];
+		final double[] yValues = new double[CHUNK_SIZE + 1];
+		final double[] xs = new double[CHUNK_SIZE + 1];
+		final double[] ys = new double[CHUNK_SIZE + 1];
+		synchronized (acquisition) {
+			final int size = acquisition.getSize();
+			int carry = 0;
+			for (int start = 0; start < size; start += CHUNK_SIZE) {
+				final int n = Math.min(CHUNK_SIZE, size - start);
+				int count = carry;
+				for (int i = 0; i < n; i++) {
+					final ISample sample = acquisition.getSample(start + i);
+					if (sample == null)
+						break;
+					xValues[count] = sample.getXValue();
+					yValues[count] = sample.getYValue();
+					count++;
+				}
+				if (count <= carry)
+					break;
+				// NaN values map to NaN positions, which break the polyline
+				xTransform.mapValues(xValues, 0, count, xs);
+				yTransform.mapValues(yValues, 0, count, ys);
+				for (int i = 0; i < count; i++) {
+					xs[i] -= bufferArea.x;
+					ys[i] -= bufferArea.y;
+				}
+				buffer.accumulatePolyline(xs, ys, count, carry > 0);
+				// carry the last point over to the next chunk
+				xValues[0] = xValues[count - 1];
+				yValues[0] = yValues[count - 1];
+				carry = 1;
+			}
+		}
+	}
+
+	private void densityChanged() {
+		imageDirty = true;
+		invalidateRendering();
+		repaint();
+	}
+
+	@Override
+	protected void paintFigure(Graphics graphics) {
+		if (validateBuffer() == BufferState.NO_SIZE)
+			return;
+		if (image == null || imageDirty) {
+			disposeImage();
+			final int[] pixels = new int[buffer.getWidth() * buffer.getHeight()];
+			buffer.toARGB(lookupTable, logarithmic, pixels);
+			image = GraphicsUtil.createImage(Display.getCurrent(), pixels, buffer.getWidth(), buffer.getHeight());
+			imageDirty = false;
+		}
+		graphics.drawImage(image, bufferArea.x, bufferArea.y);
+	}
+
+	private void disposeImage() {
+		if (image != null) {
+			image.dispose();
+			image = null;
+		}
+	}
+
+	@Override
+	public void removeNotify() {
+		disposeImage();
+		super.removeNotify();
+	}
+}
@@ -50,6 +50,8 @@ public class Grid extends Figure implements IAxisListener {
 	}
 
 	public void axisRevalidated(Axis axis) {
+		if (getParent() instanceof PlotArea)
+			((PlotArea) getParent()).invalidateProgressiveImage();
 		if (axis.isShowMajorGrid())
 			repaint();
 	}
@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.eclipse.nebula.visualization.xygraph.figures;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.draw2d.SWTGraphics;
+import org.eclipse.nebula.visualization.xygraph.figures.Trace.PointStyle;
+import org.eclipse.nebula.visualization.xygraph.util.GraphicsUtil;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Device;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
+
+/**
+ * A cache of the markers of a trace, each rendered once to a small
+ * transparent image.
+ * <p>
+ * A marker is drawn white on black by {@link Trace#drawMarker}, so the
+ * brightness of each pixel is the coverage of the shape including its
+ * antialiasing, and then colored. The sprite keeps its ARGB pixels as well,
+ * so it can be stamped into a software raster. The least recently used
+ * sprites are disposed when the cache is full.
+ * </p>
+ */
+final class MarkerSprites {
+
+	/** Maximum number of cached sprites */
+	private static final int MAX_SPRITES = 64;
+
+	/** A rendered marker */
+	static final class Sprite {
+		final Image image;
+		final int[] pixels;
+		final int size;
+		/** Offset of the marker position from the top left of the sprite */
+		final int offset;
+
+		private Sprite(Image image, int[] pixels, int size, int offset) {
+			this.image = image;
+			this.pixels = pixels;
+			this.size = size;
+			this.offset = offset;
+		}
+	}
+
+	private static final class Key {
+		private final PointStyle style;
+		private final int size;
+		private final int rgb;
+		private final boolean antialias;
+
+		private Key(PointStyle style, int size, int rgb, boolean antialias) {
+			this.style = style;
+			this.size = size;
+			this.rgb = rgb;
+			this.antialias = antialias;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key))
+				return false;
+			final Key other = (Key) obj;
+			return style == other.style && size == other.size && rgb == other.rgb && antialias == other.antialias;
+		}
+
+		@Override
+		public int hashCode() {
+			return ((style.hashCode() * 31 + size) * 31 + rgb) * 2 + (antialias ? 1 : 0);
+		}
+	}
+
+	private final Map<Key, Sprite> sprites = new LinkedHashMap<Key, Sprite>(16, 0.75f, true);
+
+	/** The last requested sprite, as consecutive points usually share it */
+	private Key lastKey;
+	private Sprite lastSprite;
+
+	/**
+	 * Get the sprite of a marker, rendering it if it isn't cached.
+	 *
+	 * @param device
+	 *            the device of the sprite images.
+	 * @param style
+	 *            the point style, not {@link PointStyle#NONE}.
+	 * @param size
+	 *            the point size.
+	 * @param rgb
+	 *            the color of the marker as 0xRRGGBB.
+	 * @param antialias
+	 *            true to antialias the marker.
+	 * @return the sprite, which must not be disposed by the caller.
+	 */
+	Sprite get(Device device, PointStyle style, int size, int rgb, boolean antialias) {
+		if (lastKey != null && lastKey.style == style && lastKey.size == size && lastKey.rgb == rgb
+				&& lastKey.antialias == antialias)
+			return lastSprite;
+		final Key key = new Key(style, size, rgb, antialias);
+		Sprite sprite = sprites.get(key);
+		if (sprite == null) {
+			sprite = render(device, style, size, rgb, antialias);
+			sprites.put(key, sprite);
+			if (sprites.size() > MAX_SPRITES) {
+				final Iterator<Sprite> eldest = sprites.values().iterator();
+				final Sprite evicted = eldest.next();
+				eldest.remove();
+				evicted.image.dispose();
+				if (evicted == lastSprite)
+					lastKey = null;
+			}
+		}
+		lastKey = key;
+		lastSprite = sprite;
+		return sprite;
+	}
+
+	private static Sprite render(Device device, PointStyle style, int size, int rgb, boolean antialias) {
+		// room for the outline of the shape around its size
+		final int offset = size / 2 + 1;
+		final int spriteSize = size + 3;
+		final Image mask = new Image(device, spriteSize, spriteSize);
+		final ImageData maskData;
+		try {
+			final GC gc = new GC(mask);
+			final SWTGraphics graphics = new SWTGraphics(gc);
+			try {
+				graphics.setBackgroundColor(device.getSystemColor(SWT.COLOR_BLACK));
+				graphics.fillRectangle(0, 0, spriteSize, spriteSize);
+				graphics.setAntialias(antialias ? SWT.ON : SWT.OFF);
+				graphics.setBackgroundColor(device.getSystemColor(SWT.COLOR_WHITE));
+				graphics.setForegroundColor(device.getSystemColor(SWT.COLOR_WHITE));
+				graphics.setLineWidth(1);
+				Trace.drawMarker(graphics, offset, offset, style, size);
+			} finally {
+				graphics.dispose();
+				gc.dispose();
+			}
+			maskData = mask.getImageData();
+		} finally {
+			mask.dispose();
+		}
+		final int[] pixels = new int[spriteSize * spriteSize];
+		for (int y = 0; y < spriteSize; y++)
+			for (int x = 0; x < spriteSize; x++) {
+				final int alpha = maskData.palette.getRGB(maskData.getPixel(x, y)).red;
+				pixels[y * spriteSize + x] = alpha << 24 | rgb;
+			}
+		final Image image = GraphicsUtil.createImage(device, pixels, spriteSize, spriteSize);
+		return new Sprite(image, pixels, spriteSize, offset);
+	}
+
+	/**
+	 * Dispose all sprites.
+	 */
+	void dispose() {
+		for (Sprite sprite : sprites.values())
+			sprite.image.dispose();
+		sprites.clear();
+		lastKey = null;
+		lastSprite = null;
+	}
+}
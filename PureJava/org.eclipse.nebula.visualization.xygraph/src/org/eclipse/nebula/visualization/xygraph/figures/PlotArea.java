@@ -9,24 +9,34 @@ package org.eclipse.nebula.visualization.xygraph.figures;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.draw2d.ColorConstants;
 import org.eclipse.draw2d.Figure;
 import org.eclipse.draw2d.Graphics;
+import org.eclipse.draw2d.IFigure;
 import org.eclipse.draw2d.MouseEvent;
 import org.eclipse.draw2d.MouseListener;
 import org.eclipse.draw2d.MouseMotionListener;
+import org.eclipse.draw2d.SWTGraphics;
 import org.eclipse.draw2d.geometry.Point;
 import org.eclipse.draw2d.geometry.Rectangle;
 import org.eclipse.nebula.visualization.internal.xygraph.undo.SaveStateCommand;
 import org.eclipse.nebula.visualization.internal.xygraph.undo.ZoomCommand;
+import org.eclipse.nebula.visualization.xygraph.dataprovider.IDataProvider;
 import org.eclipse.nebula.visualization.xygraph.linearscale.Range;
+import org.eclipse.nebula.visualization.xygraph.linearscale.ScaleTransform;
 import org.eclipse.nebula.visualization.xygraph.util.SWTConstants;
 import org.eclipse.nebula.visualization.xygraph.util.XYGraphMediaFactory;
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.Cursor;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.RGB;
 import org.eclipse.swt.widgets.Display;
 
@@ -49,10 +59,43 @@ public class PlotArea extends Figure {
 	 */
 	public static final int BUTTON2 = 2;
 
+	/**
+	 * Time in milliseconds after the last pan step before the plot is rendered
+	 * in full again, unless the graph still renders on the fast path. Then the
+	 * end of the interaction renders it in full instead.
+	 */
+	private static final int PAN_SETTLE_DELAY = 150;
+
+	/** The default time budget in milliseconds of a progressive render step. */
+	public static final int DEFAULT_RENDER_TIME_BUDGET = 30;
+
+	/** Samples per pixel column drawn by the coarse pass of progressive rendering */
+	private static final int COARSE_SAMPLES_PER_PIXEL = 2;
+
+	/**
+	 * Pixels of the strip-chart image rendered again left of a new strip, so
+	 * lines and points reaching into the new strip are joined.
+	 */
+	private static final int STRIP_OVERLAP = 8;
+
+	/** Relative tolerance of the scale of an axis which only slides */
+	private static final double STRIP_SCALE_TOLERANCE = 1e-6;
+
+	/**
+	 * The mapping of an axis when the strip-chart image was last updated, or
+	 * when the pan image was rendered.
+	 */
+	private static class StripAxisState {
+		private ScaleTransform transform;
+		/** a value and its exact position in the strip-chart image */
+		private double value, position;
+	}
+
 	final protected IXYGraph xyGraph;
 	final private List<Trace> traceList = new ArrayList<Trace>();
 	final private List<Grid> gridList = new ArrayList<Grid>();
 	final private List<Annotation> annotationList = new ArrayList<Annotation>();
+	final private List<AnnotationLayer> annotationLayerList = new ArrayList<AnnotationLayer>();
 
 	final private Cursor grabbing;
 
@@ -67,6 +110,72 @@ public class PlotArea extends Figure {
 
 	private Color revertBackColor;
 
+	private boolean blitPanningEnabled = true;
+
+	/** the rendered plot while panning, shifted along with the pan steps */
+	private Image panImage;
+
+	/** the pan offset the pan image has been rendered for */
+	private int panImageDx, panImageDy;
+
+	/** the axes when the pan image was rendered, at a pan offset of 0 */
+	final private Map<Axis, StripAxisState> panAxes = new IdentityHashMap<Axis, StripAxisState>();
+
+	/** true while only the strips exposed by panning are rendered */
+	private boolean renderingStrips;
+
+	private boolean progressiveRendering;
+
+	private int renderTimeBudget = DEFAULT_RENDER_TIME_BUDGET;
+
+	/** background, grids and the refined traces of progressive rendering */
+	private Image progressiveImage;
+
+	final private Set<Trace> refinedTraces = Collections.newSetFromMap(new IdentityHashMap<Trace, Boolean>());
+
+	/**
+	 * true if axes, data or the appearance changed since the progressive image
+	 * was started
+	 */
+	private boolean progressiveImageInvalid;
+
+	private boolean refinementScheduled;
+
+	final private Runnable refiner = new Runnable() {
+		@Override
+		public void run() {
+			refineTraces();
+		}
+	};
+
+	private boolean stripChartMode;
+
+	/** the traces and grids in strip-chart mode, shifted as the x axes slide */
+	private Image stripImage;
+
+	final private Map<Axis, StripAxisState> stripAxes = new IdentityHashMap<Axis, StripAxisState>();
+
+	/** true if the strip-chart image must be rendered again in full */
+	private boolean stripImageInvalid;
+
+	/** true if trace data changed since the last paint in strip-chart mode */
+	private boolean stripDataChanged;
+
+	/** the x value of the newest sample of each trace in the strip-chart image */
+	final private Map<Trace, Double> stripNewestX = new IdentityHashMap<Trace, Double>();
+
+	final private Runnable panSettler = new Runnable() {
+		@Override
+		public void run() {
+			// a render now would take the fast path and be repeated when the
+			// interaction ends, which disposes the pan image itself
+			if (panImage == null || isInteracting())
+				return;
+			disposePanImage();
+			repaint();
+		}
+	};
+
 	public PlotArea(final IXYGraph xyGraph) {
 		this((XYGraph) xyGraph);
 	}
@@ -99,6 +208,7 @@ public class PlotArea extends Figure {
 				255 - backRGB.blue);
 		Color oldColor = getBackgroundColor();
 		super.setBackgroundColor(bg);
+		invalidateRenderedImages();
 		firePropertyChange(BACKGROUND_COLOR, oldColor, bg);
 
 	}
@@ -112,6 +222,7 @@ public class PlotArea extends Figure {
 	public void addTrace(final Trace trace) {
 		traceList.add(trace);
 		add(trace);
+		invalidateRenderedImages();
 		revalidate();
 	}
 
@@ -125,6 +236,7 @@ public class PlotArea extends Figure {
 		boolean result = traceList.remove(trace);
 		if (result) {
 			remove(trace);
+			invalidateRenderedImages();
 			revalidate();
 		}
 		return result;
@@ -139,6 +251,7 @@ public class PlotArea extends Figure {
 	public void addGrid(final Grid grid) {
 		gridList.add(grid);
 		add(grid);
+		invalidateRenderedImages();
 		revalidate();
 	}
 
@@ -153,6 +266,7 @@ public class PlotArea extends Figure {
 		final boolean result = gridList.remove(grid);
 		if (result) {
 			remove(grid);
+			invalidateRenderedImages();
 			revalidate();
 		}
 		return result;
@@ -191,6 +305,35 @@ public class PlotArea extends Figure {
 		return result;
 	}
 
+	/**
+	 * Add an annotation layer to the plot area.
+	 * 
+	 * @param annotationLayer
+	 *            the annotation layer to be added.
+	 */
+	public void addAnnotationLayer(final AnnotationLayer annotationLayer) {
+		annotationLayerList.add(annotationLayer);
+		add(annotationLayer);
+		revalidate();
+	}
+
+	/**
+	 * Remove an annotation layer from the plot area.
+	 * 
+	 * @param annotationLayer
+	 *            the annotation layer to be removed.
+	 * @return true if this plot area contained the specified annotation layer
+	 */
+	public boolean removeAnnotationLayer(final AnnotationLayer annotationLayer) {
+		final boolean result = annotationLayerList.remove(annotationLayer);
+		if (result) {
+			annotationLayer.setTrace(null);
+			remove(annotationLayer);
+			revalidate();
+		}
+		return result;
+	}
+
 	@Override
 	protected void layout() {
 		final Rectangle clientArea = getClientArea();
@@ -209,12 +352,23 @@ public class PlotArea extends Figure {
 			if (annotation != null && annotation.isVisible())
 				annotation.setBounds(clientArea);// .getCopy().shrink(1, 1));
 		}
+		for (AnnotationLayer annotationLayer : annotationLayerList) {
+			if (annotationLayer.isVisible())
+				annotationLayer.setBounds(clientArea);
+		}
 		super.layout();
 	}
 
 	@Override
 	protected void paintClientArea(final Graphics graphics) {
-		super.paintClientArea(graphics);
+		if (isBlitPanning() && graphics.getAbsoluteScale() == 1)
+			paintPanImage(graphics);
+		else if (stripChartMode && graphics.getAbsoluteScale() == 1)
+			paintStripChart(graphics);
+		else if (progressiveRendering && graphics.getAbsoluteScale() == 1)
+			paintProgressive(graphics);
+		else
+			super.paintClientArea(graphics);
 		if (showBorder) {
 			graphics.setLineWidth(2);
 			graphics.drawLine(bounds.x, bounds.y, bounds.x + bounds.width, bounds.y);
@@ -245,6 +399,579 @@ public class PlotArea extends Figure {
 		}
 	}
 
+	private boolean isBlitPanning() {
+		return blitPanningEnabled && armed && zoomType == ZoomType.PANNING && start != null;
+	}
+
+	/**
+	 * Paint the plot from the pan image. The image is shifted by the pan step
+	 * since the last paint, so only the newly exposed strips are rendered.
+	 * When an axis changed in another way than by the pan, for example a y
+	 * axis which is auto scaled to the visible samples, the image is rendered
+	 * again in full.
+	 */
+	private void paintPanImage(final Graphics graphics) {
+		final Rectangle clientArea = getClientArea();
+		final int width = clientArea.width;
+		final int height = clientArea.height;
+		if (width <= 0 || height <= 0)
+			return;
+		final int dx = end == null ? 0 : end.x - start.x;
+		final int dy = end == null ? 0 : end.y - start.y;
+		if (panImage != null && (panImage.getBounds().width != width || panImage.getBounds().height != height
+				|| !isPanImageAligned(dx, dy)))
+			disposePanImage();
+		if (panImage == null) {
+			panImage = new Image(Display.getCurrent(), width, height);
+			renderImage(panImage, new Rectangle(0, 0, width, height), getChildren(), true, false);
+			panAxes.clear();
+			for (Axis axis : xyGraph.getAxisList()) {
+				final StripAxisState state = new StripAxisState();
+				state.transform = axis.getTransform(false);
+				state.value = axis.getRange().getLower();
+				state.position = state.transform.getValuePrecisePosition(state.value)
+						- (axis.isHorizontal() ? dx : dy);
+				panAxes.put(axis, state);
+			}
+		} else if (dx != panImageDx || dy != panImageDy) {
+			final int stepX = dx - panImageDx;
+			final int stepY = dy - panImageDy;
+			final GC gc = new GC(panImage);
+			try {
+				gc.copyArea(0, 0, width, height, stepX, stepY);
+			} finally {
+				gc.dispose();
+			}
+			if (stepX > 0)
+				renderImage(panImage, new Rectangle(0, 0, Math.min(stepX, width), height),
+						getChildren(), true, true);
+			else if (stepX < 0)
+				renderImage(panImage, new Rectangle(Math.max(width + stepX, 0), 0, Math.min(-stepX, width), height),
+						getChildren(), true, true);
+			if (stepY > 0)
+				renderImage(panImage, new Rectangle(0, 0, width, Math.min(stepY, height)),
+						getChildren(), true, true);
+			else if (stepY < 0)
+				renderImage(panImage, new Rectangle(0, Math.max(height + stepY, 0), width, Math.min(-stepY, height)),
+						getChildren(), true, true);
+		}
+		panImageDx = dx;
+		panImageDy = dy;
+		graphics.drawImage(panImage, clientArea.x, clientArea.y);
+	}
+
+	/**
+	 * Render child figures into an area of an image of the client area.
+	 * 
+	 * @param image
+	 *            the image.
+	 * @param area
+	 *            the area in image coordinates.
+	 * @param figures
+	 *            the child figures to be rendered, in painting order.
+	 * @param fillBackground
+	 *            true to fill the area with the background color first.
+	 * @param strips
+	 *            true if only a strip exposed by panning is rendered.
+	 */
+	private void renderImage(final Image image, final Rectangle area, final List<?> figures,
+			final boolean fillBackground, final boolean strips) {
+		final Rectangle clientArea = getClientArea();
+		final GC gc = new GC(image);
+		final SWTGraphics graphics = new SWTGraphics(gc);
+		try {
+			graphics.clipRect(area);
+			if (fillBackground) {
+				graphics.setBackgroundColor(getBackgroundColor());
+				graphics.fillRectangle(area);
+			}
+			graphics.translate(-clientArea.x, -clientArea.y);
+			graphics.setForegroundColor(getForegroundColor());
+			graphics.setFont(getFont());
+			renderingStrips = strips;
+			paintFigures(graphics, figures);
+		} finally {
+			renderingStrips = false;
+			graphics.dispose();
+			gc.dispose();
+		}
+	}
+
+	/**
+	 * Paint child figures the same way as {@link #paintChildren(Graphics)}.
+	 */
+	private void paintFigures(final Graphics graphics, final List<?> figures) {
+		final Rectangle clip = graphics.getClip(new Rectangle());
+		graphics.pushState();
+		try {
+			for (Object child : figures) {
+				final IFigure figure = (IFigure) child;
+				if (figure.isVisible() && figure.intersects(clip)) {
+					graphics.clipRect(figure.getBounds());
+					figure.paint(graphics);
+					graphics.restoreState();
+				}
+			}
+		} finally {
+			graphics.popState();
+		}
+	}
+
+	/**
+	 * Paint the progressive image with the traces which have not been refined
+	 * yet drawn coarse on top, followed by the annotations. The progressive
+	 * rendering starts again once the image was invalidated, so other paints,
+	 * for example of an exposed window or a moved annotation, keep the traces
+	 * refined so far.
+	 */
+	private void paintProgressive(final Graphics graphics) {
+		final Rectangle clientArea = getClientArea();
+		final int width = clientArea.width;
+		final int height = clientArea.height;
+		if (width <= 0 || height <= 0)
+			return;
+		if (progressiveImage != null && (progressiveImage.getBounds().width != width
+				|| progressiveImage.getBounds().height != height))
+			disposeProgressiveImage();
+		if (progressiveImage == null || progressiveImageInvalid) {
+			if (progressiveImage == null)
+				progressiveImage = new Image(Display.getCurrent(), width, height);
+			refinedTraces.clear();
+			progressiveImageInvalid = false;
+			renderImage(progressiveImage, new Rectangle(0, 0, width, height), gridList, true, false);
+			if (!refinementScheduled) {
+				refinementScheduled = true;
+				Display.getCurrent().asyncExec(refiner);
+			}
+		}
+		graphics.drawImage(progressiveImage, clientArea.x, clientArea.y);
+
+		final List<IFigure> coarseFigures = new ArrayList<IFigure>();
+		for (Object child : getChildren()) {
+			if (child instanceof Grid || refinedTraces.contains(child))
+				continue;
+			coarseFigures.add((IFigure) child);
+		}
+		for (Trace trace : traceList)
+			trace.setCoarseSamplesPerPixel(COARSE_SAMPLES_PER_PIXEL);
+		try {
+			paintFigures(graphics, coarseFigures);
+		} finally {
+			for (Trace trace : traceList)
+				trace.setCoarseSamplesPerPixel(0);
+		}
+	}
+
+	/**
+	 * Render the next traces in full into the progressive image, for at least
+	 * one trace and as long as the time budget allows.
+	 */
+	private void refineTraces() {
+		refinementScheduled = false;
+		if (!progressiveRendering || progressiveImage == null || progressiveImageInvalid)
+			return;
+		final long deadline = System.currentTimeMillis() + renderTimeBudget;
+		final Rectangle area = new Rectangle(0, 0, progressiveImage.getBounds().width,
+				progressiveImage.getBounds().height);
+		boolean refined = false;
+		boolean done = true;
+		for (Object child : getChildren()) {
+			if (!(child instanceof Trace) || refinedTraces.contains(child) || !((Trace) child).isVisible())
+				continue;
+			if (refined && System.currentTimeMillis() >= deadline) {
+				done = false;
+				break;
+			}
+			renderImage(progressiveImage, area, Collections.singletonList(child), false, false);
+			refinedTraces.add((Trace) child);
+			refined = true;
+		}
+		if (!done) {
+			refinementScheduled = true;
+			Display.getCurrent().asyncExec(refiner);
+		}
+		if (refined)
+			repaint();
+	}
+
+	/**
+	 * Called when the interaction with the graph ended, so the images
+	 * rendered on the fast path are not shown any more.
+	 */
+	void interactionEnded() {
+		disposePanImage();
+		invalidateRenderedImages();
+	}
+
+	/**
+	 * Paint the strip-chart image, followed by the annotations. When the x
+	 * axes only slid, the image is shifted by the slide and only the new
+	 * strip is rendered, together with the samples appended since the last
+	 * paint. Any other change of the axes renders it in full.
+	 */
+	private void paintStripChart(final Graphics graphics) {
+		final Rectangle clientArea = getClientArea();
+		final int width = clientArea.width;
+		final int height = clientArea.height;
+		if (width <= 0 || height <= 0)
+			return;
+		if (stripImage != null
+				&& (stripImage.getBounds().width != width || stripImage.getBounds().height != height))
+			disposeStripImage();
+		boolean full = stripImage == null || stripImageInvalid;
+		int shift = 0;
+		// the position from which the appended samples are rendered
+		double dataStart = width;
+		if (!full) {
+			final Integer slide = getStripShift();
+			full = slide == null || Math.abs(slide) >= width;
+			if (!full) {
+				shift = slide;
+				if (stripDataChanged) {
+					dataStart = getStripDataStart();
+					full = Double.isNaN(dataStart);
+				}
+			}
+		}
+		stripDataChanged = false;
+		if (full) {
+			if (stripImage == null)
+				stripImage = new Image(Display.getCurrent(), width, height);
+			stripImageInvalid = false;
+			renderImage(stripImage, new Rectangle(0, 0, width, height), getStripFigures(), true, false);
+			stripAxes.clear();
+			for (Axis axis : xyGraph.getAxisList()) {
+				final StripAxisState state = new StripAxisState();
+				state.transform = axis.getTransform(false);
+				state.value = axis.getRange().getLower();
+				state.position = state.transform.getValuePrecisePosition(state.value);
+				stripAxes.put(axis, state);
+			}
+			updateStripNewestX();
+		} else if (shift != 0 || dataStart < width) {
+			Rectangle area = null;
+			if (shift != 0) {
+				final GC gc = new GC(stripImage);
+				try {
+					gc.copyArea(0, 0, width, height, shift, 0);
+				} finally {
+					gc.dispose();
+				}
+				final int stripWidth = Math.min(Math.abs(shift) + STRIP_OVERLAP, width);
+				area = new Rectangle(shift < 0 ? width - stripWidth : 0, 0, stripWidth, height);
+				for (Axis axis : xyGraph.getXAxisList()) {
+					final StripAxisState state = stripAxes.get(axis);
+					state.transform = axis.getTransform(false);
+					state.position += shift;
+				}
+			}
+			if (dataStart < width) {
+				final int left = Math.max(0, (int) Math.floor(dataStart) - STRIP_OVERLAP);
+				final Rectangle dataArea = new Rectangle(left, 0, width - left, height);
+				area = area == null ? dataArea : area.union(dataArea);
+			}
+			renderImage(stripImage, area, getStripFigures(), true, true);
+			updateStripNewestX();
+		}
+		graphics.drawImage(stripImage, clientArea.x, clientArea.y);
+
+		final List<IFigure> overlay = new ArrayList<IFigure>();
+		for (Object child : getChildren())
+			if (!(child instanceof Trace) && !(child instanceof Grid))
+				overlay.add((IFigure) child);
+		paintFigures(graphics, overlay);
+	}
+
+	/**
+	 * @return the traces and grids, which are rendered into the strip-chart
+	 *         image.
+	 */
+	private List<IFigure> getStripFigures() {
+		final List<IFigure> figures = new ArrayList<IFigure>();
+		for (Object child : getChildren())
+			if (child instanceof Trace || child instanceof Grid)
+				figures.add((IFigure) child);
+		return figures;
+	}
+
+	/**
+	 * @return the number of pixels all x axes slid since the strip-chart image
+	 *         was updated, negative to the left, or null if the axes changed in
+	 *         another way.
+	 */
+	private Integer getStripShift() {
+		for (Axis axis : xyGraph.getYAxisList()) {
+			final StripAxisState state = stripAxes.get(axis);
+			if (state == null || state.transform != axis.getTransform(false))
+				return null;
+		}
+		Integer shift = null;
+		for (Axis axis : xyGraph.getXAxisList()) {
+			final StripAxisState state = stripAxes.get(axis);
+			if (state == null)
+				return null;
+			final ScaleTransform transform = axis.getTransform(false);
+			int axisShift = 0;
+			if (transform != state.transform) {
+				if (transform.isLogScale() != state.transform.isLogScale()
+						|| transform.isHorizontal() != state.transform.isHorizontal()
+						|| Math.abs(transform.getFactor() - state.transform.getFactor()) > STRIP_SCALE_TOLERANCE
+								* Math.abs(state.transform.getFactor()))
+					return null;
+				axisShift = (int) Math.round(transform.getValuePrecisePosition(state.value) - state.position);
+			}
+			if (shift != null && shift != axisShift)
+				return null;
+			shift = axisShift;
+		}
+		return shift == null ? 0 : shift;
+	}
+
+	/**
+	 * @return the leftmost position in the strip-chart image where a trace
+	 *         has samples appended since the image was updated, the width of
+	 *         the image if there are none, or NaN if the data changed in
+	 *         another way.
+	 */
+	private double getStripDataStart() {
+		final Rectangle clientArea = getClientArea();
+		double start = clientArea.width;
+		for (Trace trace : traceList) {
+			if (!trace.isVisible())
+				continue;
+			final IDataProvider data = trace.getDataProvider();
+			final Double previousX = stripNewestX.get(trace);
+			final int size = data == null ? 0 : data.getSize();
+			if (size == 0) {
+				if (previousX != null)
+					return Double.NaN;
+				continue;
+			}
+			// x error bars reach left of the newest sample
+			if (previousX == null || !data.isChronological()
+					|| (trace.isErrorBarEnabled() && trace.getXErrorBarType() != Trace.ErrorBarType.NONE))
+				return Double.NaN;
+			final double newestX = data.getSample(size - 1).getXValue();
+			if (newestX < previousX)
+				return Double.NaN;
+			if (newestX == previousX)
+				continue;
+			// the marker of the previous newest sample is drawn again as well
+			final double position = trace.getXAxis().getValuePrecisePosition(previousX, false) - clientArea.x
+					- Math.max(trace.getPointSize(), trace.getLineWidth());
+			start = Math.min(start, position);
+		}
+		return start;
+	}
+
+	/**
+	 * Remember the newest samples of the traces in the strip-chart image.
+	 */
+	private void updateStripNewestX() {
+		stripNewestX.clear();
+		for (Trace trace : traceList) {
+			final IDataProvider data = trace.getDataProvider();
+			if (trace.isVisible() && data != null && data.getSize() > 0)
+				stripNewestX.put(trace, data.getSample(data.getSize() - 1).getXValue());
+		}
+	}
+
+	private void disposeStripImage() {
+		if (stripImage != null) {
+			stripImage.dispose();
+			stripImage = null;
+		}
+		stripAxes.clear();
+		stripNewestX.clear();
+	}
+
+	/**
+	 * Set strip-chart mode, for chronological live traces whose x axis slides
+	 * with time while new samples are added at its upper end. The traces and
+	 * grids are kept in an image. When the x axes slid since the last paint,
+	 * the image is shifted by the slide and only the new strip is rendered.
+	 * Samples appended without a slide are rendered from the previous newest
+	 * sample on.
+	 * Changes of the y axes, for example by auto scale, and any other change
+	 * of the x axes render the image in full.
+	 * 
+	 * @param stripChartMode
+	 *            true to enable strip-chart mode.
+	 */
+	public void setStripChartMode(final boolean stripChartMode) {
+		this.stripChartMode = stripChartMode;
+		if (!stripChartMode)
+			disposeStripImage();
+		repaint();
+	}
+
+	/**
+	 * @return true if strip-chart mode is enabled.
+	 */
+	public boolean isStripChartMode() {
+		return stripChartMode;
+	}
+
+	/**
+	 * Called by a trace when its data changed.
+	 */
+	void traceDataChanged() {
+		stripDataChanged = true;
+		invalidateProgressiveImage();
+	}
+
+	/**
+	 * Render the traces again in full on the next paint, instead of reusing
+	 * the images of progressive rendering or strip-chart mode. This is needed
+	 * after a change of the appearance of the plot, which is not done through
+	 * the traces, grids or this plot area.
+	 */
+	public void invalidateRenderedImages() {
+		stripImageInvalid = true;
+		invalidateProgressiveImage();
+	}
+
+	/**
+	 * Notify the graph about an interaction, so it renders on the fast path.
+	 */
+	private void notifyInteraction() {
+		if (xyGraph instanceof XYGraph)
+			((XYGraph) xyGraph).notifyInteraction();
+	}
+
+	/**
+	 * @return true while the graph renders on the fast path.
+	 */
+	private boolean isInteracting() {
+		return xyGraph instanceof XYGraph && ((XYGraph) xyGraph).isInteracting();
+	}
+
+	/**
+	 * Abandon the progressive rendering in progress, because axes or data
+	 * have changed. The next paint starts it again.
+	 */
+	void invalidateProgressiveImage() {
+		progressiveImageInvalid = true;
+	}
+
+	private void disposeProgressiveImage() {
+		if (progressiveImage != null) {
+			progressiveImage.dispose();
+			progressiveImage = null;
+		}
+		refinedTraces.clear();
+	}
+
+	/**
+	 * Set progressive rendering. A paint then only draws a coarse, decimated
+	 * preview of the traces. The traces are rendered in full one by one in
+	 * later display ticks, each tick within the render time budget. The
+	 * refinement is abandoned and started again when axes or data change.
+	 * 
+	 * @param progressiveRendering
+	 *            true to enable progressive rendering.
+	 */
+	public void setProgressiveRendering(final boolean progressiveRendering) {
+		this.progressiveRendering = progressiveRendering;
+		if (!progressiveRendering)
+			disposeProgressiveImage();
+		repaint();
+	}
+
+	/**
+	 * @return true if progressive rendering is enabled.
+	 */
+	public boolean isProgressiveRendering() {
+		return progressiveRendering;
+	}
+
+	/**
+	 * Set the time which a refinement step of progressive rendering may take.
+	 * At least one trace is refined in each step.
+	 * 
+	 * @param renderTimeBudget
+	 *            the time budget in milliseconds.
+	 */
+	public void setRenderTimeBudget(final int renderTimeBudget) {
+		if (renderTimeBudget < 0)
+			throw new IllegalArgumentException("renderTimeBudget must not be negative"); //$NON-NLS-1$
+		this.renderTimeBudget = renderTimeBudget;
+	}
+
+	/**
+	 * @return the time budget in milliseconds of a refinement step.
+	 */
+	public int getRenderTimeBudget() {
+		return renderTimeBudget;
+	}
+
+	/**
+	 * @return true if all axes only moved by the pan offset since the pan
+	 *         image was rendered, so the shifted image still matches them.
+	 */
+	private boolean isPanImageAligned(final int dx, final int dy) {
+		for (Axis axis : xyGraph.getAxisList()) {
+			final StripAxisState state = panAxes.get(axis);
+			if (state == null)
+				return false;
+			final ScaleTransform transform = axis.getTransform(false);
+			if (transform.isLogScale() != state.transform.isLogScale()
+					|| Math.abs(transform.getFactor() - state.transform.getFactor()) > STRIP_SCALE_TOLERANCE
+							* Math.abs(state.transform.getFactor()))
+				return false;
+			final double expected = state.position + (axis.isHorizontal() ? dx : dy);
+			if (Math.abs(transform.getValuePrecisePosition(state.value) - expected) > 1)
+				return false;
+		}
+		return true;
+	}
+
+	private void disposePanImage() {
+		if (panImage != null) {
+			panImage.dispose();
+			panImage = null;
+		}
+		panAxes.clear();
+	}
+
+	/**
+	 * @return true while only the strips exposed by panning are rendered.
+	 *         Traces then only need to paint the samples in the clip area.
+	 */
+	boolean isRenderingStrips() {
+		return renderingStrips;
+	}
+
+	/**
+	 * Set if panning with the mouse shifts the last rendered plot instead of
+	 * rendering it again on every mouse move. Only the strips exposed by a pan
+	 * step are rendered, and the whole plot is rendered again when the mouse
+	 * rests or is released.
+	 * 
+	 * @param blitPanningEnabled
+	 *            true to enable blit panning, which is the default.
+	 */
+	public void setBlitPanningEnabled(final boolean blitPanningEnabled) {
+		this.blitPanningEnabled = blitPanningEnabled;
+		if (!blitPanningEnabled)
+			disposePanImage();
+	}
+
+	/**
+	 * @return true if blit panning is enabled.
+	 */
+	public boolean isBlitPanningEnabled() {
+		return blitPanningEnabled;
+	}
+
+	@Override
+	public void removeNotify() {
+		disposePanImage();
+		disposeProgressiveImage();
+		disposeStripImage();
+		super.removeNotify();
+	}
+
 	/**
 	 * @param showBorder
 	 *            the showBorder to set
@@ -312,6 +1039,13 @@ public class PlotArea extends Figure {
 		return annotationList;
 	}
 
+	/**
+	 * @return the annotationLayerList
+	 */
+	public List<AnnotationLayer> getAnnotationLayerList() {
+		return annotationLayerList;
+	}
+
 	/**
 	 * Alternative listener which will be notified in addition to processing the
 	 * internal tools.
@@ -404,6 +1138,7 @@ public class PlotArea extends Figure {
 					public void run() {
 						if (!armed)
 							return;
+						notifyInteraction();
 						performInOutZoom();
 						Display.getCurrent().timerExec(Axis.ZOOM_SPEED, this);
 					}
@@ -429,6 +1164,7 @@ public class PlotArea extends Figure {
 
 			if (!armed)
 				return;
+			notifyInteraction();
 			if (dynamicZoomMode)
 				zoomType = zoomType.DYNAMIC_ZOOM;
 			switch (zoomType) {
@@ -460,6 +1196,9 @@ public class PlotArea extends Figure {
 			case PANNING:
 				end = me.getLocation();
 				pan();
+				// render in full once the mouse rests
+				if (blitPanningEnabled)
+					Display.getCurrent().timerExec(PAN_SETTLE_DELAY, panSettler);
 				break;
 			default:
 				break;
@@ -489,6 +1228,10 @@ public class PlotArea extends Figure {
 			if (!armed)
 				return;
 			armed = false;
+			if (panImage != null) {
+				Display.getCurrent().timerExec(-1, panSettler);
+				disposePanImage();
+			}
 			if (zoomType == ZoomType.PANNING)
 				setCursor(zoomType.getCursor());
 			if (end == null || start == null)
@@ -19,6 +19,8 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import org.eclipse.draw2d.Figure;
 import org.eclipse.draw2d.Graphics;
@@ -30,14 +32,22 @@ import org.eclipse.nebula.visualization.xygraph.dataprovider.IDataProvider;
 import org.eclipse.nebula.visualization.xygraph.dataprovider.IDataProviderListener;
 import org.eclipse.nebula.visualization.xygraph.dataprovider.IMetaData;
 import org.eclipse.nebula.visualization.xygraph.dataprovider.ISample;
+import org.eclipse.nebula.visualization.xygraph.dataprovider.ISpatialDataProvider;
+import org.eclipse.nebula.visualization.xygraph.dataprovider.IStatisticsDataProvider;
 import org.eclipse.nebula.visualization.xygraph.dataprovider.Sample;
+import org.eclipse.nebula.visualization.xygraph.dataprovider.SampleStatistics;
 import org.eclipse.nebula.visualization.xygraph.linearscale.AbstractScale.LabelSide;
 import org.eclipse.nebula.visualization.xygraph.linearscale.Range;
+import org.eclipse.nebula.visualization.xygraph.linearscale.ScaleTransform;
 import org.eclipse.nebula.visualization.xygraph.styleprovider.IPointStyleProvider;
+import org.eclipse.nebula.visualization.xygraph.util.DensityBuffer;
+import org.eclipse.nebula.visualization.xygraph.util.GraphicsUtil;
 import org.eclipse.nebula.visualization.xygraph.util.Preferences;
 import org.eclipse.nebula.visualization.xygraph.util.SWTConstants;
+import org.eclipse.nebula.visualization.xygraph.util.SoftwareRasterizer;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.RGB;
 import org.eclipse.swt.widgets.Display;
 
@@ -50,9 +60,32 @@ import org.eclipse.swt.widgets.Display;
  * @author Takashi Nakamoto @ Cosylab (performance improvement)
  */
 public class Trace extends Figure implements IDataProviderListener, IAxisListener {
+	private static final Logger LOGGER = Logger.getLogger(Trace.class.getName());
+
 	/** Size of 'markers' used on X axis to indicate non-plottable samples */
 	final protected static int MARKER_SIZE = 6;
 
+	/** Samples per pixel column drawn on the fast path during interaction */
+	private static final int FAST_SAMPLES_PER_PIXEL = 1;
+
+	/** Number of samples mapped at once by the image based renderers */
+	private static final int SAMPLE_CHUNK_SIZE = 1024;
+
+	/**
+	 * Limit of the raster coordinates of the software renderer, so far out of
+	 * range samples don't overflow
+	 */
+	private static final double SOFTWARE_POSITION_LIMIT = 1e8;
+
+	/**
+	 * Default visible points per pixel above which point traces are binned,
+	 * so they are never binned unless enabled
+	 */
+	public static final double DEFAULT_BINNED_RENDERING_DENSITY = Double.POSITIVE_INFINITY;
+
+	/** Number of entries of the color ramp of binned point traces */
+	private static final int BINNED_RAMP_SIZE = 256;
+
 	/**
 	 * Use advanced graphics? Might not make a real performance difference, but
 	 * since this it called a lot, keep it in variable
@@ -209,6 +242,8 @@ public class Trace extends Figure implements IDataProviderListener, IAxisListene
 
 	public void setPointStyleProvider(IPointStyleProvider pointStyleProvider) {
 		fPointStyleProvider = pointStyleProvider;
+		pointStyleProviderFailed = false;
+		invalidateRendering();
 	}
 
 	public IPointStyleProvider getPointStyleProvider() {
@@ -262,6 +297,38 @@ public class Trace extends Figure implements IDataProviderListener, IAxisListene
 
 	private IPointStyleProvider fPointStyleProvider;
 
+	/** true if the point style provider failed, so it is logged only once */
+	private boolean pointStyleProviderFailed;
+
+	/** The style of a marker, from the point style provider or the trace */
+	private static class MarkerStyle {
+		private Color color;
+		private PointStyle pointStyle;
+		private int pointSize;
+	}
+
+	private final MarkerStyle markerStyle = new MarkerStyle();
+
+	/**
+	 * Maximum number of samples per pixel column drawn by a coarse paint, 0 to
+	 * draw all samples.
+	 */
+	private int coarseSamplesPerPixel;
+
+	/** Draw the trace with the {@link SoftwareRasterizer} */
+	private boolean softwareRendering;
+
+	/** Points per pixel above which a point trace is binned */
+	private double binnedRenderingDensity = DEFAULT_BINNED_RENDERING_DENSITY;
+
+	/** Draw the markers with the sprites */
+	private boolean spriteMarkers = true;
+
+	private final MarkerSprites markerSprites = new MarkerSprites();
+
+	/** Colors of the bin counts, null for a ramp of the trace color */
+	private RGB[] binnedColorMap;
+
 	public Trace(String name) {
 		this.setName(name);
 
@@ -390,85 +457,133 @@ public class Trace extends Figure implements IDataProviderListener, IAxisListene
 	}
 
 	private void drawPoint(Graphics graphics, Point pos, ISample sample) {
-		Color renderColor = traceColor;
-		PointStyle renderPointStyle = pointStyle;
-		int renderPointSize = pointSize;
-		try {
-			if ((fPointStyleProvider != null) && (sample != null)) {
-				renderColor = fPointStyleProvider.getPointColor(sample, this);
-				renderPointStyle = fPointStyleProvider.getPointStyle(sample, this);
-				renderPointSize = fPointStyleProvider.getPointSize(sample, this);
-			}
-		} catch (Exception ex) {
-			// Draw anyway and log error
-			System.err.println(ex.getMessage());
-			renderColor = traceColor;
-			renderPointStyle = pointStyle;
-			renderPointSize = pointSize;
-		}
 		// Shortcut when no point requested
 		if (pointStyle == PointStyle.NONE)
 			return;
+		if (spriteMarkers && graphics.getAbsoluteScale() == 1) {
+			final MarkerSprites.Sprite sprite = getMarkerSprite(sample, graphics.getAntialias() == SWT.ON);
+			if (sprite != null)
+				graphics.drawImage(sprite.image, pos.x - sprite.offset, pos.y - sprite.offset);
+			return;
+		}
+		final MarkerStyle style = resolveMarkerStyle(sample);
 		graphics.pushState();
-		graphics.setBackgroundColor(renderColor);
-		graphics.setForegroundColor(renderColor); // Otherwise redraw does not
+		graphics.setBackgroundColor(style.color);
+		graphics.setForegroundColor(style.color); // Otherwise redraw does not
 													// affect lines
 		graphics.setLineWidth(1);
 		graphics.setLineStyle(SWTConstants.LINE_SOLID);
-		switch (renderPointStyle) {
+		drawMarker(graphics, pos.x, pos.y, style.pointStyle, style.pointSize);
+		graphics.popState();
+	}
+
+	/**
+	 * Get the sprite of the marker of a sample, with the style of the point
+	 * style provider if there is one.
+	 * 
+	 * @param sample
+	 *            the sample, null for the marker of the trace.
+	 * @param antialias
+	 *            true for an antialiased marker.
+	 * @return the sprite, or null if the sample has no marker.
+	 */
+	private MarkerSprites.Sprite getMarkerSprite(ISample sample, boolean antialias) {
+		final MarkerStyle style = resolveMarkerStyle(sample);
+		if (style.pointStyle == PointStyle.NONE)
+			return null;
+		return markerSprites.get(Display.getCurrent(), style.pointStyle, style.pointSize,
+				style.color.getRed() << 16 | style.color.getGreen() << 8 | style.color.getBlue(), antialias);
+	}
+
+	/**
+	 * Get the marker style of a sample from the point style provider, or the
+	 * style of the trace if there is no provider or it fails. A failure is
+	 * logged once per provider.
+	 * 
+	 * @param sample
+	 *            the sample, null for the marker of the trace.
+	 * @return the style, which is reused by the next call.
+	 */
+	private MarkerStyle resolveMarkerStyle(ISample sample) {
+		markerStyle.color = traceColor;
+		markerStyle.pointStyle = pointStyle;
+		markerStyle.pointSize = pointSize;
+		if (fPointStyleProvider == null || sample == null)
+			return markerStyle;
+		try {
+			final Color color = fPointStyleProvider.getPointColor(sample, this);
+			final PointStyle style = fPointStyleProvider.getPointStyle(sample, this);
+			final int size = fPointStyleProvider.getPointSize(sample, this);
+			markerStyle.color = color;
+			markerStyle.pointStyle = style;
+			markerStyle.pointSize = size;
+		} catch (Exception ex) {
+			// Draw anyway and log error
+			if (!pointStyleProviderFailed) {
+				pointStyleProviderFailed = true;
+				LOGGER.log(Level.WARNING, "The point style provider of trace " + name //$NON-NLS-1$
+						+ " failed, its points are drawn in the style of the trace", ex); //$NON-NLS-1$
+			}
+		}
+		return markerStyle;
+	}
+
+	/**
+	 * Draw a marker in the current colors of the graphics.
+	 * 
+	 * @param graphics
+	 *            the graphics.
+	 * @param x
+	 *            the x position of the marker.
+	 * @param y
+	 *            the y position of the marker.
+	 * @param style
+	 *            the point style.
+	 * @param size
+	 *            the point size.
+	 */
+	static void drawMarker(Graphics graphics, int x, int y, PointStyle style, int size) {
+		final int half = size / 2;
+		switch (style) {
 		case POINT:
-			graphics.fillOval(new Rectangle(pos.x - renderPointSize / 2, pos.y - renderPointSize / 2, renderPointSize,
-					renderPointSize));
+		case FILLED_CIRCLE:
+			graphics.fillOval(x - half, y - half, size, size);
 			break;
 		case CIRCLE:
-			graphics.drawOval(new Rectangle(pos.x - renderPointSize / 2, pos.y - renderPointSize / 2, renderPointSize,
-					renderPointSize));
-			break;
-		case FILLED_CIRCLE:
-			graphics.fillOval(new Rectangle(pos.x - pointSize / 2, pos.y - pointSize / 2, pointSize, pointSize));
+			graphics.drawOval(x - half, y - half, size, size);
 			break;
 		case TRIANGLE:
-			graphics.drawPolygon(new int[] { pos.x - renderPointSize / 2, pos.y + renderPointSize / 2, pos.x,
-					pos.y - renderPointSize / 2, pos.x + renderPointSize / 2, pos.y + renderPointSize / 2 });
+			graphics.drawPolygon(new int[] { x - half, y + half, x, y - half, x + half, y + half });
 			break;
 		case FILLED_TRIANGLE:
-			graphics.fillPolygon(new int[] { pos.x - renderPointSize / 2, pos.y + renderPointSize / 2, pos.x,
-					pos.y - renderPointSize / 2, pos.x + renderPointSize / 2, pos.y + renderPointSize / 2 });
+			graphics.fillPolygon(new int[] { x - half, y + half, x, y - half, x + half, y + half });
 			break;
 		case SQUARE:
-			graphics.drawRectangle(new Rectangle(pos.x - renderPointSize / 2, pos.y - renderPointSize / 2,
-					renderPointSize, renderPointSize));
+			graphics.drawRectangle(x - half, y - half, size, size);
 			break;
 		case FILLED_SQUARE:
-			graphics.fillRectangle(new Rectangle(pos.x - renderPointSize / 2, pos.y - renderPointSize / 2,
-					renderPointSize, renderPointSize));
+			graphics.fillRectangle(x - half, y - half, size, size);
 			break;
 		case BAR:
-			graphics.drawLine(pos.x, pos.y - renderPointSize / 2, pos.x, pos.y + renderPointSize / 2);
+			graphics.drawLine(x, y - half, x, y + half);
 			break;
 		case CROSS:
-			graphics.drawLine(pos.x, pos.y - renderPointSize / 2, pos.x, pos.y + renderPointSize / 2);
-			graphics.drawLine(pos.x - renderPointSize / 2, pos.y, pos.x + renderPointSize / 2, pos.y);
+			graphics.drawLine(x, y - half, x, y + half);
+			graphics.drawLine(x - half, y, x + half, y);
 			break;
 		case XCROSS:
-			graphics.drawLine(pos.x - renderPointSize / 2, pos.y - renderPointSize / 2, pos.x + renderPointSize / 2,
-					pos.y + renderPointSize / 2);
-			graphics.drawLine(pos.x + renderPointSize / 2, pos.y - renderPointSize / 2, pos.x - renderPointSize / 2,
-					pos.y + pointSize / 2);
+			graphics.drawLine(x - half, y - half, x + half, y + half);
+			graphics.drawLine(x + half, y - half, x - half, y + half);
 			break;
 		case DIAMOND:
-			graphics.drawPolyline(new int[] { pos.x, pos.y - renderPointSize / 2, pos.x - renderPointSize / 2, pos.y,
-					pos.x, pos.y + renderPointSize / 2, pos.x + renderPointSize / 2, pos.y, pos.x,
-					pos.y - renderPointSize / 2 });
+			graphics.drawPolyline(new int[] { x, y - half, x - half, y, x, y + half, x + half, y, x, y - half });
 			break;
 		case FILLED_DIAMOND:
-			graphics.fillPolygon(new int[] { pos.x, pos.y - renderPointSize / 2, pos.x - renderPointSize / 2, pos.y,
-					pos.x, pos.y + renderPointSize / 2, pos.x + renderPointSize / 2, pos.y });
+			graphics.fillPolygon(new int[] { x, y - half, x - half, y, x, y + half, x + half, y });
 			break;
 		default:
 			break;
 		}
-		graphics.popState();
 	}
 
 	/**
@@ -591,14 +706,23 @@ public class Trace extends Figure implements IDataProviderListener, IAxisListene
 		super.paintFigure(graphics);
 		graphics.pushState();
 		try {
+			// While the user interacts with the graph, render on a fast path
+			final boolean fast = xyGraph instanceof XYGraph && ((XYGraph) xyGraph).isInteracting();
 			if (use_advanced_graphics)
-				graphics.setAntialias(antiAliasing ? SWT.ON : SWT.OFF);
+				graphics.setAntialias(antiAliasing && !fast ? SWT.ON : SWT.OFF);
 			graphics.setForegroundColor(traceColor);
 			graphics.setLineWidth(lineWidth);
 			ISample predp = null;
 			boolean predpInRange = false;
 			Point dpPos = null;
-			hotSampleist.clear();
+			// While the plot area only renders strips exposed by panning, or
+			// samples are skipped, the hot samples of the last full paint are
+			// kept.
+			final boolean renderingStrips = getParent() instanceof PlotArea
+					&& ((PlotArea) getParent()).isRenderingStrips();
+			final boolean partialPaint = renderingStrips || fast || coarseSamplesPerPixel > 0;
+			final List<ISample> hotSamples = partialPaint ? new ArrayList<ISample>() : hotSampleist;
+			hotSamples.clear();
 			if (traceDataProvider == null)
 				throw new RuntimeException("No DataProvider defined for trace: " + name); //$NON-NLS-1$
 			// Lock data provider to prevent changes while painting
@@ -606,8 +730,13 @@ public class Trace extends Figure implements IDataProviderListener, IAxisListene
 				if (traceDataProvider.getSize() > 0) {
 					// Is only a sub-set of the trace data visible?
 					final int startIndex, endIndex;
+					// Indices of the visited samples, null to visit all
+					// samples from startIndex to endIndex
+					int[] sampleIndices = null;
 					if (traceDataProvider.isChronological()) {
-						final Range indexRange = getIndexRangeOnXAxis();
+						Range indexRange = getIndexRangeOnXAxis();
+						if (renderingStrips && indexRange != null)
+							indexRange = getIndexRangeInClip(graphics, indexRange);
 						if (indexRange == null) {
 							startIndex = 0;
 							endIndex = -1;
@@ -615,9 +744,30 @@ public class Trace extends Figure implements IDataProviderListener, IAxisListene
 							startIndex = (int) indexRange.getLower();
 							endIndex = (int) indexRange.getUpper();
 						}
-					} else { // Cannot optimize range, use all data points
+					} else {
+						// A scatter trace of a spatially indexed provider only
+						// visits the samples near the visible area, otherwise
+						// the range cannot be optimized, use all data points
+						if (traceType == TraceType.POINT && !drawYErrorInArea
+								&& traceDataProvider instanceof ISpatialDataProvider)
+							sampleIndices = ((ISpatialDataProvider) traceDataProvider)
+									.getSampleIndices(xAxis.getRange(), yAxis.getRange());
 						startIndex = 0;
-						endIndex = traceDataProvider.getSize() - 1;
+						endIndex = sampleIndices != null ? sampleIndices.length - 1
+								: traceDataProvider.getSize() - 1;
+					}
+
+					// A coarse paint only draws every stride-th sample
+					final int stride = getSampleStride(startIndex, endIndex, fast);
+
+					if (isBinned(sampleIndices, startIndex, endIndex, stride)) {
+						paintBinned(graphics, sampleIndices, startIndex, endIndex, stride, hotSamples);
+						return;
+					}
+
+					if (softwareRendering && isSoftwareRenderable()) {
+						paintInSoftware(graphics, sampleIndices, startIndex, endIndex, stride, fast, hotSamples);
+						return;
 					}
 
 					// Set of points which were already drawn
@@ -635,8 +785,8 @@ public class Trace extends Figure implements IDataProviderListener, IAxisListene
 					Point minInRegion = null;
 					Point lastInRegion = null;
 
-					for (int i = startIndex; i <= endIndex; i++) {
-						ISample dp = traceDataProvider.getSample(i);
+					for (int i = startIndex; i <= endIndex; i += stride) {
+						ISample dp = traceDataProvider.getSample(sampleIndices == null ? i : sampleIndices[i]);
 						if (dp == null)
 							break;
 						final boolean dpInXRange = xAxis.getRange().inRange(dp.getXValue());
@@ -651,14 +801,7 @@ public class Trace extends Figure implements IDataProviderListener, IAxisListene
 							graphics.setBackgroundColor(traceColor);
 							graphics.fillRectangle(markPos.x - MARKER_SIZE / 2, markPos.y - MARKER_SIZE / 2,
 									MARKER_SIZE, MARKER_SIZE);
-							Sample nanSample = new Sample(dp.getXValue(),
-									xAxis.getTickLabelSide() == LabelSide.Primary ? yAxis.getRange().getLower()
-											: yAxis.getRange().getUpper(),
-									dp.getYPlusError(), dp.getYMinusError(), Double.NaN, dp.getXMinusError(),
-									dp.getInfo());
-							if (dp instanceof IMetaData)
-								nanSample.setData(((IMetaData) dp).getData());
-							hotSampleist.add(nanSample);
+							hotSamples.add(createNaNSample(dp));
 						}
 						// Is data point in the plot area?
 						boolean dpInRange = dpInXRange && yAxis.getRange().inRange(dp.getYValue());
@@ -666,16 +809,17 @@ public class Trace extends Figure implements IDataProviderListener, IAxisListene
 						if (dpInRange) {
 							dpPos = new Point(xAxis.getValuePosition(dp.getXValue(), false),
 									yAxis.getValuePosition(dp.getYValue(), false));
-							hotSampleist.add(dp);
+							hotSamples.add(dp);
 
 							// Do not draw points in the same place to improve
-							// performance
-							if (!hsPoint.contains(dpPos)) {
+							// performance. The fast path only draws the
+							// points of a point trace.
+							if ((!fast || traceType == TraceType.POINT) && !hsPoint.contains(dpPos)) {
 								drawPoint(graphics, dpPos, dp);
 								hsPoint.add(dpPos);
 							}
 
-							if (errorBarEnabled && !drawYErrorInArea)
+							if (errorBarEnabled && !drawYErrorInArea && !fast)
 								drawErrorBar(graphics, dpPos, dp);
 						}
 						if (traceType == TraceType.POINT && !drawYErrorInArea)
@@ -767,7 +911,7 @@ public class Trace extends Figure implements IDataProviderListener, IAxisListene
 								yAxis.getValuePosition(dp.getYValue(), false));
 
 						if (!dpPos.equals(predpPos)) {
-							if (errorBarEnabled && drawYErrorInArea && traceType != TraceType.BAR)
+							if (errorBarEnabled && drawYErrorInArea && traceType != TraceType.BAR && !fast)
 								drawYErrorArea(graphics, predp, dp, predpPos, dpPos);
 
 							switch (traceType) {
@@ -1008,6 +1152,402 @@ public class Trace extends Figure implements IDataProviderListener, IAxisListene
 		}
 	}
 
+	/**
+	 * @param dp
+	 *            a sample whose y value is NaN.
+	 * @return the sample of the NaN marker on the x axis, which is hot in
+	 *         place of the sample.
+	 */
+	private Sample createNaNSample(final ISample dp) {
+		Sample nanSample = new Sample(dp.getXValue(),
+				xAxis.getTickLabelSide() == LabelSide.Primary ? yAxis.getRange().getLower()
+						: yAxis.getRange().getUpper(),
+				dp.getYPlusError(), dp.getYMinusError(), Double.NaN, dp.getXMinusError(), dp.getInfo());
+		if (dp instanceof IMetaData)
+			nanSample.setData(((IMetaData) dp).getData());
+		return nanSample;
+	}
+
+	/**
+	 * @return true if the trace type can be drawn by the software renderer.
+	 *         Dashed lines and error bars are only drawn with draw2d.
+	 */
+	private boolean isSoftwareRenderable() {
+		if (errorBarEnabled)
+			return false;
+		switch (traceType) {
+		case SOLID_LINE:
+		case STEP_HORIZONTALLY:
+		case STEP_VERTICALLY:
+		case POINT:
+		case BAR:
+		case AREA:
+		case LINE_AREA:
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Draw the samples into a {@link SoftwareRasterizer} and paint its raster
+	 * with a single image. The samples are mapped to pixels in chunks by the
+	 * scale transforms of the axes. The lines are not antialiased, and the
+	 * markers are stamped from their sprites.
+	 * 
+	 * @param graphics
+	 *            the graphics.
+	 * @param sampleIndices
+	 *            the indices of the visited samples, null to visit the
+	 *            samples from startIndex to endIndex.
+	 * @param startIndex
+	 *            the index of the first sample, or of its index in
+	 *            sampleIndices.
+	 * @param endIndex
+	 *            the index of the last sample, or of its index in
+	 *            sampleIndices.
+	 * @param stride
+	 *            the step between the indices of the drawn samples.
+	 * @param fast
+	 *            true to skip the markers of traces which are not point
+	 *            traces.
+	 * @param hotSamples
+	 *            the list the samples in range are added to.
+	 */
+	private void paintInSoftware(final Graphics graphics, final int[] sampleIndices, final int startIndex,
+			final int endIndex, final int stride, final boolean fast, final List<ISample> hotSamples) {
+		final Rectangle area = getBounds().getIntersection(graphics.getClip(new Rectangle()));
+		if (area.isEmpty() || endIndex < startIndex)
+			return;
+		final ScaleTransform xTransform = xAxis.getTransform(false);
+		final ScaleTransform yTransform = yAxis.getTransform(false);
+		final Range xRange = xAxis.getRange();
+		final Range yRange = yAxis.getRange();
+		final SoftwareRasterizer rasterizer = new SoftwareRasterizer(area.width, area.height);
+
+		// Like on the draw2d path, lines are clipped to the axis ranges
+		final int left = toRaster(
+				Math.min(xTransform.getValuePrecisePosition(xRange.getLower()),
+						xTransform.getValuePrecisePosition(xRange.getUpper())), area.x);
+		final int right = toRaster(
+				Math.max(xTransform.getValuePrecisePosition(xRange.getLower()),
+						xTransform.getValuePrecisePosition(xRange.getUpper())), area.x);
+		final int top = toRaster(
+				Math.min(yTransform.getValuePrecisePosition(yRange.getLower()),
+						yTransform.getValuePrecisePosition(yRange.getUpper())), area.y);
+		final int bottom = toRaster(
+				Math.max(yTransform.getValuePrecisePosition(yRange.getLower()),
+						yTransform.getValuePrecisePosition(yRange.getUpper())), area.y);
+		rasterizer.setClip(left, top, right - left + 1, bottom - top + 1);
+
+		final int rgb = traceColor.getRed() << 16 | traceColor.getGreen() << 8 | traceColor.getBlue();
+		final int lineArgb = 0xFF000000 | rgb;
+		final int fillArgb = (use_advanced_graphics ? areaAlpha & 0xFF : 0xFF) << 24 | rgb;
+		final double baseValue;
+		switch (baseLine) {
+		case NEGATIVE_INFINITY:
+			baseValue = yRange.getLower();
+			break;
+		case POSITIVE_INFINITY:
+			baseValue = yRange.getUpper();
+			break;
+		default:
+			baseValue = 0;
+			break;
+		}
+		final int baseY = toRaster(yTransform.getValuePrecisePosition(baseValue), area.y);
+		final int nanY = toRaster(yTransform.getValuePrecisePosition(
+				xAxis.getTickLabelSide() == LabelSide.Primary ? yRange.getLower() : yRange.getUpper()), area.y);
+		final boolean drawMarkers = pointStyle != PointStyle.NONE && (!fast || traceType == TraceType.POINT);
+		final boolean antialiasMarkers = antiAliasing && !fast;
+		// without a point style provider all markers share one sprite
+		final MarkerSprites.Sprite traceSprite = drawMarkers && fPointStyleProvider == null
+				? getMarkerSprite(null, antialiasMarkers) : null;
+
+		final ISample[] samples = new ISample[SAMPLE_CHUNK_SIZE];
+		final double[] xValues = new double[SAMPLE_CHUNK_SIZE];
+		final double[] yValues = new double[SAMPLE_CHUNK_SIZE];
+		final double[] xPositions = new double[SAMPLE_CHUNK_SIZE];
+		final double[] yPositions = new double[SAMPLE_CHUNK_SIZE];
+		boolean hasPrevious = false;
+		int prevX = 0, prevY = 0;
+		int markerX = Integer.MIN_VALUE, markerY = Integer.MIN_VALUE;
+		for (int i = startIndex, n = SAMPLE_CHUNK_SIZE; n == SAMPLE_CHUNK_SIZE
+				&& i <= endIndex; i += n * stride) {
+			n = readSampleChunk(sampleIndices, i, endIndex, stride, samples, xValues, yValues);
+			xTransform.mapValues(xValues, 0, n, xPositions);
+			yTransform.mapValues(yValues, 0, n, yPositions);
+			for (int k = 0; k < n; k++) {
+				final int x = toRaster(xPositions[k], area.x);
+				final boolean inXRange = xRange.inRange(xValues[k]);
+				if (Double.isNaN(yValues[k])) {
+					// Mark 'NaN' samples on X axis
+					if (inXRange) {
+						rasterizer.setColor(lineArgb);
+						rasterizer.fillRectangle(x - MARKER_SIZE / 2, nanY - MARKER_SIZE / 2, MARKER_SIZE,
+								MARKER_SIZE);
+						hotSamples.add(createNaNSample(samples[k]));
+					}
+					// In 'STEP' modes, continue the last value until the NaN
+					// location
+					if (hasPrevious
+							&& (traceType == TraceType.STEP_HORIZONTALLY || traceType == TraceType.STEP_VERTICALLY)) {
+						rasterizer.setColor(lineArgb);
+						rasterizer.setLineWidth(lineWidth);
+						rasterizer.drawLine(prevX, prevY, x, prevY);
+					}
+					hasPrevious = false;
+					continue;
+				}
+				final int y = toRaster(yPositions[k], area.y);
+				if (inXRange && yRange.inRange(yValues[k])) {
+					hotSamples.add(samples[k]);
+					// Do not draw points in the same place
+					if (drawMarkers && (x != markerX || y != markerY)) {
+						final MarkerSprites.Sprite sprite = traceSprite != null ? traceSprite
+								: getMarkerSprite(samples[k], antialiasMarkers);
+						// markers of samples in range are not clipped
+						if (sprite != null)
+							rasterizer.drawImage(sprite.pixels, sprite.size, sprite.size, x - sprite.offset,
+									y - sprite.offset);
+						markerX = x;
+						markerY = y;
+					}
+				}
+				switch (traceType) {
+				case POINT:
+					break;
+				case BAR:
+					rasterizer.setColor(fillArgb);
+					rasterizer.setLineWidth(lineWidth);
+					rasterizer.drawLine(x, baseY, x, y);
+					break;
+				default:
+					if (hasPrevious && (x != prevX || y != prevY))
+						rasterizeSegment(rasterizer, prevX, prevY, x, y, baseY, lineArgb, fillArgb);
+					break;
+				}
+				hasPrevious = true;
+				prevX = x;
+				prevY = y;
+			}
+		}
+
+		rasterizer.rasterize();
+		final Image image = GraphicsUtil.createImage(Display.getCurrent(), rasterizer.getPixels(), area.width,
+				area.height);
+		try {
+			graphics.drawImage(image, area.x, area.y);
+		} finally {
+			image.dispose();
+		}
+	}
+
+	/**
+	 * The visible samples are counted in up to {@link #SAMPLE_CHUNK_SIZE}
+	 * samples spread evenly over the visited ones, and extrapolated to all
+	 * visited samples. So the test doesn't cost a pass over all samples.
+	 * 
+	 * @return true if the trace is a point trace with more visible samples
+	 *         per pixel than the binned rendering density.
+	 */
+	private boolean isBinned(final int[] sampleIndices, final int startIndex, final int endIndex,
+			final int stride) {
+		if (traceType != TraceType.POINT || drawYErrorInArea || endIndex < startIndex
+				|| Double.isInfinite(binnedRenderingDensity))
+			return false;
+		final Rectangle bounds = getBounds();
+		final double limit = binnedRenderingDensity * bounds.width * bounds.height;
+		final int visited = (endIndex - startIndex) / stride + 1;
+		if (visited <= limit)
+			return false;
+		final int probeStride = stride * Math.max(1, visited / SAMPLE_CHUNK_SIZE);
+		final ISample[] samples = new ISample[SAMPLE_CHUNK_SIZE];
+		final double[] xValues = new double[SAMPLE_CHUNK_SIZE];
+		final double[] yValues = new double[SAMPLE_CHUNK_SIZE];
+		final int n = readSampleChunk(sampleIndices, startIndex, endIndex, probeStride, samples, xValues, yValues);
+		if (n == 0)
+			return false;
+		final Range xRange = xAxis.getRange();
+		final Range yRange = yAxis.getRange();
+		int visible = 0;
+		for (int k = 0; k < n; k++)
+			if (xRange.inRange(xValues[k]) && yRange.inRange(yValues[k]))
+				visible++;
+		return (double) visible / n * visited > limit;
+	}
+
+	/**
+	 * Count the samples of a point trace per pixel and paint the counts as a
+	 * single image, so the cost of the image doesn't grow with the number of
+	 * samples. The pixels are colored by the logarithm of their counts.
+	 * 
+	 * @param graphics
+	 *            the graphics.
+	 * @param sampleIndices
+	 *            the indices of the visited samples, null to visit the
+	 *            samples from startIndex to endIndex.
+	 * @param startIndex
+	 *            the index of the first sample, or of its index in
+	 *            sampleIndices.
+	 * @param endIndex
+	 *            the index of the last sample, or of its index in
+	 *            sampleIndices.
+	 * @param stride
+	 *            the step between the indices of the visited samples.
+	 * @param hotSamples
+	 *            the list the samples in range are added to.
+	 */
+	private void paintBinned(final Graphics graphics, final int[] sampleIndices, final int startIndex,
+			final int endIndex, final int stride, final List<ISample> hotSamples) {
+		final Rectangle area = getBounds().getIntersection(graphics.getClip(new Rectangle()));
+		if (area.isEmpty())
+			return;
+		final ScaleTransform xTransform = xAxis.getTransform(false);
+		final ScaleTransform yTransform = yAxis.getTransform(false);
+		final Range xRange = xAxis.getRange();
+		final Range yRange = yAxis.getRange();
+		final DensityBuffer bins = new DensityBuffer(area.width, area.height);
+		final ISample[] samples = new ISample[SAMPLE_CHUNK_SIZE];
+		final double[] xValues = new double[SAMPLE_CHUNK_SIZE];
+		final double[] yValues = new double[SAMPLE_CHUNK_SIZE];
+		final double[] xPositions = new double[SAMPLE_CHUNK_SIZE];
+		final double[] yPositions = new double[SAMPLE_CHUNK_SIZE];
+		graphics.setBackgroundColor(traceColor);
+		for (int i = startIndex, n = SAMPLE_CHUNK_SIZE; n == SAMPLE_CHUNK_SIZE
+				&& i <= endIndex; i += n * stride) {
+			n = readSampleChunk(sampleIndices, i, endIndex, stride, samples, xValues, yValues);
+			xTransform.mapValues(xValues, 0, n, xPositions);
+			yTransform.mapValues(yValues, 0, n, yPositions);
+			for (int k = 0; k < n; k++) {
+				if (!xRange.inRange(xValues[k]))
+					continue;
+				if (Double.isNaN(yValues[k])) {
+					// Mark 'NaN' samples on X axis
+					final ISample nanSample = createNaNSample(samples[k]);
+					graphics.fillRectangle(xAxis.getValuePosition(nanSample.getXValue(), false) - MARKER_SIZE / 2,
+							yAxis.getValuePosition(nanSample.getYValue(), false) - MARKER_SIZE / 2, MARKER_SIZE,
+							MARKER_SIZE);
+					hotSamples.add(nanSample);
+				} else if (yRange.inRange(yValues[k])) {
+					hotSamples.add(samples[k]);
+					bins.accumulatePoint(xPositions[k] - area.x, yPositions[k] - area.y);
+				}
+			}
+		}
+
+		final int[] pixels = new int[area.width * area.height];
+		bins.toARGB(getBinnedLookupTable(), true, pixels);
+		final Image image = GraphicsUtil.createImage(Display.getCurrent(), pixels, area.width, area.height);
+		try {
+			graphics.drawImage(image, area.x, area.y);
+		} finally {
+			image.dispose();
+		}
+	}
+
+	/**
+	 * @return the colors of the bin counts, by default from the translucent
+	 *         to the opaque trace color.
+	 */
+	private int[] getBinnedLookupTable() {
+		final int[] colors;
+		if (binnedColorMap != null) {
+			colors = new int[binnedColorMap.length];
+			for (int i = 0; i < colors.length; i++)
+				colors[i] = 0xFF000000 | binnedColorMap[i].red << 16 | binnedColorMap[i].green << 8
+						| binnedColorMap[i].blue;
+		} else {
+			final int rgb = traceColor.getRed() << 16 | traceColor.getGreen() << 8 | traceColor.getBlue();
+			colors = new int[] { 0x40000000 | rgb, 0xFF000000 | rgb };
+		}
+		return DensityBuffer.createLookupTable(colors, BINNED_RAMP_SIZE);
+	}
+
+	/**
+	 * Read the next chunk of the visited samples and their values.
+	 * 
+	 * @param sampleIndices
+	 *            the indices of the visited samples, null to visit the
+	 *            samples up to endIndex.
+	 * @param from
+	 *            the index of the first sample to read, or of its index in
+	 *            sampleIndices.
+	 * @param endIndex
+	 *            the index of the last visited sample, or of its index in
+	 *            sampleIndices.
+	 * @param stride
+	 *            the step between the indices of the visited samples.
+	 * @param samples
+	 *            the array the samples are read into.
+	 * @param xValues
+	 *            the array the x values are read into.
+	 * @param yValues
+	 *            the array the y values are read into.
+	 * @return the number of samples read, less than the length of the arrays
+	 *         at the end of the samples.
+	 */
+	private int readSampleChunk(final int[] sampleIndices, final int from, final int endIndex, final int stride,
+			final ISample[] samples, final double[] xValues, final double[] yValues) {
+		int n = 0;
+		for (int i = from; n < samples.length && i <= endIndex; i += stride) {
+			final ISample dp = traceDataProvider.getSample(sampleIndices == null ? i : sampleIndices[i]);
+			if (dp == null)
+				break;
+			samples[n] = dp;
+			xValues[n] = dp.getXValue();
+			yValues[n] = dp.getYValue();
+			n++;
+		}
+		return n;
+	}
+
+	/**
+	 * @return a position relative to the raster origin, limited to
+	 *         {@link #SOFTWARE_POSITION_LIMIT}.
+	 */
+	private static int toRaster(final double position, final int origin) {
+		final double p = position - origin;
+		if (p > SOFTWARE_POSITION_LIMIT)
+			return (int) SOFTWARE_POSITION_LIMIT;
+		if (p < -SOFTWARE_POSITION_LIMIT)
+			return (int) -SOFTWARE_POSITION_LIMIT;
+		return (int) Math.round(p);
+	}
+
+	/**
+	 * Draw the line and area between two samples into the raster.
+	 */
+	private void rasterizeSegment(final SoftwareRasterizer rasterizer, final int x0, final int y0, final int x1,
+			final int y1, final int baseY, final int lineArgb, final int fillArgb) {
+		rasterizer.setLineWidth(lineWidth);
+		switch (traceType) {
+		case STEP_HORIZONTALLY:
+			rasterizer.setColor(lineArgb);
+			rasterizer.drawLine(x0, y0, x1, y0);
+			rasterizer.drawLine(x1, y0, x1, y1);
+			break;
+		case STEP_VERTICALLY:
+			rasterizer.setColor(lineArgb);
+			rasterizer.drawLine(x0, y0, x0, y1);
+			rasterizer.drawLine(x0, y1, x1, y1);
+			break;
+		case AREA:
+		case LINE_AREA:
+			rasterizer.setColor(fillArgb);
+			rasterizer.fillArea(x0, y0, x1, y1, baseY);
+			if (traceType == TraceType.LINE_AREA) {
+				rasterizer.setColor(lineArgb);
+				rasterizer.drawLine(x0, y0, x1, y1);
+			}
+			break;
+		default:
+			rasterizer.setColor(lineArgb);
+			rasterizer.drawLine(x0, y0, x1, y1);
+			break;
+		}
+	}
+
 	/**
 	 * Compute axes intersection considering the 'TraceType'
 	 * 
@@ -1204,6 +1744,7 @@ public class Trace extends Figure implements IDataProviderListener, IAxisListene
 		xAxis = axis;
 		xAxis.addTrace(this);
 		xAxis.addListener(this);
+		invalidateRendering();
 		revalidate();
 	}
 
@@ -1254,6 +1795,7 @@ public class Trace extends Figure implements IDataProviderListener, IAxisListene
 
 		fireYAxisChanged(old, yAxis);
 
+		invalidateRendering();
 		xyGraph.repaint();
 	}
 
@@ -1289,6 +1831,7 @@ public class Trace extends Figure implements IDataProviderListener, IAxisListene
 		this.traceColor = traceColor;
 		if (!errorBarColorSetFlag)
 			errorBarColor = traceColor;
+		invalidateRendering();
 		if (xyGraph != null)
 			xyGraph.repaint();
 		fireTraceColorChanged(old, this.traceColor);
@@ -1317,6 +1860,7 @@ public class Trace extends Figure implements IDataProviderListener, IAxisListene
 	public void setTraceType(TraceType traceType) {
 		TraceType old = this.traceType;
 		this.traceType = traceType;
+		invalidateRendering();
 		if (xyGraph != null)
 			xyGraph.repaint();
 
@@ -1340,6 +1884,7 @@ public class Trace extends Figure implements IDataProviderListener, IAxisListene
 	 */
 	public void setBaseLine(BaseLine baseLine) {
 		this.baseLine = baseLine;
+		invalidateRendering();
 		if (xyGraph != null)
 			xyGraph.repaint();
 	}
@@ -1352,6 +1897,7 @@ public class Trace extends Figure implements IDataProviderListener, IAxisListene
 
 		PointStyle old = this.pointStyle;
 		this.pointStyle = pointStyle;
+		invalidateRendering();
 		if (xyGraph != null)
 			xyGraph.repaint();
 
@@ -1377,6 +1923,7 @@ public class Trace extends Figure implements IDataProviderListener, IAxisListene
 
 		int orig = this.lineWidth;
 		this.lineWidth = lw;
+		invalidateRendering();
 		if (xyGraph != null)
 			xyGraph.repaint();
 
@@ -1392,6 +1939,7 @@ public class Trace extends Figure implements IDataProviderListener, IAxisListene
 	 */
 	public void setPointSize(int pointSize) {
 		this.pointSize = pointSize;
+		invalidateRendering();
 		if (xyGraph != null)
 			xyGraph.repaint();
 	}
@@ -1402,6 +1950,7 @@ public class Trace extends Figure implements IDataProviderListener, IAxisListene
 	 */
 	public void setAreaAlpha(int areaAlpha) {
 		this.areaAlpha = areaAlpha;
+		invalidateRendering();
 		if (xyGraph != null)
 			xyGraph.repaint();
 	}
@@ -1412,6 +1961,7 @@ public class Trace extends Figure implements IDataProviderListener, IAxisListene
 	 */
 	public void setAntiAliasing(boolean antiAliasing) {
 		this.antiAliasing = antiAliasing;
+		invalidateRendering();
 		if (xyGraph != null)
 			xyGraph.repaint();
 	}
@@ -1486,6 +2036,9 @@ public class Trace extends Figure implements IDataProviderListener, IAxisListene
 		// if the axis has been repainted, it will cause the trace to be
 		// repainted autoly,
 		// the trace doesn't have to be repainted again.
+		final PlotArea plotArea = getPlotArea();
+		if (plotArea != null)
+			plotArea.traceDataChanged();
 		boolean xRepainted = xAxis.performAutoScale(false);
 		boolean yRepainted = yAxis.performAutoScale(false);
 		if (!xRepainted && !yRepainted)
@@ -1526,6 +2079,169 @@ public class Trace extends Figure implements IDataProviderListener, IAxisListene
 		return new Range(lowIndex, highIndex);
 	}
 
+	/**
+	 * Get the statistics of the y values of the samples in the range of the
+	 * x axis, for example for a readout. They are computed in O(log n) if the
+	 * data provider is an {@link IStatisticsDataProvider} with an index, and
+	 * by iterating the visible samples otherwise. Samples which are not
+	 * chronological are all visited.
+	 * 
+	 * @return the statistics of the visible samples.
+	 */
+	public SampleStatistics getVisibleStatistics() {
+		synchronized (traceDataProvider) {
+			final Range xRange = xAxis.getRange();
+			if (!traceDataProvider.isChronological())
+				return computeVisibleStatistics(xRange);
+			final Range indexRange = getIndexRangeOnXAxis();
+			if (indexRange == null)
+				return new SampleStatistics(0, 0, 0, 0, 0);
+			int from = (int) indexRange.getLower();
+			int to = (int) indexRange.getUpper() + 1;
+			// the index range may include a sample on each side of the range
+			if (from < to && !xRange.inRange(traceDataProvider.getSample(from).getXValue()))
+				from++;
+			if (from < to && !xRange.inRange(traceDataProvider.getSample(to - 1).getXValue()))
+				to--;
+			if (traceDataProvider instanceof IStatisticsDataProvider) {
+				final SampleStatistics statistics = ((IStatisticsDataProvider) traceDataProvider)
+						.getStatistics(from, to);
+				if (statistics != null)
+					return statistics;
+			}
+			return SampleStatistics.compute(traceDataProvider, from, to);
+		}
+	}
+
+	/**
+	 * Get the range of the y values of the samples in the range of the x
+	 * axis, for an auto-scale of the visible samples.
+	 * 
+	 * @param positiveOnly
+	 *            true for a range of positive values only. If a visible y
+	 *            value is not positive, the positive range of all samples is
+	 *            returned, as the index has no minimum of the positive values.
+	 * @return the range, or null if no sample is visible.
+	 */
+	public Range getVisibleYDataRange(final boolean positiveOnly) {
+		final SampleStatistics statistics = getVisibleStatistics();
+		if (statistics.getCount() == 0)
+			return null;
+		if (positiveOnly && statistics.getMin() <= 0)
+			return traceDataProvider.getYDataMinMax(true);
+		return new Range(statistics.getMin(), statistics.getMax());
+	}
+
+	/**
+	 * Compute the statistics of the samples in an x range by iterating all
+	 * samples.
+	 */
+	private SampleStatistics computeVisibleStatistics(final Range xRange) {
+		int count = 0;
+		double sum = 0, sumOfSquares = 0;
+		double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+		for (int i = 0, size = traceDataProvider.getSize(); i < size; i++) {
+			final ISample sample = traceDataProvider.getSample(i);
+			final double y = sample.getYValue();
+			if (!xRange.inRange(sample.getXValue()) || Double.isNaN(y) || Double.isInfinite(y))
+				continue;
+			count++;
+			sum += y;
+			sumOfSquares += y * y;
+			min = Math.min(min, y);
+			max = Math.max(max, y);
+		}
+		return new SampleStatistics(count, sum, sumOfSquares, min, max);
+	}
+
+	/**
+	 * @return the step between the indices of the drawn samples, which is 1
+	 *         unless a coarse or fast paint has more samples than it should
+	 *         draw.
+	 */
+	private int getSampleStride(final int startIndex, final int endIndex, final boolean fast) {
+		int samplesPerPixel = coarseSamplesPerPixel;
+		if (fast && (samplesPerPixel <= 0 || samplesPerPixel > FAST_SAMPLES_PER_PIXEL))
+			samplesPerPixel = FAST_SAMPLES_PER_PIXEL;
+		if (samplesPerPixel <= 0)
+			return 1;
+		final int maxSamples = samplesPerPixel * Math.max(1, getBounds().width);
+		return Math.max(1, (endIndex - startIndex + 1) / maxSamples);
+	}
+
+	/**
+	 * Set the number of samples per pixel column drawn by a coarse paint. The
+	 * plot area sets it while it draws a quick preview of the trace.
+	 * 
+	 * @param coarseSamplesPerPixel
+	 *            the samples per pixel column, 0 to draw all samples.
+	 */
+	void setCoarseSamplesPerPixel(final int coarseSamplesPerPixel) {
+		this.coarseSamplesPerPixel = coarseSamplesPerPixel;
+	}
+
+	/**
+	 * @return the plot area which paints the trace, or null.
+	 */
+	private PlotArea getPlotArea() {
+		return getParent() instanceof PlotArea ? (PlotArea) getParent() : null;
+	}
+
+	@Override
+	public void setVisible(boolean visible) {
+		super.setVisible(visible);
+		invalidateRendering();
+	}
+
+	/**
+	 * Tell the plot area that the trace looks different, so the images it
+	 * keeps of the trace must be rendered again.
+	 */
+	void invalidateRendering() {
+		final PlotArea plotArea = getPlotArea();
+		if (plotArea != null)
+			plotArea.invalidateRenderedImages();
+	}
+
+	/**
+	 * Narrow the index range of chronological data to the samples which can
+	 * touch the clip area of the graphics.
+	 * 
+	 * @param graphics
+	 *            the graphics.
+	 * @param indexRange
+	 *            the index range on the x axis.
+	 * @return the narrowed index range, or null if no sample is in the clip
+	 *         area.
+	 */
+	private Range getIndexRangeInClip(final Graphics graphics, final Range indexRange) {
+		// error bars may reach far out of the clip area
+		if (errorBarEnabled)
+			return indexRange;
+		final Rectangle clip = graphics.getClip(new Rectangle());
+		final int pad = Math.max(pointSize, MARKER_SIZE) + lineWidth;
+		final double v1 = xAxis.getPositionValue(clip.x - pad, false);
+		final double v2 = xAxis.getPositionValue(clip.x + clip.width + pad, false);
+		final double min = Math.min(v1, v2);
+		final double max = Math.max(v1, v2);
+		final int last = traceDataProvider.getSize() - 1;
+		if (min > traceDataProvider.getSample(last).getXValue() || max < traceDataProvider.getSample(0).getXValue())
+			return null;
+		int lowIndex = (int) indexRange.getLower();
+		int highIndex = (int) indexRange.getUpper();
+		if (min > traceDataProvider.getSample(0).getXValue()) {
+			final int index = nearBinarySearchX(min, true);
+			if (index >= 0)
+				lowIndex = Math.max(lowIndex, index);
+		}
+		if (max < traceDataProvider.getSample(last).getXValue()) {
+			final int index = nearBinarySearchX(max, false);
+			if (index >= 0)
+				highIndex = Math.min(highIndex, index);
+		}
+		return lowIndex <= highIndex ? new Range(lowIndex, highIndex) : null;
+	}
+
 	// It will return the index on the closest left(if left is true) or right of
 	// the data
 	// Like public version, but without range checks.
@@ -1576,11 +2292,16 @@ public class Trace extends Figure implements IDataProviderListener, IAxisListene
 	}
 
 	public void axisRevalidated(Axis axis) {
+		final PlotArea plotArea = getPlotArea();
+		if (plotArea != null)
+			plotArea.invalidateProgressiveImage();
 		repaint();
 	}
 
 	public void axisRangeChanged(Axis axis, Range old_range, Range new_range) {
-		// do nothing
+		// the visible samples changed
+		if (axis == xAxis && yAxis.isAutoScale() && yAxis.isAutoScaleVisibleRange())
+			yAxis.performAutoScale(false);
 	}
 
 	/**
@@ -1596,6 +2317,7 @@ public class Trace extends Figure implements IDataProviderListener, IAxisListene
 	 */
 	public void setErrorBarEnabled(boolean errorBarEnabled) {
 		this.errorBarEnabled = errorBarEnabled;
+		invalidateRendering();
 	}
 
 	/**
@@ -1604,6 +2326,7 @@ public class Trace extends Figure implements IDataProviderListener, IAxisListene
 	 */
 	public void setYErrorBarType(ErrorBarType errorBarType) {
 		yErrorBarType = errorBarType;
+		invalidateRendering();
 	}
 
 	/**
@@ -1612,6 +2335,7 @@ public class Trace extends Figure implements IDataProviderListener, IAxisListene
 	 */
 	public void setXErrorBarType(ErrorBarType errorBarType) {
 		xErrorBarType = errorBarType;
+		invalidateRendering();
 	}
 
 	/**
@@ -1620,6 +2344,7 @@ public class Trace extends Figure implements IDataProviderListener, IAxisListene
 	 */
 	public void setDrawYErrorInArea(boolean drawYErrorInArea) {
 		this.drawYErrorInArea = drawYErrorInArea;
+		invalidateRendering();
 	}
 
 	/**
@@ -1628,6 +2353,7 @@ public class Trace extends Figure implements IDataProviderListener, IAxisListene
 	 */
 	public void setErrorBarCapWidth(int errorBarCapWidth) {
 		this.errorBarCapWidth = errorBarCapWidth;
+		invalidateRendering();
 	}
 
 	/**
@@ -1638,6 +2364,7 @@ public class Trace extends Figure implements IDataProviderListener, IAxisListene
 	public void setErrorBarColor(final Color errorBarColor) {
 		this.errorBarColor = errorBarColor;
 		errorBarColorSetFlag = true;
+		invalidateRendering();
 	}
 
 	/**
@@ -1677,6 +2404,111 @@ public class Trace extends Figure implements IDataProviderListener, IAxisListene
 		return antiAliasing;
 	}
 
+	/**
+	 * Draw the trace with a pure Java rasterizer instead of draw2d. The
+	 * samples are rasterized into a pixel buffer, in parallel for large
+	 * traces, which is painted as a single image. This is much faster for
+	 * dense traces with many thousands of samples, but the trace is not
+	 * antialiased. Trace types and styles the rasterizer can't draw, like
+	 * dashed lines or error bars, are still drawn with draw2d.
+	 * 
+	 * @param softwareRendering
+	 *            true to draw the trace with the software rasterizer.
+	 */
+	public void setSoftwareRendering(boolean softwareRendering) {
+		this.softwareRendering = softwareRendering;
+		invalidateRendering();
+		if (xyGraph != null)
+			xyGraph.repaint();
+	}
+
+	/**
+	 * @return true if the trace is drawn with the software rasterizer.
+	 */
+	public boolean isSoftwareRendering() {
+		return softwareRendering;
+	}
+
+	/**
+	 * Set the density above which a point trace is drawn as a 2D histogram:
+	 * the points are counted per pixel, and the counts are painted as a
+	 * single image with a color ramp. So the paint cost of a scatter plot
+	 * with millions of points is bounded by the number of pixels.
+	 * 
+	 * @param binnedRenderingDensity
+	 *            the visible points per pixel of the plot area,
+	 *            {@link Double#POSITIVE_INFINITY} to always draw the points
+	 *            with their point style, which is the default.
+	 */
+	public void setBinnedRenderingDensity(double binnedRenderingDensity) {
+		this.binnedRenderingDensity = binnedRenderingDensity;
+		invalidateRendering();
+		if (xyGraph != null)
+			xyGraph.repaint();
+	}
+
+	/**
+	 * @return the visible points per pixel above which a point trace is
+	 *         drawn as a 2D histogram.
+	 */
+	public double getBinnedRenderingDensity() {
+		return binnedRenderingDensity;
+	}
+
+	/**
+	 * Set the colors of the counts of a point trace drawn as a 2D histogram.
+	 * The colors are equally spaced from the lowest to the highest count.
+	 * 
+	 * @param binnedColorMap
+	 *            the colors, null for a ramp from the translucent to the
+	 *            opaque trace color.
+	 */
+	public void setBinnedColorMap(RGB[] binnedColorMap) {
+		this.binnedColorMap = binnedColorMap;
+		invalidateRendering();
+		if (xyGraph != null)
+			xyGraph.repaint();
+	}
+
+	/**
+	 * @return the colors of the counts of a binned point trace, or null for
+	 *         a ramp of the trace color.
+	 */
+	public RGB[] getBinnedColorMap() {
+		return binnedColorMap;
+	}
+
+	/**
+	 * Draw the markers by stamping images, each rendered once per point
+	 * style, size and color, instead of drawing their shapes point by point.
+	 * The markers are drawn as shapes anyway when the graphics is scaled, for
+	 * example when printing.
+	 * 
+	 * @param spriteMarkers
+	 *            true to draw the markers with images.
+	 */
+	public void setSpriteMarkers(boolean spriteMarkers) {
+		this.spriteMarkers = spriteMarkers;
+		if (!spriteMarkers)
+			markerSprites.dispose();
+		invalidateRendering();
+		if (xyGraph != null)
+			xyGraph.repaint();
+	}
+
+	/**
+	 * @return true if the markers are drawn with images.
+	 */
+	public boolean isSpriteMarkers() {
+		return spriteMarkers;
+	}
+
+	@Override
+	public void removeNotify() {
+		markerSprites.dispose();
+		super.removeNotify();
+	}
+
 	/**
 	 * @return the errorBarEnabled
 	 */
@@ -103,6 +103,29 @@ public class XYGraph extends Figure implements IXYGraph {
 
 	private ZoomType zoomType;
 
+	/**
+	 * The default time in milliseconds without interaction after which the
+	 * graph is rendered in full quality again.
+	 */
+	public static final int DEFAULT_INTERACTION_IDLE_TIMEOUT = 300;
+
+	private boolean fastInteraction = true;
+
+	private int interactionIdleTimeout = DEFAULT_INTERACTION_IDLE_TIMEOUT;
+
+	private boolean interacting;
+
+	private final Runnable interactionEnder = new Runnable() {
+		@Override
+		public void run() {
+			if (!interacting)
+				return;
+			interacting = false;
+			plotArea.interactionEnded();
+			repaint();
+		}
+	};
+
 	/**
 	 * Constructor.
 	 */
@@ -469,6 +492,24 @@ public class XYGraph extends Figure implements IXYGraph {
 		plotArea.removeAnnotation(annotation);
 	}
 
+	/**
+	 * Add a layer of lightweight annotations
+	 * 
+	 * @param annotationLayer
+	 */
+	public void addAnnotationLayer(AnnotationLayer annotationLayer) {
+		plotArea.addAnnotationLayer(annotationLayer);
+	}
+
+	/**
+	 * Remove a layer of lightweight annotations
+	 * 
+	 * @param annotationLayer
+	 */
+	public void removeAnnotationLayer(AnnotationLayer annotationLayer) {
+		plotArea.removeAnnotationLayer(annotationLayer);
+	}
+
 	/**
 	 * @param titleFont
 	 *            the titleFont to set
@@ -520,6 +561,66 @@ public class XYGraph extends Figure implements IXYGraph {
 		return transparent;
 	}
 
+	/**
+	 * Tell the graph that the user is zooming, panning or dragging. If fast
+	 * interaction is enabled, the traces are rendered on a fast path until
+	 * there was no interaction for the idle timeout: without antialiasing,
+	 * point markers and error bars, and with fewer samples.
+	 */
+	public void notifyInteraction() {
+		if (!fastInteraction)
+			return;
+		interacting = true;
+		Display.getCurrent().timerExec(interactionIdleTimeout, interactionEnder);
+	}
+
+	/**
+	 * @return true while the traces are rendered on the fast path.
+	 */
+	public boolean isInteracting() {
+		return interacting;
+	}
+
+	/**
+	 * @param fastInteraction
+	 *            true to render the traces on a fast path while the user
+	 *            interacts with the graph, which is the default.
+	 */
+	public void setFastInteraction(boolean fastInteraction) {
+		this.fastInteraction = fastInteraction;
+		if (!fastInteraction && interacting) {
+			Display.getCurrent().timerExec(-1, interactionEnder);
+			interactionEnder.run();
+		}
+	}
+
+	/**
+	 * @return true if the traces are rendered on a fast path while the user
+	 *         interacts with the graph.
+	 */
+	public boolean isFastInteraction() {
+		return fastInteraction;
+	}
+
+	/**
+	 * @param interactionIdleTimeout
+	 *            the time in milliseconds without interaction after which the
+	 *            graph is rendered in full quality again.
+	 */
+	public void setInteractionIdleTimeout(int interactionIdleTimeout) {
+		if (interactionIdleTimeout < 0)
+			throw new IllegalArgumentException("interactionIdleTimeout must not be negative"); //$NON-NLS-1$
+		this.interactionIdleTimeout = interactionIdleTimeout;
+	}
+
+	/**
+	 * @return the time in milliseconds without interaction after which the
+	 *         graph is rendered in full quality again.
+	 */
+	public int getInteractionIdleTimeout() {
+		return interactionIdleTimeout;
+	}
+
 	/**
 	 * @return the plotArea, which contains all the elements drawn inside it.
 	 */
@@ -59,6 +59,9 @@ public class LinearScale extends AbstractScale implements IScaleProvider {
 	/** if true, then ticks are based on axis dataset indexes */
 	private boolean ticksIndexBased;
 
+	/** the last transforms, reused while the scale doesn't change */
+	private ScaleTransform relativeTransform, absoluteTransform;
+
 	/**
 	 * Constructor.
 	 */
@@ -212,34 +215,7 @@ public class LinearScale extends AbstractScale implements IScaleProvider {
 	 * @return position in pixels
 	 */
 	public double getValuePrecisePosition(double value, boolean relative) {
-		updateTick();
-		// coerce to range
-		// value = value < min ? min : (value > max ? max : value);
-		Range r = getLocalRange();
-		double min = r.getLower();
-		double max = r.getUpper();
-		double pixelsToStart = 0;
-		if (logScaleEnabled) {
-			if (value <= 0)
-				value = min;
-			// throw new IllegalArgumentException(
-			// "Invalid value: value must be greater than 0");
-			pixelsToStart = ((Math.log10(value) - Math.log10(min)) / (Math.log10(max) - Math.log10(min))
-					* ((double) length - 2d * margin)) + margin;
-		} else
-			pixelsToStart = ((value - min) / (max - min) * ((double) length - 2d * margin)) + margin;
-
-		if (relative) {
-			if (orientation == Orientation.HORIZONTAL)
-				return pixelsToStart;
-			else
-				return length - pixelsToStart;
-		} else {
-			if (orientation == Orientation.HORIZONTAL)
-				return pixelsToStart + bounds.x;
-			else
-				return length - pixelsToStart + bounds.y;
-		}
+		return getTransform(relative).getValuePrecisePosition(value);
 	}
 
 	/**
@@ -253,32 +229,52 @@ public class LinearScale extends AbstractScale implements IScaleProvider {
 	 * @return the value corresponding to the position.
 	 */
 	public double getPositionValue(double position, boolean relative) {
-		updateTick();
-		// coerce to range
-		double pixelsToStart;
-		double value;
-		if (relative) {
-			if (isHorizontal())
-				pixelsToStart = position;
-			else
-				pixelsToStart = length - position;
-		} else {
-			if (isHorizontal())
-				pixelsToStart = position - bounds.x;
-			else
-				pixelsToStart = length + bounds.y - position;
-		}
+		return getTransform(relative).getPositionValue(position);
+	}
+
+	/**
+	 * Map values to absolute positions in one pass, which is much faster than
+	 * calling {@link #getValuePosition(double, boolean)} for each value.
+	 * 
+	 * @param src
+	 *            the values.
+	 * @param off
+	 *            the index of the first value.
+	 * @param len
+	 *            the number of values.
+	 * @param dstPixels
+	 *            the positions, the position of src[off + i] is stored at
+	 *            index i.
+	 */
+	public void mapValues(double[] src, int off, int len, int[] dstPixels) {
+		getTransform(false).mapValues(src, off, len, dstPixels);
+	}
 
+	/**
+	 * Get a snapshot of the current mapping between values and positions.
+	 * Painting code should get it once and use it for all samples.
+	 * 
+	 * @param relative
+	 *            true for positions relative to the left/bottom bound of the
+	 *            scale, false for absolute positions.
+	 * @return the transform, which is only valid until the scale changes.
+	 */
+	public ScaleTransform getTransform(boolean relative) {
+		updateTick();
 		Range r = getLocalRange();
 		double min = r.getLower();
 		double max = r.getUpper();
-		if (isLogScaleEnabled())
-			value = Math.pow(10, (pixelsToStart - margin) * (Math.log10(max) - Math.log10(min)) / (length - 2 * margin)
-					+ Math.log10(min));
-		else
-			value = (pixelsToStart - margin) * (max - min) / (length - 2 * margin) + min;
-
-		return value;
+		boolean horizontal = orientation == Orientation.HORIZONTAL;
+		int start = relative ? 0 : (horizontal ? bounds.x : bounds.y);
+		ScaleTransform transform = relative ? relativeTransform : absoluteTransform;
+		if (transform == null || !transform.matches(min, max, logScaleEnabled, length, margin, horizontal, start)) {
+			transform = new ScaleTransform(min, max, logScaleEnabled, length, margin, horizontal, start);
+			if (relative)
+				relativeTransform = transform;
+			else
+				absoluteTransform = transform;
+		}
+		return transform;
 	}
 
 	/**
@@ -0,0 +1,226 @@
+package org.eclipse.nebula.visualization.xygraph.linearscale;
+
+/**
+ * An immutable snapshot of the mapping between values and pixel positions of
+ * a {@link LinearScale}.
+ * <p>
+ * All parameters of the mapping, including the logarithms of a log scale, are
+ * computed once, so a position is a single multiply-add of the (log) value.
+ * The bulk methods run a tight loop without per sample calls or branches on
+ * the scale state, which the JIT can unroll and vectorize. A snapshot stays
+ * valid until the range, size, location, orientation or log mode of the
+ * scale changes; get a new one from {@link LinearScale#getTransform(boolean)}
+ * for each paint.
+ * </p>
+ */
+public final class ScaleTransform {
+
+	private final double min;
+	private final double max;
+	private final boolean logScale;
+	private final int length;
+	private final int margin;
+	private final boolean horizontal;
+	private final int start;
+
+	/** the (log) value at the origin */
+	private final double transformedMin;
+
+	/** the position of the lower end of the range */
+	private final double origin;
+
+	/** pixels per (log) value unit, negative on a vertical scale */
+	private final double factor;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param min
+	 *            the lower value of the range.
+	 * @param max
+	 *            the upper value of the range.
+	 * @param logScale
+	 *            true if the scale is logarithmic.
+	 * @param length
+	 *            the length of the whole scale including the margins.
+	 * @param margin
+	 *            the margin at each end of the scale.
+	 * @param horizontal
+	 *            true if the scale is horizontal.
+	 * @param start
+	 *            the x (horizontal) or y (vertical) coordinate of the scale
+	 *            bounds, 0 for positions relative to the scale.
+	 */
+	public ScaleTransform(double min, double max, boolean logScale, int length, int margin, boolean horizontal,
+			int start) {
+		this.min = min;
+		this.max = max;
+		this.logScale = logScale;
+		this.length = length;
+		this.margin = margin;
+		this.horizontal = horizontal;
+		this.start = start;
+		transformedMin = logScale ? Math.log10(min) : min;
+		double transformedMax = logScale ? Math.log10(max) : max;
+		double slope = ((double) length - 2d * margin) / (transformedMax - transformedMin);
+		if (horizontal) {
+			origin = start + margin;
+			factor = slope;
+		} else {
+			origin = start + length - margin;
+			factor = -slope;
+		}
+	}
+
+	/**
+	 * @return true if the snapshot was taken with these scale parameters.
+	 */
+	boolean matches(double min, double max, boolean logScale, int length, int margin, boolean horizontal,
+			int start) {
+		return this.min == min && this.max == max && this.logScale == logScale && this.length == length
+				&& this.margin == margin && this.horizontal == horizontal && this.start == start;
+	}
+
+	/**
+	 * @return true if the scale is logarithmic.
+	 */
+	public boolean isLogScale() {
+		return logScale;
+	}
+
+	/**
+	 * @return true if the scale is horizontal.
+	 */
+	public boolean isHorizontal() {
+		return horizontal;
+	}
+
+	/**
+	 * @return the position of the lower value of the range.
+	 */
+	public double getOrigin() {
+		return origin;
+	}
+
+	/**
+	 * @return pixels per value unit, or per decade on a log scale. It is
+	 *         negative on a vertical scale, where the positions grow
+	 *         downwards.
+	 */
+	public double getFactor() {
+		return factor;
+	}
+
+	/**
+	 * Get the position of a value. A value which is not positive is mapped to
+	 * the lower end of a log scale.
+	 *
+	 * @param value
+	 *            the value. Values out of range are supported.
+	 * @return the position in pixels.
+	 */
+	public double getValuePrecisePosition(double value) {
+		if (logScale)
+			return origin + ((value <= 0 ? transformedMin : Math.log10(value)) - transformedMin) * factor;
+		return origin + (value - transformedMin) * factor;
+	}
+
+	/**
+	 * @param value
+	 *            the value.
+	 * @return the position in pixels, rounded.
+	 * @see #getValuePrecisePosition(double)
+	 */
+	public int getValuePosition(double value) {
+		return (int) Math.round(getValuePrecisePosition(value));
+	}
+
+	/**
+	 * Get the value at a position, the inverse of
+	 * {@link #getValuePrecisePosition(double)}.
+	 *
+	 * @param position
+	 *            the position in pixels.
+	 * @return the value.
+	 */
+	public double getPositionValue(double position) {
+		double value = (position - origin) / factor + transformedMin;
+		return logScale ? Math.pow(10, value) : value;
+	}
+
+	/**
+	 * Map values to rounded positions.
+	 *
+	 * @param src
+	 *            the values.
+	 * @param off
+	 *            the index of the first value.
+	 * @param len
+	 *            the number of values.
+	 * @param dstPixels
+	 *            the positions, the position of src[off + i] is stored at
+	 *            index i.
+	 */
+	public void mapValues(double[] src, int off, int len, int[] dstPixels) {
+		final double o = origin, t = transformedMin, f = factor;
+		if (logScale) {
+			for (int i = 0; i < len; i++) {
+				double v = src[off + i];
+				dstPixels[i] = (int) Math.round(o + ((v <= 0 ? t : Math.log10(v)) - t) * f);
+			}
+		} else {
+			for (int i = 0; i < len; i++)
+				dstPixels[i] = (int) Math.round(o + (src[off + i] - t) * f);
+		}
+	}
+
+	/**
+	 * Map values to precise positions.
+	 *
+	 * @param src
+	 *            the values.
+	 * @param off
+	 *            the index of the first value.
+	 * @param len
+	 *            the number of values.
+	 * @param dstPositions
+	 *            the positions, the position of src[off + i] is stored at
+	 *            index i.
+	 */
+	public void mapValues(double[] src, int off, int len, double[] dstPositions) {
+		final double o = origin, t = transformedMin, f = factor;
+		if (logScale) {
+			for (int i = 0; i < len; i++) {
+				double v = src[off + i];
+				dstPositions[i] = o + ((v <= 0 ? t : Math.log10(v)) - t) * f;
+			}
+		} else {
+			for (int i = 0; i < len; i++)
+				dstPositions[i] = o + (src[off + i] - t) * f;
+		}
+	}
+
+	/**
+	 * Map positions to values, the inverse of
+	 * {@link #mapValues(double[], int, int, double[])}.
+	 *
+	 * @param src
+	 *            the positions.
+	 * @param off
+	 *            the index of the first position.
+	 * @param len
+	 *            the number of positions.
+	 * @param dstValues
+	 *            the values, the value of src[off + i] is stored at index i.
+	 */
+	public void mapPositions(double[] src, int off, int len, double[] dstValues) {
+		final double o = origin, t = transformedMin, r = 1 / factor;
+		if (logScale) {
+			for (int i = 0; i < len; i++)
+				dstValues[i] = Math.pow(10, (src[off + i] - o) * r + t);
+		} else {
+			for (int i = 0; i < len; i++)
+				dstValues[i] = (src[off + i] - o) * r + t;
+		}
+	}
+}
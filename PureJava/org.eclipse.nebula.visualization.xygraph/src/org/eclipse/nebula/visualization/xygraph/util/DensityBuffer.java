@@ -0,0 +1,334 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.eclipse.nebula.visualization.xygraph.util;
+
+import java.util.Arrays;
+
+/**
+ * A per pixel hit count buffer, which accumulates the line segments of many
+ * traces, like the persistence display of an oscilloscope.
+ * <p>
+ * Each pixel of a segment is hit once. The hits of the older acquisitions
+ * can decay, so recent acquisitions stand out. Decay is applied lazily: the
+ * weight of new hits grows instead of all counts shrinking, so it costs
+ * nothing per pixel until the weights have to be renormalized. The counts
+ * are mapped to colors by a lookup table, see
+ * {@link #createLookupTable(int[], int)}.
+ * </p>
+ * <p>
+ * The buffer doesn't depend on SWT, so it can be used and tested without a
+ * display.
+ * </p>
+ */
+public class DensityBuffer {
+
+	/** Weight of new hits above which all counts are renormalized. */
+	private static final float RENORMALIZE_WEIGHT = 1e20f;
+
+	private final int width;
+	private final int height;
+	private final float[] counts;
+
+	/** The weight of a new hit. */
+	private float hitWeight = 1;
+
+	/** The highest count in the buffer. */
+	private float maxCount;
+
+	/**
+	 * @param width
+	 *            the width of the buffer.
+	 * @param height
+	 *            the height of the buffer.
+	 */
+	public DensityBuffer(int width, int height) {
+		if (width <= 0 || height <= 0)
+			throw new IllegalArgumentException("width and height must be positive"); //$NON-NLS-1$
+		this.width = width;
+		this.height = height;
+		counts = new float[width * height];
+	}
+
+	/**
+	 * @return the width of the buffer.
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * @return the height of the buffer.
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * @param x
+	 *            the column.
+	 * @param y
+	 *            the row.
+	 * @return the decayed hit count of the pixel.
+	 */
+	public double getCount(int x, int y) {
+		return counts[y * width + x] / hitWeight;
+	}
+
+	/**
+	 * @return the highest decayed hit count of all pixels.
+	 */
+	public double getMaxCount() {
+		return maxCount / hitWeight;
+	}
+
+	/**
+	 * Remove all hits.
+	 */
+	public void clear() {
+		Arrays.fill(counts, 0);
+		hitWeight = 1;
+		maxCount = 0;
+	}
+
+	/**
+	 * Decay all hits, usually before a new acquisition is accumulated.
+	 *
+	 * @param factor
+	 *            the factor the counts are multiplied with, from 0 exclusive
+	 *            to 1 for no decay.
+	 */
+	public void decay(double factor) {
+		if (factor <= 0 || factor > 1)
+			throw new IllegalArgumentException("factor must be in (0, 1]"); //$NON-NLS-1$
+		if (factor == 1)
+			return;
+		hitWeight /= factor;
+		if (hitWeight > RENORMALIZE_WEIGHT || Float.isInfinite(hitWeight)) {
+			final float scale = 1 / hitWeight;
+			for (int i = 0; i < counts.length; i++)
+				counts[i] *= scale;
+			maxCount *= scale;
+			hitWeight = 1;
+		}
+	}
+
+	/**
+	 * Hit the pixels of a polyline through the first n points, clipped to
+	 * the buffer. A point with a NaN coordinate breaks the polyline. The
+	 * points shared by two segments are hit once.
+	 *
+	 * @param xs
+	 *            the x coordinates.
+	 * @param ys
+	 *            the y coordinates.
+	 * @param n
+	 *            the number of points.
+	 */
+	public void accumulatePolyline(double[] xs, double[] ys, int n) {
+		accumulatePolyline(xs, ys, n, false);
+	}
+
+	/**
+	 * Hit the pixels of a polyline through the first n points, clipped to
+	 * the buffer, which may continue the previous polyline.
+	 *
+	 * @param xs
+	 *            the x coordinates.
+	 * @param ys
+	 *            the y coordinates.
+	 * @param n
+	 *            the number of points.
+	 * @param continued
+	 *            true if the first point was already hit as the last point
+	 *            of the previous polyline.
+	 * @see #accumulatePolyline(double[], double[], int)
+	 */
+	public void accumulatePolyline(double[] xs, double[] ys, int n, boolean continued) {
+		boolean hasPrevious = false;
+		boolean previousHit = continued;
+		for (int i = 0; i < n; i++) {
+			if (Double.isNaN(xs[i]) || Double.isNaN(ys[i])) {
+				hasPrevious = false;
+				previousHit = false;
+				continue;
+			}
+			if (hasPrevious) {
+				accumulateLine(xs[i - 1], ys[i - 1], xs[i], ys[i], !previousHit);
+				previousHit = true;
+			} else if (!previousHit && (i == n - 1 || Double.isNaN(xs[i + 1]) || Double.isNaN(ys[i + 1]))) {
+				// a single point
+				accumulateLine(xs[i], ys[i], xs[i], ys[i], true);
+				previousHit = true;
+			}
+			hasPrevious = true;
+		}
+	}
+
+	/**
+	 * Hit the pixels of a line, clipped to the buffer.
+	 *
+	 * @param x0
+	 *            the x coordinate of the start.
+	 * @param y0
+	 *            the y coordinate of the start.
+	 * @param x1
+	 *            the x coordinate of the end.
+	 * @param y1
+	 *            the y coordinate of the end.
+	 * @param hitStart
+	 *            false if the start pixel was already hit as the end of the
+	 *            previous segment.
+	 */
+	public void accumulateLine(double x0, double y0, double x1, double y1, boolean hitStart) {
+		// Liang-Barsky, so only the visible part of the line is walked
+		final double dx = x1 - x0, dy = y1 - y0;
+		double t0 = 0, t1 = 1;
+		final double[] p = { -dx, dx, -dy, dy };
+		final double[] q = { x0 + 0.5, width - 0.5 - x0, y0 + 0.5, height - 0.5 - y0 };
+		for (int i = 0; i < 4; i++) {
+			if (p[i] == 0) {
+				if (q[i] < 0)
+					return;
+			} else {
+				final double t = q[i] / p[i];
+				if (p[i] < 0) {
+					if (t > t1)
+						return;
+					if (t > t0)
+						t0 = t;
+				} else {
+					if (t < t0)
+						return;
+					if (t < t1)
+						t1 = t;
+				}
+			}
+		}
+		// the start is only skipped if it wasn't clipped away
+		hitStart |= t0 > 0;
+		int x = clamp(x0 + t0 * dx, width), y = clamp(y0 + t0 * dy, height);
+		final int xEnd = clamp(x0 + t1 * dx, width), yEnd = clamp(y0 + t1 * dy, height);
+		final int adx = Math.abs(xEnd - x);
+		final int ady = -Math.abs(yEnd - y);
+		final int sx = x < xEnd ? 1 : -1;
+		final int sy = y < yEnd ? 1 : -1;
+		int err = adx + ady;
+		final float weight = hitWeight;
+		boolean hit = hitStart;
+		while (true) {
+			if (hit) {
+				final int index = y * width + x;
+				final float count = counts[index] + weight;
+				counts[index] = count;
+				if (count > maxCount)
+					maxCount = count;
+			}
+			hit = true;
+			if (x == xEnd && y == yEnd)
+				break;
+			final int e2 = 2 * err;
+			if (e2 >= ady) {
+				err += ady;
+				x += sx;
+			}
+			if (e2 <= adx) {
+				err += adx;
+				y += sy;
+			}
+		}
+	}
+
+	/**
+	 * Hit the pixel of a point, if it is inside the buffer. A point with a
+	 * NaN coordinate is ignored.
+	 *
+	 * @param x
+	 *            the x coordinate.
+	 * @param y
+	 *            the y coordinate.
+	 */
+	public void accumulatePoint(double x, double y) {
+		if (Double.isNaN(x) || Double.isNaN(y))
+			return;
+		final long column = Math.round(x), row = Math.round(y);
+		if (column < 0 || column >= width || row < 0 || row >= height)
+			return;
+		final int index = (int) row * width + (int) column;
+		final float count = counts[index] + hitWeight;
+		counts[index] = count;
+		if (count > maxCount)
+			maxCount = count;
+	}
+
+	private static int clamp(double position, int size) {
+		return (int) Math.max(0, Math.min(size - 1, Math.round(position)));
+	}
+
+	/**
+	 * Map the counts to colors.
+	 *
+	 * @param lookupTable
+	 *            the ARGB colors from the lowest to the highest count.
+	 * @param logarithmic
+	 *            true to map the logarithm of the counts, so rarely hit
+	 *            pixels are still visible next to very often hit ones.
+	 * @param dst
+	 *            the ARGB pixels, row by row. Pixels which were never hit are
+	 *            transparent.
+	 */
+	public void toARGB(int[] lookupTable, boolean logarithmic, int[] dst) {
+		final int last = lookupTable.length - 1;
+		if (maxCount <= 0) {
+			Arrays.fill(dst, 0, counts.length, 0);
+			return;
+		}
+		// counts are relative to the weight of a hit, so rarely hit pixels
+		// of decayed acquisitions fade out
+		final double scale = logarithmic ? last / Math.log1p(maxCount / hitWeight) : last / (double) maxCount;
+		final float weight = hitWeight;
+		for (int i = 0; i < counts.length; i++) {
+			final float count = counts[i];
+			if (count <= 0)
+				dst[i] = 0;
+			else {
+				final double level = logarithmic ? Math.log1p(count / weight) * scale : count * scale;
+				dst[i] = lookupTable[Math.min(last, (int) level)];
+			}
+		}
+	}
+
+	/**
+	 * Create a lookup table which interpolates between equally spaced
+	 * colors.
+	 *
+	 * @param colors
+	 *            the ARGB colors from the lowest to the highest count, at
+	 *            least one.
+	 * @param size
+	 *            the number of entries of the table.
+	 * @return the lookup table.
+	 */
+	public static int[] createLookupTable(int[] colors, int size) {
+		if (colors.length == 0 || size <= 0)
+			throw new IllegalArgumentException("colors and size must not be empty"); //$NON-NLS-1$
+		final int[] table = new int[size];
+		for (int i = 0; i < size; i++) {
+			final double position = size == 1 ? 0 : (double) i * (colors.length - 1) / (size - 1);
+			final int lower = Math.min((int) position, colors.length - 1);
+			final int upper = Math.min(lower + 1, colors.length - 1);
+			final double f = position - lower;
+			int argb = 0;
+			for (int shift = 0; shift < 32; shift += 8) {
+				final int a = (colors[lower] >>> shift) & 0xFF, b = (colors[upper] >>> shift) & 0xFF;
+				argb |= ((int) Math.round(a + (b - a) * f)) << shift;
+			}
+			table[i] = argb;
+		}
+		return table;
+	}
+}
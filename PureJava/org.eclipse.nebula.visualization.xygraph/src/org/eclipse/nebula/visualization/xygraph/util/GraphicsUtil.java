@@ -17,6 +17,7 @@ import org.eclipse.swt.graphics.Drawable;
 import org.eclipse.swt.graphics.GC;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
 import org.eclipse.swt.graphics.Transform;
 
 /**
@@ -125,4 +126,29 @@ public final class GraphicsUtil {
 			return null;
 		}
 	}
+
+	/**
+	 * Create an image with alpha from ARGB pixels, for example the raster of
+	 * a {@link SoftwareRasterizer}.
+	 * 
+	 * @param device
+	 *            the device of the image.
+	 * @param pixels
+	 *            the ARGB pixels, row by row.
+	 * @param width
+	 *            the width of the image.
+	 * @param height
+	 *            the height of the image.
+	 * @return the image, which must be disposed by the caller.
+	 */
+	public static Image createImage(Device device, int[] pixels, int width, int height) {
+		final ImageData imageData = new ImageData(width, height, 32, new PaletteData(0xFF0000, 0xFF00, 0xFF));
+		final byte[] alphaData = new byte[width * height];
+		for (int i = 0; i < alphaData.length; i++)
+			alphaData[i] = (byte) (pixels[i] >>> 24);
+		for (int y = 0; y < height; y++)
+			imageData.setPixels(0, y, width, pixels, y * width);
+		imageData.alphaData = alphaData;
+		return new Image(device, imageData);
+	}
 }
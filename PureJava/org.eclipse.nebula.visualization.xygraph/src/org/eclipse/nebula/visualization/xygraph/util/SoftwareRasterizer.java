@@ -0,0 +1,539 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Oak Ridge National Laboratory.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.eclipse.nebula.visualization.xygraph.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * A pure Java rasterizer which draws lines, rectangles, ovals and area fills
+ * into an ARGB <code>int[]</code> raster.
+ * <p>
+ * The primitives are recorded in a display list first. {@link #rasterize()}
+ * then splits the raster into bands of rows and replays the whole display
+ * list on each band in parallel, clipped to the band. Each pixel is only
+ * written by the thread of its band, in display list order, so the result
+ * is the same for any number of bands. Lines are drawn like Bresenham's
+ * algorithm, with one pixel per step along their major axis at the rounded
+ * position of the exact line. The position is computed for each step, so a
+ * band only steps along the part of a line which reaches its rows. Colors
+ * with alpha are blended over the raster.
+ * </p>
+ * <p>
+ * The rasterizer doesn't depend on SWT, so it can be used and tested
+ * without a display.
+ * </p>
+ */
+public class SoftwareRasterizer {
+
+	/**
+	 * Minimum number of primitives before the raster is split into bands
+	 * which are rasterized in parallel.
+	 */
+	public static final int PARALLEL_THRESHOLD = 4096;
+
+	/** Minimum number of rows of a band. */
+	private static final int MIN_BAND_ROWS = 16;
+
+	private static final int LINE = 0;
+	private static final int RECTANGLE = 1;
+	private static final int OVAL = 2;
+	private static final int AREA = 3;
+	private static final int IMAGE = 4;
+
+	/** Number of ints of a primitive in the display list. */
+	private static final int OP_SIZE = 7;
+
+	private static ExecutorService pool;
+
+	private final int width;
+	private final int height;
+	private final int[] pixels;
+
+	private int[] ops = new int[OP_SIZE * 256];
+	private int opCount;
+
+	/** The pixels of the images drawn by the display list */
+	private final List<int[]> images = new ArrayList<int[]>();
+
+	private int color = 0xFF000000;
+	private int lineWidth = 1;
+
+	/** The clip rectangle of lines, from (clipX0, clipY0) to (clipX1, clipY1) inclusive. */
+	private int clipX0, clipY0, clipX1, clipY1;
+
+	/**
+	 * @param width
+	 *            the width of the raster.
+	 * @param height
+	 *            the height of the raster.
+	 */
+	public SoftwareRasterizer(int width, int height) {
+		if (width <= 0 || height <= 0)
+			throw new IllegalArgumentException("width and height must be positive"); //$NON-NLS-1$
+		this.width = width;
+		this.height = height;
+		pixels = new int[width * height];
+		setClip(0, 0, width, height);
+	}
+
+	/**
+	 * @return the shared thread pool of the rasterizers.
+	 */
+	private static synchronized ExecutorService getPool() {
+		if (pool == null)
+			pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "SoftwareRasterizer"); //$NON-NLS-1$
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		return pool;
+	}
+
+	/**
+	 * @return the width of the raster.
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * @return the height of the raster.
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * @return the ARGB pixels of the raster, row by row. They are only
+	 *         complete after {@link #rasterize()}.
+	 */
+	public int[] getPixels() {
+		return pixels;
+	}
+
+	/**
+	 * @return the number of primitives in the display list.
+	 */
+	public int getPrimitiveCount() {
+		return opCount;
+	}
+
+	/**
+	 * Set the color of the following primitives.
+	 *
+	 * @param argb
+	 *            the color with alpha in the highest byte.
+	 */
+	public void setColor(int argb) {
+		color = argb;
+	}
+
+	/**
+	 * Set the color of the following primitives.
+	 *
+	 * @param red
+	 *            the red component, 0 to 255.
+	 * @param green
+	 *            the green component, 0 to 255.
+	 * @param blue
+	 *            the blue component, 0 to 255.
+	 * @param alpha
+	 *            the alpha, 0 to 255.
+	 */
+	public void setColor(int red, int green, int blue, int alpha) {
+		color = (alpha & 0xFF) << 24 | (red & 0xFF) << 16 | (green & 0xFF) << 8 | (blue & 0xFF);
+	}
+
+	/**
+	 * @param lineWidth
+	 *            the width of the following lines in pixels.
+	 */
+	public void setLineWidth(int lineWidth) {
+		this.lineWidth = Math.max(1, lineWidth);
+	}
+
+	/**
+	 * Set the rectangle the following lines are clipped to. The center line
+	 * of a wide line is clipped, so the pen may reach out of the rectangle by
+	 * half its width. Fills are only clipped to the raster.
+	 *
+	 * @param x
+	 *            the left of the rectangle.
+	 * @param y
+	 *            the top of the rectangle.
+	 * @param w
+	 *            the width of the rectangle.
+	 * @param h
+	 *            the height of the rectangle.
+	 */
+	public void setClip(int x, int y, int w, int h) {
+		clipX0 = Math.max(x, 0);
+		clipY0 = Math.max(y, 0);
+		clipX1 = Math.min(x + w, width) - 1;
+		clipY1 = Math.min(y + h, height) - 1;
+	}
+
+	/**
+	 * Draw a line, clipped to the clip rectangle.
+	 */
+	public void drawLine(int x0, int y0, int x1, int y1) {
+		if (clipX0 > clipX1 || clipY0 > clipY1)
+			return;
+		// Liang-Barsky, so only the visible part of the line is rasterized
+		final double dx = (double) x1 - x0, dy = (double) y1 - y0;
+		double t0 = 0, t1 = 1;
+		final double[] p = { -dx, dx, -dy, dy };
+		final double[] q = { (double) x0 - clipX0, (double) clipX1 - x0, (double) y0 - clipY0,
+				(double) clipY1 - y0 };
+		for (int i = 0; i < 4; i++) {
+			if (p[i] == 0) {
+				if (q[i] < 0)
+					return;
+			} else {
+				double t = q[i] / p[i];
+				if (p[i] < 0) {
+					if (t > t1)
+						return;
+					if (t > t0)
+						t0 = t;
+				} else {
+					if (t < t0)
+						return;
+					if (t < t1)
+						t1 = t;
+				}
+			}
+		}
+		if (t0 == 0 && t1 == 1)
+			addOp(LINE, x0, y0, x1, y1, lineWidth);
+		else
+			addOp(LINE, (int) Math.round(x0 + t0 * dx), (int) Math.round(y0 + t0 * dy),
+					(int) Math.round(x0 + t1 * dx), (int) Math.round(y0 + t1 * dy), lineWidth);
+	}
+
+	/**
+	 * Draw a polyline through the first n points.
+	 *
+	 * @param xs
+	 *            the x coordinates.
+	 * @param ys
+	 *            the y coordinates.
+	 * @param n
+	 *            the number of points.
+	 */
+	public void drawPolyline(int[] xs, int[] ys, int n) {
+		if (n == 1)
+			drawLine(xs[0], ys[0], xs[0], ys[0]);
+		for (int i = 1; i < n; i++)
+			drawLine(xs[i - 1], ys[i - 1], xs[i], ys[i]);
+	}
+
+	/**
+	 * Fill a rectangle.
+	 */
+	public void fillRectangle(int x, int y, int w, int h) {
+		if (w > 0 && h > 0)
+			addOp(RECTANGLE, x, y, w, h, 0);
+	}
+
+	/**
+	 * Fill the oval inscribed in a rectangle.
+	 */
+	public void fillOval(int x, int y, int w, int h) {
+		if (w > 0 && h > 0)
+			addOp(OVAL, x, y, w, h, 0);
+	}
+
+	/**
+	 * Fill the area between the line from (x0, y0) to (x1, y1) and the
+	 * horizontal base line, column by column. The column of the right end is
+	 * not filled, so adjacent areas of a polyline don't overlap.
+	 */
+	public void fillArea(int x0, int y0, int x1, int y1, int baseY) {
+		if (x0 > x1)
+			addOp(AREA, x1, y1, x0, y0, baseY);
+		else
+			addOp(AREA, x0, y0, x1, y1, baseY);
+	}
+
+	/**
+	 * Draw an image, for example a marker sprite, blended over the raster.
+	 * The pixels must not change until the raster is rasterized.
+	 *
+	 * @param argb
+	 *            the ARGB pixels of the image, row by row.
+	 * @param w
+	 *            the width of the image.
+	 * @param h
+	 *            the height of the image.
+	 * @param x
+	 *            the left of the image in the raster.
+	 * @param y
+	 *            the top of the image in the raster.
+	 */
+	public void drawImage(int[] argb, int w, int h, int x, int y) {
+		if (x >= width || y >= height || x + w <= 0 || y + h <= 0)
+			return;
+		int index = images.size();
+		// consecutive stamps of the same image share its entry
+		if (index > 0 && images.get(index - 1) == argb)
+			index--;
+		else
+			images.add(argb);
+		addOp(IMAGE, x, y, w, h, index);
+	}
+
+	/**
+	 * Clear the display list, so the raster can be drawn again.
+	 */
+	public void reset() {
+		opCount = 0;
+		images.clear();
+	}
+
+	private void addOp(int code, int a, int b, int c, int d, int e) {
+		int index = opCount * OP_SIZE;
+		if (index + OP_SIZE > ops.length) {
+			int[] grown = new int[ops.length * 2];
+			System.arraycopy(ops, 0, grown, 0, index);
+			ops = grown;
+		}
+		ops[index] = code;
+		ops[index + 1] = color;
+		ops[index + 2] = a;
+		ops[index + 3] = b;
+		ops[index + 4] = c;
+		ops[index + 5] = d;
+		ops[index + 6] = e;
+		opCount++;
+	}
+
+	/**
+	 * Clear the raster to transparent and draw the display list, in parallel
+	 * bands if it is large.
+	 *
+	 * @return the ARGB pixels of the raster.
+	 */
+	public int[] rasterize() {
+		int bands = 1;
+		if (opCount >= PARALLEL_THRESHOLD)
+			bands = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), height / MIN_BAND_ROWS));
+		return rasterize(bands);
+	}
+
+	/**
+	 * Clear the raster to transparent and draw the display list, split into
+	 * the given number of bands of rows.
+	 *
+	 * @param bands
+	 *            the number of bands, 1 to draw in the calling thread.
+	 * @return the ARGB pixels of the raster.
+	 */
+	public int[] rasterize(int bands) {
+		bands = Math.max(1, Math.min(bands, height));
+		if (bands == 1) {
+			rasterizeBand(0, height);
+			return pixels;
+		}
+		List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(bands);
+		for (int i = 0; i < bands; i++) {
+			final int start = (int) ((long) height * i / bands);
+			final int end = (int) ((long) height * (i + 1) / bands);
+			tasks.add(new Callable<Object>() {
+				@Override
+				public Object call() throws Exception {
+					rasterizeBand(start, end);
+					return null;
+				}
+			});
+		}
+		try {
+			for (Future<Object> f : getPool().invokeAll(tasks))
+				f.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+		return pixels;
+	}
+
+	/**
+	 * Draw the display list on the rows from top (inclusive) to bottom
+	 * (exclusive).
+	 */
+	private void rasterizeBand(int top, int bottom) {
+		Arrays.fill(pixels, top * width, bottom * width, 0);
+		for (int i = 0, index = 0; i < opCount; i++, index += OP_SIZE) {
+			int argb = ops[index + 1];
+			int a = ops[index + 2], b = ops[index + 3], c = ops[index + 4], d = ops[index + 5], e = ops[index + 6];
+			switch (ops[index]) {
+			case LINE:
+				rasterizeLine(a, b, c, d, e, argb, top, bottom);
+				break;
+			case RECTANGLE:
+				fillSpan(a, Math.max(b, top), a + c, Math.min(b + d, bottom), argb);
+				break;
+			case OVAL:
+				rasterizeOval(a, b, c, d, argb, top, bottom);
+				break;
+			case AREA:
+				rasterizeArea(a, b, c, d, e, argb, top, bottom);
+				break;
+			case IMAGE:
+				rasterizeImage(images.get(e), a, b, c, d, top, bottom);
+				break;
+			default:
+				break;
+			}
+		}
+	}
+
+	private void rasterizeLine(int x0, int y0, int x1, int y1, int penSize, int argb, int top, int bottom) {
+		final int before = (penSize - 1) / 2;
+		final int after = penSize - 1 - before;
+		// skip lines which don't reach this band or the raster
+		if (Math.max(y0, y1) + after < top || Math.min(y0, y1) - before >= bottom
+				|| Math.max(x0, x1) + after < 0 || Math.min(x0, x1) - before >= width)
+			return;
+		final long dx = Math.abs((long) x1 - x0);
+		final long dy = Math.abs((long) y1 - y0);
+		final int sx = x0 < x1 ? 1 : -1;
+		final int sy = y0 < y1 ? 1 : -1;
+		// the steps along y of the points whose pen reaches the band
+		final long first = Math.max(0, sy > 0 ? (long) top - after - y0 : (long) y0 - bottom + 1 - before);
+		final long last = Math.min(dy, sy > 0 ? (long) bottom - 1 + before - y0 : (long) y0 - top + after);
+		if (first > last)
+			return;
+		if (dx > dy) {
+			// one point per column, the steps along x of the rows of the band
+			long start = 0, end = dx;
+			if (dy > 0) {
+				start = Math.max(0, ceilDiv((2 * first - 1) * dx, 2 * dy));
+				end = Math.min(dx, ceilDiv((2 * last + 1) * dx, 2 * dy) - 1);
+			}
+			for (long u = start; u <= end; u++)
+				plot(x0 + sx * (int) u, y0 + sy * (int) ((2 * u * dy + dx) / (2 * dx)), before, after, argb, top,
+						bottom);
+		} else {
+			// one point per row
+			for (long v = first; v <= last; v++)
+				plot(x0 + sx * (int) (dy == 0 ? 0 : (2 * v * dx + dy) / (2 * dy)), y0 + sy * (int) v, before, after,
+						argb, top, bottom);
+		}
+	}
+
+	/**
+	 * @return a / b rounded up, for b > 0.
+	 */
+	private static long ceilDiv(long a, long b) {
+		return a >= 0 ? (a + b - 1) / b : -(-a / b);
+	}
+
+	/**
+	 * Draw a point of a line with the pen, clipped to the band.
+	 */
+	private void plot(int x, int y, int before, int after, int argb, int top, int bottom) {
+		if (before == 0 && after == 0) {
+			if (y >= top && y < bottom && x >= 0 && x < width)
+				blend(y * width + x, argb);
+		} else
+			fillSpan(x - before, Math.max(y - before, top), x + after + 1, Math.min(y + after + 1, bottom), argb);
+	}
+
+	private void rasterizeOval(int x, int y, int w, int h, int argb, int top, int bottom) {
+		final double rx = w / 2.0, ry = h / 2.0;
+		final double cx = x + rx, cy = y + ry;
+		final int rowStart = Math.max(y, top);
+		final int rowEnd = Math.min(y + h, bottom);
+		for (int row = rowStart; row < rowEnd; row++) {
+			double t = (row + 0.5 - cy) / ry;
+			double half = rx * Math.sqrt(Math.max(0, 1 - t * t));
+			int left = (int) Math.round(cx - half);
+			int right = (int) Math.round(cx + half);
+			fillSpan(left, row, right, row + 1, argb);
+		}
+	}
+
+	private void rasterizeArea(int x0, int y0, int x1, int y1, int baseY, int argb, int top, int bottom) {
+		if (x1 <= 0 || x0 >= width)
+			return;
+		final int columnStart = Math.max(x0, 0);
+		final int columnEnd = Math.min(x1, width);
+		final double slope = ((double) y1 - y0) / ((double) x1 - x0);
+		for (int column = columnStart; column < columnEnd; column++) {
+			double y = Math.round(y0 + slope * ((double) column - x0));
+			int rowStart = (int) Math.max(Math.min(y, baseY), top);
+			int rowEnd = (int) Math.min(Math.max(y, baseY) + 1, bottom);
+			fillSpan(column, rowStart, column + 1, rowEnd, argb);
+		}
+	}
+
+	private void rasterizeImage(int[] image, int x, int y, int w, int h, int top, int bottom) {
+		final int rowStart = Math.max(y, top), rowEnd = Math.min(y + h, bottom);
+		final int columnStart = Math.max(x, 0), columnEnd = Math.min(x + w, width);
+		for (int row = rowStart; row < rowEnd; row++) {
+			final int src = (row - y) * w - x;
+			final int dst = row * width;
+			for (int column = columnStart; column < columnEnd; column++)
+				blend(dst + column, image[src + column]);
+		}
+	}
+
+	/**
+	 * Fill the pixels from (x0, y0) inclusive to (x1, y1) exclusive, clipped
+	 * to the raster.
+	 */
+	private void fillSpan(int x0, int y0, int x1, int y1, int argb) {
+		x0 = Math.max(x0, 0);
+		x1 = Math.min(x1, width);
+		y0 = Math.max(y0, 0);
+		y1 = Math.min(y1, height);
+		for (int y = y0; y < y1; y++)
+			for (int index = y * width + x0, end = y * width + x1; index < end; index++)
+				blend(index, argb);
+	}
+
+	/**
+	 * Blend a color over a pixel.
+	 */
+	private void blend(int index, int argb) {
+		final int alpha = argb >>> 24;
+		if (alpha == 0xFF) {
+			pixels[index] = argb;
+			return;
+		}
+		if (alpha == 0)
+			return;
+		final int dst = pixels[index];
+		final int dstAlpha = dst >>> 24;
+		// src over dst, with non premultiplied colors
+		final int outAlpha = alpha + dstAlpha * (255 - alpha) / 255;
+		if (outAlpha == 0) {
+			pixels[index] = 0;
+			return;
+		}
+		final int dstWeight = dstAlpha * (255 - alpha) / 255;
+		int r = (((argb >> 16) & 0xFF) * alpha + ((dst >> 16) & 0xFF) * dstWeight) / outAlpha;
+		int g = (((argb >> 8) & 0xFF) * alpha + ((dst >> 8) & 0xFF) * dstWeight) / outAlpha;
+		int b = ((argb & 0xFF) * alpha + (dst & 0xFF) * dstWeight) / outAlpha;
+		pixels[index] = outAlpha << 24 | r << 16 | g << 8 | b;
+	}
+}